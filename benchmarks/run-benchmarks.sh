@@ -0,0 +1,16 @@
+#!/bin/bash
+
+# Builds the game and the JMH benchmarks and runs them, writing the results
+# as JSON to benchmarks/results/ for comparison with earlier runs.
+# Extra arguments go to JMH, e.g. a benchmark regex or "-p difficulty=HARD".
+
+set -e
+cd "$(dirname "$0")/.."
+
+mvn -B -q install
+mvn -B -q -f benchmarks/pom.xml package
+
+mkdir -p benchmarks/results
+RESULT="benchmarks/results/jmh-$(date +%Y%m%d-%H%M%S).json"
+java -jar benchmarks/target/benchmarks.jar -rf json -rff "$RESULT" "$@"
+echo "Results written to $RESULT"
\ No newline at end of file
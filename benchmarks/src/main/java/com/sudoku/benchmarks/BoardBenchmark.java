@@ -0,0 +1,59 @@
+package com.sudoku.benchmarks;
+
+import com.sudoku.generator.SudokuGenerator;
+import com.sudoku.model.Difficulty;
+import com.sudoku.model.SudokuBoard;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Basic board operations on a medium puzzle from the fixed corpus and on
+ * its solved grid.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+    private SudokuBoard puzzle;
+    private SudokuBoard solved;
+    
+    @Setup(Level.Trial)
+    public void loadBoards() {
+        SudokuGenerator.GeneratedPuzzle generated = Corpus.puzzles(Difficulty.MEDIUM)[0];
+        puzzle = generated.getPuzzle();
+        solved = new SudokuBoard(generated.getSolution());
+    }
+    
+    @Benchmark
+    public SudokuBoard copy() {
+        return puzzle.copy();
+    }
+    
+    /**
+     * Every digit in every cell, as a candidate scan does.
+     */
+    @Benchmark
+    public void isValidMove(Blackhole blackhole) {
+        for (int row = 0; row < SudokuBoard.SIZE; row++) {
+            for (int col = 0; col < SudokuBoard.SIZE; col++) {
+                for (int value = 1; value <= SudokuBoard.SIZE; value++) {
+                    blackhole.consume(puzzle.isValidMove(row, col, value));
+                }
+            }
+        }
+    }
+    
+    @Benchmark
+    public boolean isCompletePartial() {
+        return puzzle.isComplete();
+    }
+    
+    @Benchmark
+    public boolean isCompleteSolved() {
+        return solved.isComplete();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,75 @@
+package com.sudoku.benchmarks;
+
+import com.sudoku.generator.SudokuGenerator;
+import com.sudoku.model.Difficulty;
+import com.sudoku.model.SudokuBoard;
+import com.sudoku.solver.SudokuSolver;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Fixed puzzle sets for the benchmarks, checked in next to this class as
+ * corpus-&lt;difficulty&gt;.txt: one puzzle of 81 cells per line, '.' for
+ * empty cells. Every run and every machine works on exactly the same
+ * puzzles, whatever later changes to the generator do. {@link #SEED} seeds
+ * the generators and solvers the benchmarks create themselves.
+ */
+final class Corpus {
+    static final long SEED = 20240501L;
+    
+    private Corpus() {}
+    
+    static SudokuGenerator.GeneratedPuzzle[] puzzles(Difficulty difficulty) {
+        int[][][] grids = grids(difficulty);
+        SudokuSolver solver = new SudokuSolver();
+        SudokuGenerator.GeneratedPuzzle[] puzzles = new SudokuGenerator.GeneratedPuzzle[grids.length];
+        for (int i = 0; i < grids.length; i++) {
+            SudokuBoard puzzle = new SudokuBoard(grids[i]);
+            int[][] solution = new int[SudokuBoard.SIZE][SudokuBoard.SIZE];
+            if (solver.countSolutions(puzzle, 2, solution) != 1) {
+                throw new IllegalStateException("Corpus puzzle without a unique solution: " + difficulty + " #" + i);
+            }
+            puzzles[i] = new SudokuGenerator.GeneratedPuzzle(puzzle, solution);
+        }
+        return puzzles;
+    }
+    
+    static int[][][] grids(Difficulty difficulty) {
+        String resource = "corpus-" + difficulty.name().toLowerCase(Locale.ROOT) + ".txt";
+        List<int[][]> grids = new ArrayList<>();
+        try (InputStream in = Corpus.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing corpus file " + resource);
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.US_ASCII));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    grids.add(parse(line.trim(), resource));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return grids.toArray(new int[0][][]);
+    }
+    
+    private static int[][] parse(String line, String resource) {
+        if (line.length() != SudokuBoard.SIZE * SudokuBoard.SIZE) {
+            throw new IllegalStateException("Not an 81-cell puzzle in " + resource + ": " + line);
+        }
+        int[][] grid = new int[SudokuBoard.SIZE][SudokuBoard.SIZE];
+        for (int cell = 0; cell < line.length(); cell++) {
+            char c = line.charAt(cell);
+            grid[cell / SudokuBoard.SIZE][cell % SudokuBoard.SIZE] = c == '.' ? 0 : c - '0';
+        }
+        return grid;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,67 @@
+package com.sudoku.benchmarks;
+
+import com.sudoku.model.Difficulty;
+import com.sudoku.persistence.PuzzleCorpus;
+import com.sudoku.persistence.PuzzleLineWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Importing a large file of 81-character puzzle lines with
+ * {@link PuzzleCorpus#importLines}. The file is built from the corpus
+ * puzzles in a temporary folder and stays in the page cache after the
+ * first import, so this measures parsing, not the disk. The bytes counter
+ * is the throughput in bytes per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CorpusImportBenchmark {
+    @Param({"256"})
+    public int megabytes;
+    
+    private Path file;
+    
+    @Setup(Level.Trial)
+    public void writeFile() throws IOException {
+        List<int[][]> grids = new ArrayList<>();
+        for (Difficulty difficulty : Difficulty.values()) {
+            grids.addAll(List.of(Corpus.grids(difficulty)));
+        }
+        file = Files.createTempFile("sudoku-corpus", ".txt");
+        long lines = (long) megabytes * 1024 * 1024 / (81 + 1);
+        try (PuzzleLineWriter writer = new PuzzleLineWriter(file)) {
+            for (long line = 0; line < lines; line++) {
+                writer.write(grids.get((int) (line % grids.size())));
+            }
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+    
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Bytes {
+        public long bytes;
+    }
+    
+    @Benchmark
+    public long importLines(Bytes counter) throws IOException {
+        LongAdder puzzles = new LongAdder();
+        PuzzleCorpus.ImportResult result = PuzzleCorpus.importLines(file, batch -> puzzles.add(batch.size()));
+        counter.bytes += result.getBytes();
+        return puzzles.sum();
+    }
+}
\ No newline at end of file
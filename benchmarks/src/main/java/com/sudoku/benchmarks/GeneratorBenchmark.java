@@ -0,0 +1,34 @@
+package com.sudoku.benchmarks;
+
+import com.sudoku.generator.SudokuGenerator;
+import com.sudoku.model.Difficulty;
+import com.sudoku.model.SudokuBoard;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Puzzle generation per difficulty. The generator is reseeded every
+ * iteration, so each iteration generates the same sequence of puzzles.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class GeneratorBenchmark {
+    @Param({"EASY", "MEDIUM", "HARD", "EXPERT"})
+    public Difficulty difficulty;
+    
+    private SudokuGenerator generator;
+    
+    @Setup(Level.Iteration)
+    public void resetGenerator() {
+        generator = new SudokuGenerator(Corpus.SEED + difficulty.ordinal());
+    }
+    
+    @Benchmark
+    public SudokuBoard generatePuzzle() {
+        return generator.generatePuzzle(difficulty);
+    }
+}
\ No newline at end of file
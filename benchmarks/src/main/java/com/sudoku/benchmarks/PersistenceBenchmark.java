@@ -0,0 +1,75 @@
+package com.sudoku.benchmarks;
+
+import com.sudoku.generator.SudokuGenerator;
+import com.sudoku.manager.GameManager;
+import com.sudoku.model.Difficulty;
+import com.sudoku.persistence.DirectorySaveStore;
+import com.sudoku.persistence.GamePersistence;
+import com.sudoku.persistence.GameState;
+import com.sudoku.solver.SudokuSolver;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Saving and loading a game in progress through a save directory in a
+ * temporary folder. The load cache is disabled, so every load reads and
+ * decodes the file; every save is forced to disk like a real one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersistenceBenchmark {
+    private static final String SAVE_NAME = "benchmark.sudoku";
+    
+    private Path directory;
+    private GamePersistence persistence;
+    private GameState state;
+    
+    @Setup(Level.Trial)
+    public void createGame() throws IOException {
+        directory = Files.createTempDirectory("sudoku-bench");
+        persistence = new GamePersistence(new DirectorySaveStore(directory, ".sudoku"), null, 0);
+        
+        GameManager manager = new GameManager(new SudokuGenerator(Corpus.SEED),
+            new SudokuSolver(new Random(Corpus.SEED)));
+        manager.startNewGame(Difficulty.MEDIUM);
+        // A game halfway through, with a move history to save
+        int moves = 0;
+        for (int cell = 0; cell < 81 && moves < 20; cell++) {
+            int row = cell / 9;
+            int col = cell % 9;
+            if (manager.getCurrentBoard().isEmpty(row, col)) {
+                manager.makeMove(row, col, manager.getSolutionValue(row, col));
+                moves++;
+            }
+        }
+        state = manager.createGameState("Benchmark");
+        persistence.saveGame(state, SAVE_NAME);
+    }
+    
+    @TearDown(Level.Trial)
+    public void deleteSaves() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+    
+    @Benchmark
+    public boolean save() {
+        return persistence.saveGame(state, SAVE_NAME);
+    }
+    
+    @Benchmark
+    public GameState load() {
+        return persistence.loadGame(SAVE_NAME);
+    }
+}
\ No newline at end of file
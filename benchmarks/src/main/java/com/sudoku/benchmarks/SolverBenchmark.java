@@ -0,0 +1,56 @@
+package com.sudoku.benchmarks;
+
+import com.sudoku.model.Difficulty;
+import com.sudoku.model.SudokuBoard;
+import com.sudoku.solver.SudokuSolver;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Solving and solution counting on the fixed corpus of each difficulty.
+ * Each call takes the next puzzle of the corpus; building the board from
+ * its grid is part of the measured time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolverBenchmark {
+    @Param({"EASY", "MEDIUM", "HARD", "EXPERT"})
+    public Difficulty difficulty;
+    
+    private int[][][] grids;
+    private SudokuSolver solver;
+    private int next;
+    
+    @Setup(Level.Trial)
+    public void loadCorpus() {
+        grids = Corpus.grids(difficulty);
+    }
+    
+    @Setup(Level.Iteration)
+    public void resetSolver() {
+        // The solver shuffles digits; reseeding replays the same choices every iteration
+        solver = new SudokuSolver(new Random(Corpus.SEED));
+        next = 0;
+    }
+    
+    private SudokuBoard nextBoard() {
+        int[][] grid = grids[next];
+        next = (next + 1) % grids.length;
+        return new SudokuBoard(grid);
+    }
+    
+    @Benchmark
+    public boolean solve() {
+        return solver.solve(nextBoard());
+    }
+    
+    @Benchmark
+    public int countSolutions() {
+        return solver.countSolutions(nextBoard(), 2);
+    }
+}
\ No newline at end of file
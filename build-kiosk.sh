@@ -0,0 +1,66 @@
+#!/bin/bash
+
+# Startup-optimized Sudoku distribution for kiosks
+#
+# Builds dist/kiosk with:
+# - a jlink runtime holding only the game module and what it requires
+# - a pregenerated puzzle pool, so the first board needs no generation
+# - an AppCDS archive of the classes loaded up to the first interactive
+#   board, recorded by a training run of the GUI
+# and finally reports the measured time to an interactive board.
+#
+# The training run needs a display; without one it uses xvfb-run if
+# installed, otherwise it trains on the console application only.
+
+set -e
+cd "$(dirname "$0")"
+
+BUILD=out/kiosk
+DIST=dist/kiosk
+POOL_SIZE=${POOL_SIZE:-5}
+
+rm -rf "$BUILD" "$DIST"
+mkdir -p "$BUILD/classes"
+
+echo "Compiling module..."
+javac -encoding UTF-8 -d "$BUILD/classes" $(find src/main/java -name '*.java')
+jar --create --file "$BUILD/sudoku.jar" --main-class com.sudoku.ui.SudokuSwingGUI -C "$BUILD/classes" .
+
+# Resources are left uncompressed: decompressing them would cost startup time
+echo "Linking runtime image..."
+jlink --module-path "$BUILD/sudoku.jar" --add-modules sudoku.game \
+    --strip-debug --no-header-files --no-man-pages \
+    --output "$DIST"
+
+# The dynamic archive below builds on the base archive of the image's JDK classes
+"$DIST/bin/java" -Xshare:dump > /dev/null
+
+echo "Filling puzzle pool..."
+(cd "$DIST" && bin/java -m sudoku.game/com.sudoku.SudokuApplication --fill-pool "$POOL_SIZE")
+
+echo "Training class-data archive..."
+# The training run exits before the pool is saved again, so it stays full
+TRAIN=(bin/java -XX:ArchiveClassesAtExit=lib/sudoku.jsa -Dsudoku.startup.exit=true -m sudoku.game)
+if [ -n "$DISPLAY" ]; then
+    (cd "$DIST" && "${TRAIN[@]}")
+elif command -v xvfb-run > /dev/null; then
+    (cd "$DIST" && xvfb-run -a "${TRAIN[@]}")
+else
+    echo "No display: training on the console application instead of the GUI."
+    (cd "$DIST" && printf 'new medium\nhint\nmove 1 1 1\nundo\ncheck\n' \
+        | bin/java -XX:ArchiveClassesAtExit=lib/sudoku.jsa -m sudoku.game/com.sudoku.SudokuApplication --script - > /dev/null)
+fi
+
+cp run-kiosk.sh "$DIST/"
+echo "Built $DIST ($(du -sh "$DIST" | cut -f1)). Start it with $DIST/run-kiosk.sh"
+
+if [ -n "$DISPLAY" ] || command -v xvfb-run > /dev/null; then
+    echo "Measuring time to interactive board (3 runs)..."
+    for run in 1 2 3; do
+        if [ -n "$DISPLAY" ]; then
+            SUDOKU_JAVA_OPTS="-Dsudoku.startup.exit=true" "$DIST/run-kiosk.sh"
+        else
+            SUDOKU_JAVA_OPTS="-Dsudoku.startup.exit=true" xvfb-run -a "$DIST/run-kiosk.sh"
+        fi
+    done
+fi
\ No newline at end of file
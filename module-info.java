@@ -1,7 +0,0 @@
-module sudoku.game {
-    exports com.sudoku.ui;
-    exports com.sudoku.model;
-    exports com.sudoku.manager;
-    exports com.sudoku.solver;
-    exports com.sudoku.generator;
-}
\ No newline at end of file
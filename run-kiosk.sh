@@ -0,0 +1,15 @@
+#!/bin/bash
+
+# Starts the kiosk build made by build-kiosk.sh with its class-data archive.
+# Prints the time to an interactive board to stderr; extra JVM options can
+# be passed in SUDOKU_JAVA_OPTS.
+
+DIR="$(cd "$(dirname "$0")" && pwd)"
+if [ ! -x "$DIR/bin/java" ]; then
+    DIR="$DIR/dist/kiosk"
+fi
+cd "$DIR" || exit 1
+
+exec bin/java -XX:SharedArchiveFile=lib/sudoku.jsa -Xshare:auto -XX:+UseSerialGC \
+    -Dsudoku.startup.report=true $SUDOKU_JAVA_OPTS \
+    -m sudoku.game "$@"
\ No newline at end of file
@@ -1,6 +1,21 @@
 package com.sudoku;
 
+import com.sudoku.manager.GameManager;
+import com.sudoku.metrics.MetricsRegistry;
+import com.sudoku.persistence.PuzzlePool;
 import com.sudoku.ui.ConsoleUI;
+import com.sudoku.ui.ScriptRunner;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.FileDescriptor;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 
 /**
  * Main application class for the Sudoku game.
@@ -13,10 +28,21 @@ import com.sudoku.ui.ConsoleUI;
  * - Console-based user interface
  * 
  * To run: java com.sudoku.SudokuApplication
+ * Scripted: java com.sudoku.SudokuApplication --script FILE (or - for stdin)
+ * Puzzle pool: java com.sudoku.SudokuApplication --fill-pool [COUNT]
+ * Metrics: -Dsudoku.metrics.jmx=true, -Dsudoku.metrics.dumpSeconds=N
  */
 public class SudokuApplication {
     
     public static void main(String[] args) {
+        MetricsRegistry.configureFromSystemProperties();
+        if (args.length > 0 && args[0].equals("--script")) {
+            System.exit(runScript(args.length > 1 ? args[1] : "-"));
+        }
+        if (args.length > 0 && args[0].equals("--fill-pool")) {
+            System.exit(fillPuzzlePool(args.length > 1 ? Integer.parseInt(args[1]) : 5));
+        }
+        
         try {
             ConsoleUI ui = new ConsoleUI();
             ui.start();
@@ -26,4 +52,36 @@ public class SudokuApplication {
             e.printStackTrace();
         }
     }
+    
+    /**
+     * Pregenerates puzzles of every difficulty for fast game starts, e.g.
+     * when building a kiosk image.
+     */
+    private static int fillPuzzlePool(int perDifficulty) {
+        GameManager gameManager = new GameManager();
+        PuzzlePool pool = PuzzlePool.openDefault();
+        gameManager.setPuzzlePool(pool);
+        int generated = gameManager.refillPuzzlePool(perDifficulty);
+        System.out.println("Generated " + generated + " puzzles; pool holds " + perDifficulty + " per difficulty.");
+        return 0;
+    }
+    
+    /**
+     * Runs a command script; exits with 1 if any command ended in an error.
+     */
+    private static int runScript(String source) {
+        // Results go through one large buffer rather than the line-flushing System.out
+        PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(
+            new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8), 1 << 16));
+        try (BufferedReader script = source.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), 1 << 16)
+                : Files.newBufferedReader(Paths.get(source), StandardCharsets.UTF_8)) {
+            long errors = new ScriptRunner(new GameManager(), out).run(script);
+            return errors > 0 ? 1 : 0;
+        } catch (IOException e) {
+            out.flush();
+            System.err.println("Failed to read script " + source + ": " + e.getMessage());
+            return 1;
+        }
+    }
 }
\ No newline at end of file
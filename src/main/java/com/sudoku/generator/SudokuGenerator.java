@@ -1,22 +1,58 @@
 package com.sudoku.generator;
 
+import com.sudoku.metrics.MetricsRegistry;
+import com.sudoku.metrics.OperationMetrics;
+import com.sudoku.metrics.PuzzleGeneratedEvent;
 import com.sudoku.model.SudokuBoard;
 import com.sudoku.model.Difficulty;
 import com.sudoku.solver.SudokuSolver;
 import java.util.*;
 
 public class SudokuGenerator {
+    private static final OperationMetrics GENERATE = MetricsRegistry.global().operation("generator.generate");
+    
     private final SudokuSolver solver;
     private final Random random;
     
     public SudokuGenerator() {
-        this.solver = new SudokuSolver();
-        this.random = new Random();
+        this(new Random());
+    }
+    
+    /**
+     * A generator that produces the same sequence of puzzles for the same
+     * seed, e.g. for benchmarks and reproducible simulations.
+     */
+    public SudokuGenerator(long seed) {
+        this(new Random(seed));
+    }
+    
+    private SudokuGenerator(Random random) {
+        this.random = random;
+        this.solver = new SudokuSolver(random);
     }
     
     public SudokuBoard generatePuzzle(Difficulty difficulty) {
+        return generate(difficulty).getPuzzle();
+    }
+    
+    /**
+     * Generates a puzzle together with the complete grid it was carved from,
+     * which is its unique solution.
+     */
+    public GeneratedPuzzle generate(Difficulty difficulty) {
+        long start = System.nanoTime();
+        PuzzleGeneratedEvent event = new PuzzleGeneratedEvent();
+        event.begin();
         SudokuBoard completeBoard = generateCompleteBoard();
-        return createPuzzle(completeBoard, difficulty);
+        SudokuBoard puzzle = createPuzzle(completeBoard, difficulty, event);
+        GENERATE.record(start, difficulty);
+        event.end();
+        if (event.shouldCommit()) {
+            event.setDifficulty(difficulty);
+            event.setPuzzle(puzzle);
+            event.commit();
+        }
+        return new GeneratedPuzzle(puzzle, completeBoard.getBoardArray());
     }
     
     private SudokuBoard generateCompleteBoard() {
@@ -49,9 +85,10 @@ public class SudokuGenerator {
         }
     }
     
-    private SudokuBoard createPuzzle(SudokuBoard completeBoard, Difficulty difficulty) {
+    private SudokuBoard createPuzzle(SudokuBoard completeBoard, Difficulty difficulty, PuzzleGeneratedEvent event) {
         SudokuBoard puzzle = completeBoard.copy();
-        int targetClues = difficulty.getRandomClueCount();
+        int targetClues = difficulty.getRandomClueCount(random);
+        int attempts = 0;
         
         // Get all cell positions
         List<int[]> positions = getAllPositions();
@@ -70,6 +107,7 @@ public class SudokuGenerator {
             
             // Temporarily remove the value
             puzzle.setValue(row, col, 0);
+            attempts++;
             
             // Check if puzzle still has unique solution
             if (solver.hasUniqueSolution(puzzle)) {
@@ -82,6 +120,9 @@ public class SudokuGenerator {
             }
         }
         
+        event.setTargetClues(targetClues);
+        event.setAttempts(attempts);
+        
         // Mark remaining filled cells as fixed
         for (int row = 0; row < SudokuBoard.SIZE; row++) {
             for (int col = 0; col < SudokuBoard.SIZE; col++) {
@@ -115,4 +156,17 @@ public class SudokuGenerator {
     public boolean isValidPuzzle(SudokuBoard puzzle) {
         return solver.isValid(puzzle) && solver.hasUniqueSolution(puzzle);
     }
+    
+    public static class GeneratedPuzzle {
+        private final SudokuBoard puzzle;
+        private final int[][] solution;
+        
+        public GeneratedPuzzle(SudokuBoard puzzle, int[][] solution) {
+            this.puzzle = puzzle;
+            this.solution = solution;
+        }
+        
+        public SudokuBoard getPuzzle() { return puzzle; }
+        public int[][] getSolution() { return solution; }
+    }
 }
\ No newline at end of file
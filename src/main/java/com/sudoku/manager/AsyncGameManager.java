@@ -0,0 +1,205 @@
+package com.sudoku.manager;
+
+import com.sudoku.generator.SudokuGenerator;
+import com.sudoku.model.Difficulty;
+import com.sudoku.persistence.AutoSaveService;
+import com.sudoku.persistence.SaveMetadata;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Non-blocking facade over a {@link GameManager}.
+ *
+ * Each call runs on a task executor and returns a CompletableFuture. Tasks
+ * touching the same manager are serialized by a lock, so callers never see
+ * the game half-updated; completing the future publishes the result to
+ * whichever thread consumes it. Cancelling a future before its task starts
+ * skips the task, and a cancelled new-game request never replaces the
+ * current game.
+ */
+public class AsyncGameManager implements AutoCloseable {
+    private final GameManager gameManager;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+    private final ReentrantLock lock = new ReentrantLock();
+    
+    public AsyncGameManager(GameManager gameManager) {
+        this(gameManager, newTaskExecutor(), true);
+    }
+    
+    /**
+     * Uses a caller-supplied executor, e.g. one shared by many sessions.
+     * The executor is not shut down by {@link #close()}.
+     */
+    public AsyncGameManager(GameManager gameManager, ExecutorService executor) {
+        this(gameManager, executor, false);
+    }
+    
+    private AsyncGameManager(GameManager gameManager, ExecutorService executor, boolean ownsExecutor) {
+        this.gameManager = gameManager;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+    }
+    
+    /**
+     * Returns a virtual-thread-per-task executor when the runtime supports it
+     * (Java 21+), otherwise a fixed pool of daemon threads sized to the CPU
+     * count so that long operations never create unbounded platform threads.
+     */
+    public static ExecutorService newTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+            return Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "sudoku-async");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+    
+    public GameManager getGameManager() {
+        return gameManager;
+    }
+    
+    public CompletableFuture<Void> startNewGameAsync(Difficulty difficulty) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        Future<?> task = executor.submit(() -> {
+            if (result.isDone()) return;
+            try {
+                // Generation does not touch the game, so it runs outside the lock
+                SudokuGenerator.GeneratedPuzzle puzzle = gameManager.generatePuzzle(difficulty);
+                runLocked(result, manager -> {
+                    manager.startGame(puzzle, difficulty);
+                    return null;
+                });
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        });
+        return cancelTaskWith(result, task);
+    }
+    
+    public CompletableFuture<Boolean> solvePuzzleAsync() {
+        return submit(GameManager::solvePuzzle);
+    }
+    
+    public CompletableFuture<GameManager.CustomPuzzleResult> startCustomPuzzleAsync(int[][] inputGrid) {
+        return submit(manager -> manager.startCustomPuzzle(inputGrid));
+    }
+    
+    public CompletableFuture<List<String>> getHintAsync() {
+        return submit(GameManager::getHint);
+    }
+    
+    /**
+     * Autosaves the game, snapshotting it under the same lock as the tasks.
+     */
+    public void enableAutoSave(AutoSaveService service, String filename, String playerName) {
+        gameManager.enableAutoSave(service, filename, playerName, lock);
+    }
+    
+    /**
+     * Snapshots the game under the lock, then writes it with asynchronous
+     * file I/O so no thread waits on the disk.
+     */
+    public CompletableFuture<Boolean> saveGameAsync(String filename, String playerName) {
+        return submit(manager -> manager.getCurrentBoard() != null ? manager.createGameState(playerName) : null)
+            .thenCompose(state -> state != null
+                ? gameManager.getPersistence().saveGameAsync(state, filename)
+                : CompletableFuture.completedFuture(false));
+    }
+    
+    /**
+     * Reads the save with asynchronous file I/O and only takes the lock to
+     * apply it to the game. Cancelling the future before the save has been
+     * applied leaves the current game in place.
+     */
+    public CompletableFuture<Boolean> loadGameAsync(String filename) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        submit(GameManager::getPersistence)
+            .thenCompose(persistence -> persistence.loadGameAsync(filename))
+            .whenComplete((state, error) -> {
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else if (state == null) {
+                    result.complete(false);
+                } else {
+                    try {
+                        Future<?> task = executor.submit(() -> runLocked(result, manager -> manager.restoreGame(state)));
+                        cancelTaskWith(result, task);
+                    } catch (RuntimeException e) {
+                        result.completeExceptionally(e); // Executor already shut down
+                    }
+                }
+            });
+        return result;
+    }
+    
+    /**
+     * Lists the saves newest first from the metadata index, which may have
+     * to be built from the saves first; that runs without the game lock.
+     */
+    public CompletableFuture<List<SaveMetadata>> listSaveMetadataAsync() {
+        return submit(GameManager::getPersistence).thenApplyAsync(
+            persistence -> persistence.listSaveMetadata(null, SaveMetadata.NEWEST_FIRST, Integer.MAX_VALUE), executor);
+    }
+    
+    /**
+     * Runs an arbitrary operation against the game on the task executor.
+     */
+    public <T> CompletableFuture<T> submit(Function<GameManager, T> operation) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task = executor.submit(() -> runLocked(result, operation));
+        return cancelTaskWith(result, task);
+    }
+    
+    /**
+     * Runs a short operation on the calling thread under the game lock, e.g.
+     * a move typed on the Swing EDT, so it never interleaves with a task.
+     */
+    public <T> T callNow(Function<GameManager, T> operation) {
+        lock.lock();
+        try {
+            return operation.apply(gameManager);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private <T> void runLocked(CompletableFuture<T> result, Function<GameManager, T> operation) {
+        lock.lock();
+        try {
+            if (result.isDone()) return; // Cancelled while waiting
+            result.complete(operation.apply(gameManager));
+        } catch (Throwable t) {
+            result.completeExceptionally(t);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private <T> CompletableFuture<T> cancelTaskWith(CompletableFuture<T> result, Future<?> task) {
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                task.cancel(true);
+            }
+        });
+        return result;
+    }
+    
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.shutdownNow();
+        }
+    }
+}
\ No newline at end of file
@@ -1,43 +1,182 @@
 package com.sudoku.manager;
 
+import com.sudoku.metrics.Counter;
+import com.sudoku.metrics.HintEvent;
+import com.sudoku.metrics.MetricsRegistry;
+import com.sudoku.metrics.MoveEvent;
+import com.sudoku.metrics.OperationMetrics;
+import com.sudoku.model.BoardChangeEvent;
+import com.sudoku.model.BoardChangeListener;
+import com.sudoku.model.CandidateMasks;
 import com.sudoku.model.SudokuBoard;
 import com.sudoku.model.Difficulty;
 import com.sudoku.generator.SudokuGenerator;
 import com.sudoku.solver.SudokuSolver;
+import com.sudoku.persistence.AutoSaveService;
 import com.sudoku.persistence.GameState;
 import com.sudoku.persistence.GamePersistence;
+import com.sudoku.persistence.PuzzlePool;
+import com.sudoku.persistence.MoveJournal;
+import com.sudoku.persistence.SaveMetadata;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Supplier;
 
 public class GameManager {
+    private static final OperationMetrics NEW_GAME = MetricsRegistry.global().operation("game.newGame");
+    private static final OperationMetrics HINT = MetricsRegistry.global().operation("game.hint");
+    private static final OperationMetrics SOLVE = MetricsRegistry.global().operation("game.solve");
+    // Moves take a few hundred nanoseconds, too little to time; they are only
+    // counted, into cells of this manager that the registry adds up on read
+    private static final Counter MOVES = MetricsRegistry.global().counter("game.moves");
+    private static final Counter MOVES_REJECTED = MetricsRegistry.global().counter("game.movesRejected");
+    private static final Counter POOL_HITS = MetricsRegistry.global().counter("game.puzzlePoolHits");
+    private static final Counter POOL_MISSES = MetricsRegistry.global().counter("game.puzzlePoolMisses");
+    
     private SudokuBoard currentBoard;
     private SudokuBoard originalBoard;
+    private int[][] solution;
     private SudokuGenerator generator;
     private SudokuSolver solver;
     private long startTime;
     private boolean gameCompleted;
     private int hintsUsed;
-    private List<GameMove> moveHistory;
+    private int mistakes;
+    private final MoveLog moveLog;
+    private final Counter.Cell moves = MOVES.newCell();
+    private final Counter.Cell movesRejected = MOVES_REJECTED.newCell();
+    private long acceptedMoves;
+    private boolean solvedAutomatically;
     private Difficulty currentDifficulty;
     private boolean customInputMode = false;
+    private GamePersistence persistence;
+    private PuzzlePool puzzlePool;
+    private HintPrecomputer hintPrecomputer;
+    private AutoSaveService autoSave;
+    private String autoSaveFilename;
+    private Supplier<GameState> autoSaveSnapshot;
+    private MoveJournal journal;
+    private String journalName;
+    private String journalPlayer;
+    private final List<BoardChangeListener> boardListeners = new CopyOnWriteArrayList<>();
+    private final BoardChangeListener boardForwarder = this::fireBoardChanged;
+    private final CandidateMasks candidates = new CandidateMasks();
+    // Player's own pencil marks, one 9-bit mask per cell like the candidates
+    private final short[] pencilMarks = new short[SudokuBoard.CELL_COUNT];
+    private boolean headless;
     
     public GameManager() {
-        this.generator = new SudokuGenerator();
-        this.solver = new SudokuSolver();
-        this.moveHistory = new ArrayList<>();
+        this(new SudokuGenerator(), new SudokuSolver());
+    }
+    
+    /**
+     * Creates a manager that uses the given generator and solver. Both are
+     * stateless between calls, so a registry can share them across sessions.
+     */
+    public GameManager(SudokuGenerator generator, SudokuSolver solver) {
+        this.generator = generator;
+        this.solver = solver;
+        this.moveLog = new MoveLog();
         this.hintsUsed = 0;
     }
     
     public void startNewGame(Difficulty difficulty) {
-        currentBoard = generator.generatePuzzle(difficulty);
+        long start = System.nanoTime();
+        startGame(generatePuzzle(difficulty), difficulty);
+        NEW_GAME.record(start, difficulty);
+    }
+    
+    /**
+     * Generates a puzzle and its solution without touching the current game,
+     * so the slow part of starting a game can run outside any lock guarding
+     * this manager. A puzzle pool, if set, is used first.
+     */
+    public SudokuGenerator.GeneratedPuzzle generatePuzzle(Difficulty difficulty) {
+        PuzzlePool pool = puzzlePool;
+        PuzzlePool.Entry pooled = pool != null ? pool.take(difficulty) : null;
+        if (pooled != null) {
+            POOL_HITS.increment(difficulty);
+            return new SudokuGenerator.GeneratedPuzzle(new SudokuBoard(pooled.getPuzzle()), pooled.getSolution());
+        }
+        if (pool != null) {
+            POOL_MISSES.increment(difficulty);
+        }
+        return generator.generate(difficulty);
+    }
+    
+    /**
+     * Serves new games from a pool of pregenerated puzzles while it has any.
+     */
+    public void setPuzzlePool(PuzzlePool pool) {
+        this.puzzlePool = pool;
+    }
+    
+    /**
+     * Tops the puzzle pool up to {@code perDifficulty} puzzles of every
+     * difficulty and saves it if anything was added. Generates with its own
+     * generator, so it can run on a background thread alongside a game.
+     * @return the number of puzzles generated
+     */
+    public int refillPuzzlePool(int perDifficulty) {
+        PuzzlePool pool = puzzlePool;
+        if (pool == null) return 0;
+        
+        SudokuGenerator poolGenerator = new SudokuGenerator();
+        int generated = 0;
+        for (Difficulty difficulty : Difficulty.values()) {
+            while (pool.size(difficulty) < perDifficulty) {
+                SudokuGenerator.GeneratedPuzzle puzzle = poolGenerator.generate(difficulty);
+                pool.add(difficulty, puzzle.getPuzzle().getBoardArray(), puzzle.getSolution());
+                generated++;
+            }
+        }
+        if (generated > 0) {
+            pool.save();
+        }
+        return generated;
+    }
+    
+    public void startGame(SudokuGenerator.GeneratedPuzzle generated, Difficulty difficulty) {
+        startGame(generated.getPuzzle(), generated.getSolution(), difficulty);
+    }
+    
+    /**
+     * Starts a game from a prepared puzzle. When the solution is not known
+     * it is computed once here.
+     */
+    public void startGame(SudokuBoard puzzle, int[][] solution, Difficulty difficulty) {
+        setCurrentBoard(puzzle);
         originalBoard = currentBoard.copy();
+        this.solution = solution != null ? solution : findSolution(originalBoard);
         currentDifficulty = difficulty;
         startTime = System.currentTimeMillis();
         gameCompleted = false;
         hintsUsed = 0;
-        moveHistory.clear();
+        mistakes = 0;
+        resetMoveLog();
+        journalSnapshot();
     }
     
     public boolean makeMove(int row, int col, int value) {
+        if (headless) {
+            return countMove(applyMove(row, col, value));
+        }
+        
+        MoveEvent event = new MoveEvent();
+        event.begin();
+        boolean accepted = countMove(applyMove(row, col, value));
+        event.end();
+        if (event.shouldCommit()) {
+            event.setDifficulty(currentDifficulty);
+            event.setMove(row + 1, col + 1, value, accepted);
+            event.commit();
+        }
+        return accepted;
+    }
+    
+    private boolean applyMove(int row, int col, int value) {
         if (gameCompleted || !currentBoard.isValidPosition(row, col)) {
             return false;
         }
@@ -51,11 +190,18 @@ public class GameManager {
         if (customInputMode || value == 0 || currentBoard.isValidMove(row, col, value)) {
             currentBoard.setValue(row, col, value);
             if (!customInputMode) {
-                moveHistory.add(new GameMove(row, col, previousValue));
+                if (value != 0 && solution != null && solution[row][col] != value) {
+                    mistakes++;
+                }
+                moveLog.record(row, col, previousValue, value, currentBoard);
+                if (journal != null) {
+                    journal.appendMove(journalName, moveLog.getMove(moveLog.getPosition() - 1));
+                }
                 
                 if (currentBoard.isComplete()) {
                     gameCompleted = true;
                 }
+                markDirty();
             }
             return true;
         }
@@ -63,52 +209,313 @@ public class GameManager {
         return false;
     }
     
+    private boolean countMove(boolean accepted) {
+        if (accepted) {
+            moves.increment(currentDifficulty);
+            acceptedMoves++;
+        } else {
+            movesRejected.increment(currentDifficulty);
+        }
+        return accepted;
+    }
+    
+    /**
+     * Moves accepted by this manager over all its games. Read from another
+     * thread without the game's lock, it may lag a few moves behind.
+     */
+    public long getAcceptedMoveCount() {
+        return acceptedMoves;
+    }
+    
     public boolean undoMove() {
-        if (moveHistory.isEmpty() || gameCompleted) {
+        if (solvedAutomatically || !moveLog.undo(currentBoard)) {
+            return false;
+        }
+        
+        gameCompleted = currentBoard.isComplete();
+        journalSeek();
+        markDirty();
+        return true;
+    }
+    
+    public boolean redoMove() {
+        if (solvedAutomatically || !moveLog.redo(currentBoard)) {
             return false;
         }
         
-        GameMove lastMove = moveHistory.remove(moveHistory.size() - 1);
-        currentBoard.setValue(lastMove.row, lastMove.col, lastMove.previousValue);
+        gameCompleted = currentBoard.isComplete();
+        journalSeek();
+        markDirty();
+        return true;
+    }
+    
+    /**
+     * Moves the game to the state after the given number of recorded moves,
+     * in either direction. Useful for replaying a session.
+     */
+    public boolean jumpToMove(int moveIndex) {
+        if (solvedAutomatically || customInputMode || !moveLog.seek(moveIndex, currentBoard)) {
+            return false;
+        }
         
+        gameCompleted = currentBoard.isComplete();
+        journalSeek();
+        markDirty();
         return true;
     }
     
+    public boolean canUndo() {
+        return !solvedAutomatically && moveLog.canUndo();
+    }
+    
+    public boolean canRedo() {
+        return !solvedAutomatically && moveLog.canRedo();
+    }
+    
+    public MoveLog getMoveLog() {
+        return moveLog;
+    }
+    
+    private void resetMoveLog() {
+        moveLog.reset(currentBoard);
+        solvedAutomatically = false;
+    }
+    
     public List<String> getHint() {
         if (gameCompleted) {
             return Arrays.asList("Game is already completed!");
         }
         
-        List<String> hints = solver.getHint(currentBoard);
+        long start = System.nanoTime();
+        HintEvent event = new HintEvent();
+        event.begin();
+        HintPrecomputer.Analysis analysis = getHintAnalysis();
+        boolean precomputed = analysis != null;
+        if (analysis == null) {
+            analysis = HintPrecomputer.analyze(solver, currentBoard.copy(), currentBoard.getVersion());
+        }
+        List<String> hints = new ArrayList<>(analysis.getHints());
+        if (hints.isEmpty() && solution != null) {
+            // No cell is forced yet; fall back to revealing the next empty cell
+            for (int i = 0; i < SudokuBoard.CELL_COUNT && hints.isEmpty(); i++) {
+                int row = i / SudokuBoard.SIZE;
+                int col = i % SudokuBoard.SIZE;
+                if (currentBoard.isEmpty(row, col)) {
+                    hints.add(String.format("Cell (%d,%d) should be %d", row + 1, col + 1, solution[row][col]));
+                }
+            }
+        }
         if (!hints.isEmpty()) {
             hintsUsed++;
+            if (journal != null) {
+                journal.appendHint(journalName);
+            }
+        }
+        HINT.record(start, currentDifficulty);
+        event.end();
+        if (event.shouldCommit()) {
+            event.setDifficulty(currentDifficulty);
+            event.setPrecomputed(precomputed);
+            event.setHints(hints.size());
+            event.setEmptyCells(analysis.getStepsRemaining());
+            event.commit();
         }
         
         return hints.isEmpty() ? Arrays.asList("No obvious hints available.") : hints;
     }
     
+    /**
+     * Analyses every board change in the background from now on, so hints
+     * and the steps-remaining estimate are usually ready before they are
+     * asked for.
+     */
+    public void setHintPrecomputer(HintPrecomputer precomputer) {
+        this.hintPrecomputer = precomputer;
+        if (precomputer != null && currentBoard != null) {
+            precomputer.submit(currentBoard.copy(), currentBoard.getVersion());
+        }
+    }
+    
+    /**
+     * The background analysis of the current board, or null if there is
+     * none yet.
+     */
+    public HintPrecomputer.Analysis getHintAnalysis() {
+        if (hintPrecomputer == null || currentBoard == null) return null;
+        return hintPrecomputer.get(currentBoard.getVersion());
+    }
+    
+    /**
+     * Fills one cell with its solution value as a hint.
+     */
+    public boolean revealCell(int row, int col) {
+        if (gameCompleted || solution == null || customInputMode || !currentBoard.isValidPosition(row, col)
+                || currentBoard.getCell(row, col).isFixed()) {
+            return false;
+        }
+        
+        int previousValue = currentBoard.getValue(row, col);
+        currentBoard.setValue(row, col, solution[row][col]);
+        moveLog.record(row, col, previousValue, solution[row][col], currentBoard);
+        hintsUsed++;
+        if (journal != null) {
+            journal.appendReveal(journalName, moveLog.getMove(moveLog.getPosition() - 1));
+        }
+        gameCompleted = currentBoard.isComplete();
+        markDirty();
+        return true;
+    }
+    
+    public boolean isCorrectValue(int row, int col) {
+        return solution != null && currentBoard.getValue(row, col) == solution[row][col];
+    }
+    
+    public int getSolutionValue(int row, int col) {
+        return solution != null ? solution[row][col] : 0;
+    }
+    
+    /**
+     * Counts filled cells whose value differs from the solution.
+     */
+    public int countIncorrectEntries() {
+        if (solution == null || currentBoard == null) return 0;
+        
+        int incorrect = 0;
+        for (int row = 0; row < SudokuBoard.SIZE; row++) {
+            for (int col = 0; col < SudokuBoard.SIZE; col++) {
+                int value = currentBoard.getValue(row, col);
+                if (value != 0 && value != solution[row][col]) {
+                    incorrect++;
+                }
+            }
+        }
+        return incorrect;
+    }
+    
+    public int getMistakes() {
+        return mistakes;
+    }
+    
     public boolean solvePuzzle() {
         if (gameCompleted) {
             return false;
         }
         
-        SudokuBoard copy = currentBoard.copy();
-        if (solver.solve(copy)) {
-            currentBoard = copy;
-            gameCompleted = true;
-            return true;
+        long start = System.nanoTime();
+        boolean solved = fillInSolution();
+        if (solved) {
+            SOLVE.record(start, currentDifficulty);
+        } else {
+            SOLVE.recordFailure(start, currentDifficulty);
         }
+        return solved;
+    }
+    
+    private boolean fillInSolution() {
+        if (currentBoard == null) return false;
         
-        return false;
+        if (solution == null) {
+            solution = findSolution(currentBoard);
+            if (solution == null) return false;
+        }
+        
+        SudokuBoard copy = currentBoard.copy();
+        for (int row = 0; row < SudokuBoard.SIZE; row++) {
+            for (int col = 0; col < SudokuBoard.SIZE; col++) {
+                copy.setValue(row, col, solution[row][col]);
+            }
+        }
+        setCurrentBoard(copy);
+        gameCompleted = true;
+        solvedAutomatically = true;
+        journalSnapshot();
+        return true;
+    }
+    
+    private int[][] findSolution(SudokuBoard board) {
+        SudokuBoard copy = board.copy();
+        return solver.solve(copy) ? copy.getBoardArray() : null;
     }
     
     public void resetToOriginal() {
         if (originalBoard != null) {
-            currentBoard = originalBoard.copy();
+            setCurrentBoard(originalBoard.copy());
             gameCompleted = false;
-            moveHistory.clear();
+            resetMoveLog();
             hintsUsed = 0;
+            mistakes = 0;
             startTime = System.currentTimeMillis();
+            journalSnapshot();
+        }
+    }
+    
+    /**
+     * Registers a listener for changes to the current board. The listener
+     * stays attached when the board is replaced and then receives a
+     * BOARD_REPLACED event with every cell marked dirty.
+     */
+    public void addBoardChangeListener(BoardChangeListener listener) {
+        boardListeners.add(listener);
+    }
+    
+    public void removeBoardChangeListener(BoardChangeListener listener) {
+        boardListeners.remove(listener);
+    }
+    
+    private void setCurrentBoard(SudokuBoard board) {
+        SudokuBoard previous = currentBoard;
+        if (previous != null) {
+            previous.removeChangeListener(boardForwarder);
+        }
+        currentBoard = board;
+        if (!headless) {
+            board.addChangeListener(boardForwarder);
+        }
+        board.markReplaced(previous);
+    }
+    
+    /**
+     * Headless mode for simulations: moves fire no board change events and
+     * no flight recorder events, so board listeners and the hint precomputer
+     * see nothing and candidates are recomputed whenever they are read.
+     * Turning it off again brings the candidates up to date.
+     */
+    public void setHeadless(boolean headless) {
+        if (this.headless == headless) return;
+        
+        this.headless = headless;
+        if (currentBoard == null) return;
+        
+        if (headless) {
+            currentBoard.removeChangeListener(boardForwarder);
+        } else {
+            currentBoard.addChangeListener(boardForwarder);
+            candidates.rebuild(currentBoard);
+        }
+    }
+    
+    public boolean isHeadless() {
+        return headless;
+    }
+    
+    private void fireBoardChanged(BoardChangeEvent event) {
+        if (event.getType() == BoardChangeEvent.Type.BOARD_REPLACED) {
+            candidates.rebuild(event.getBoard());
+            Arrays.fill(pencilMarks, (short) 0);
+        } else {
+            for (int cell = event.nextDirtyCell(0); cell >= 0; cell = event.nextDirtyCell(cell + 1)) {
+                int value = event.getBoard().getValue(cell / SudokuBoard.SIZE, cell % SudokuBoard.SIZE);
+                candidates.update(cell, value);
+                if (value != 0) {
+                    pencilMarks[cell] = 0;
+                }
+            }
+        }
+        if (hintPrecomputer != null) {
+            hintPrecomputer.submit(event.getBoard().copy(), event.getVersion());
+        }
+        for (BoardChangeListener listener : boardListeners) {
+            listener.boardChanged(event);
         }
     }
     
@@ -136,7 +543,7 @@ public class GameManager {
     }
     
     public int getMoveCount() {
-        return moveHistory.size();
+        return moveLog.getPosition();
     }
     
     public GameStats getGameStats() {
@@ -144,10 +551,56 @@ public class GameManager {
             getFormattedTime(),
             getMoveCount(),
             getHintsUsed(),
+            getMistakes(),
             isGameCompleted()
         );
     }
     
+    /**
+     * Digits still possible in a cell as a 9-bit mask (bit d-1 for digit d),
+     * maintained incrementally as the board changes.
+     */
+    public int getCandidates(int row, int col) {
+        if (headless && currentBoard != null) {
+            candidates.rebuild(currentBoard);
+        }
+        return candidates.get(row * SudokuBoard.SIZE + col);
+    }
+    
+    public int getPencilMarks(int row, int col) {
+        return pencilMarks[row * SudokuBoard.SIZE + col];
+    }
+    
+    /**
+     * Toggles a pencil mark in an empty cell that the player may edit.
+     */
+    public boolean togglePencilMark(int row, int col, int digit) {
+        if (currentBoard == null || customInputMode || !currentBoard.isValidPosition(row, col)
+                || digit < 1 || digit > SudokuBoard.SIZE
+                || currentBoard.getCell(row, col).isFixed() || !currentBoard.isEmpty(row, col)) {
+            return false;
+        }
+        pencilMarks[row * SudokuBoard.SIZE + col] ^= (short) (1 << (digit - 1));
+        markDirty();
+        return true;
+    }
+    
+    /**
+     * Copies the board and stats for another thread, together with the
+     * cells changed since {@code sinceVersion} (the version a view last
+     * rendered). Returns null if there is no game.
+     */
+    public GameSnapshot snapshot(long sinceVersion) {
+        if (currentBoard == null) return null;
+        
+        if (headless) {
+            candidates.rebuild(currentBoard);
+        }
+        return new GameSnapshot(currentBoard.copy(), currentBoard.getVersion(),
+            currentBoard.getChangedCellsSince(sinceVersion), customInputMode, getGameStats(),
+            candidates.toArray(), pencilMarks.clone(), getHintAnalysis());
+    }
+    
     public boolean validateCurrentState() {
         return solver.isValid(currentBoard);
     }
@@ -155,7 +608,22 @@ public class GameManager {
     public boolean saveGame(String filename, String playerName) {
         if (currentBoard == null) return false;
         
-        GamePersistence persistence = new GamePersistence();
+        return getPersistence().saveGame(createGameState(playerName), filename);
+    }
+    
+    /**
+     * Snapshots the game on the calling thread and saves it in the background.
+     */
+    public CompletableFuture<Boolean> saveGameAsync(String filename, String playerName) {
+        if (currentBoard == null) return CompletableFuture.completedFuture(false);
+        
+        return getPersistence().saveGameAsync(createGameState(playerName), filename);
+    }
+    
+    /**
+     * Captures the current game as a detached snapshot for persistence.
+     */
+    public GameState createGameState(String playerName) {
         GameState gameState = new GameState(
             currentBoard.getBoardArray(),
             originalBoard.getBoardArray(),
@@ -166,35 +634,142 @@ public class GameManager {
             hintsUsed,
             playerName
         );
-        
-        return persistence.saveGame(gameState, filename);
+        gameState.setSolution(solution);
+        gameState.setMistakes(mistakes);
+        for (short marks : pencilMarks) {
+            if (marks != 0) {
+                gameState.setPencilMarks(pencilMarks.clone());
+                break;
+            }
+        }
+        if (!solvedAutomatically) {
+            gameState.setMoveHistory(moveLog.toArray());
+            gameState.setMovePosition(moveLog.getPosition());
+        }
+        return gameState;
+    }
+    
+    /**
+     * Marks the game dirty with the autosave service after every move, undo
+     * or redo. The service's writer thread snapshots the game once the
+     * changes settle, holding the given lock, which must be the one that
+     * guards every other use of this manager.
+     */
+    public void enableAutoSave(AutoSaveService service, String filename, String playerName, Lock lock) {
+        this.autoSave = service;
+        this.autoSaveFilename = filename;
+        this.autoSaveSnapshot = () -> {
+            lock.lock();
+            try {
+                // The game may have moved on to custom input since it was marked
+                return !customInputMode && originalBoard != null ? createGameState(playerName) : null;
+            } finally {
+                lock.unlock();
+            }
+        };
+    }
+    
+    public void disableAutoSave() {
+        this.autoSave = null;
+    }
+    
+    private void markDirty() {
+        if (autoSave != null && !customInputMode && originalBoard != null) {
+            autoSave.markDirty(autoSaveFilename, autoSaveSnapshot);
+        }
+    }
+    
+    /**
+     * Journals every move, revealed cell, hint, undo, redo and jump of this
+     * game and snapshots it whenever the board is replaced (new game, reset,
+     * load, solve), so the game, including its move history, can be rebuilt
+     * with {@link MoveJournal#recover()} after a crash.
+     */
+    public void enableJournal(MoveJournal journal, String gameName, String playerName) {
+        this.journal = journal;
+        this.journalName = gameName;
+        this.journalPlayer = playerName;
+        journalSnapshot();
+    }
+    
+    public void disableJournal() {
+        this.journal = null;
+    }
+    
+    private void journalSeek() {
+        if (journal != null) {
+            journal.appendSeek(journalName, moveLog.getPosition());
+        }
+    }
+    
+    private void journalSnapshot() {
+        if (journal != null && currentBoard != null && originalBoard != null && !customInputMode) {
+            journal.snapshot(journalName, createGameState(journalPlayer));
+        }
+    }
+    
+    public GamePersistence getPersistence() {
+        if (persistence == null) {
+            persistence = new GamePersistence();
+        }
+        return persistence;
+    }
+    
+    /**
+     * Uses the given persistence, e.g. one backed by an ArchiveSaveStore,
+     * instead of the default one-file-per-save directory.
+     */
+    public void setPersistence(GamePersistence persistence) {
+        this.persistence = persistence;
     }
     
     public boolean loadGame(String filename) {
-        GamePersistence persistence = new GamePersistence();
-        GameState gameState = persistence.loadGame(filename);
-        
+        return restoreGame(getPersistence().loadGame(filename));
+    }
+    
+    /**
+     * Replaces the current game with a saved or recovered game state.
+     */
+    public boolean restoreGame(GameState gameState) {
         if (gameState == null) return false;
         
-        currentBoard = new SudokuBoard(gameState.getCurrentBoard(), gameState.getFixedCells());
+        setCurrentBoard(new SudokuBoard(gameState.getCurrentBoard(), gameState.getFixedCells()));
         originalBoard = new SudokuBoard(gameState.getOriginalBoard(), gameState.getFixedCells());
         currentDifficulty = gameState.getDifficulty();
         startTime = gameState.getStartTime();
         gameCompleted = gameState.isGameCompleted();
         hintsUsed = gameState.getHintsUsed();
-        moveHistory.clear();
+        mistakes = gameState.getMistakes();
+        // Saves written before solutions were stored get theirs computed once here
+        solution = gameState.getSolution() != null ? gameState.getSolution() : findSolution(originalBoard);
+        int[] history = gameState.getMoveHistory();
+        if (history != null && gameState.getMovePosition() >= 0 && gameState.getMovePosition() <= history.length) {
+            moveLog.restore(history, gameState.getMovePosition(), currentBoard);
+        } else {
+            resetMoveLog();
+        }
+        short[] marks = gameState.getPencilMarks();
+        if (marks != null && marks.length == SudokuBoard.CELL_COUNT) {
+            System.arraycopy(marks, 0, pencilMarks, 0, marks.length);
+        }
+        journalSnapshot();
         
         return true;
     }
     
     public List<String> listSavedGames() {
-        GamePersistence persistence = new GamePersistence();
-        return persistence.listSavedGames();
+        return getPersistence().listSavedGames();
+    }
+    
+    /**
+     * Saved games with their metadata, most recently saved first.
+     */
+    public List<SaveMetadata> listSaveMetadata() {
+        return getPersistence().listSaveMetadata(null, SaveMetadata.NEWEST_FIRST, Integer.MAX_VALUE);
     }
     
     public boolean deleteGame(String filename) {
-        GamePersistence persistence = new GamePersistence();
-        return persistence.deleteGame(filename);
+        return getPersistence().deleteGame(filename);
     }
     
     public CustomPuzzleResult startCustomPuzzle(int[][] inputGrid) {
@@ -223,9 +798,10 @@ public class GameManager {
             }
         }
         
-        // Check if puzzle has a unique solution
+        // Check if puzzle has a unique solution, keeping the one found
         SudokuBoard solutionBoard = testBoard.copy();
-        int solutionCount = solver.countSolutions(solutionBoard, 2); // Check up to 2 solutions
+        int[][] foundSolution = new int[9][9];
+        int solutionCount = solver.countSolutions(solutionBoard, 2, foundSolution); // Check up to 2 solutions
         
         if (solutionCount == 0) {
             return new CustomPuzzleResult(false, "No solution exists for this puzzle");
@@ -235,37 +811,34 @@ public class GameManager {
         }
         
         // Puzzle is valid, set up the game
-        currentBoard = testBoard;
+        setCurrentBoard(testBoard);
         originalBoard = testBoard.copy();
+        solution = foundSolution;
         currentDifficulty = Difficulty.MEDIUM; // Default for custom puzzles
         startTime = System.currentTimeMillis();
         gameCompleted = false;
         hintsUsed = 0;
-        moveHistory.clear();
+        mistakes = 0;
+        resetMoveLog();
+        journalSnapshot();
         
         return new CustomPuzzleResult(true, "Custom puzzle loaded successfully");
     }
     
     public boolean solveCustomPuzzle() {
-        if (currentBoard == null) return false;
-        
-        SudokuBoard copy = currentBoard.copy();
-        if (solver.solve(copy)) {
-            currentBoard = copy;
-            gameCompleted = true;
-            return true;
-        }
-        return false;
+        return fillInSolution();
     }
     
     public void startCustomInputMode() {
-        currentBoard = new SudokuBoard();
+        setCurrentBoard(new SudokuBoard());
         originalBoard = null;
+        solution = null;
         currentDifficulty = Difficulty.MEDIUM;
         startTime = System.currentTimeMillis();
         gameCompleted = false;
         hintsUsed = 0;
-        moveHistory.clear();
+        mistakes = 0;
+        resetMoveLog();
         customInputMode = true;
     }
     
@@ -282,6 +855,7 @@ public class GameManager {
         int[][] inputGrid = currentBoard.getBoardArray();
         
         // Mark all non-empty cells as fixed
+        currentBoard.beginBatch();
         for (int row = 0; row < 9; row++) {
             for (int col = 0; col < 9; col++) {
                 if (inputGrid[row][col] != 0) {
@@ -289,12 +863,15 @@ public class GameManager {
                 }
             }
         }
+        currentBoard.endBatch();
         
         // Validate the puzzle
         CustomPuzzleResult result = validateCustomPuzzle(inputGrid);
         if (result.isSuccess()) {
             originalBoard = currentBoard.copy();
             customInputMode = false;
+            resetMoveLog();
+            journalSnapshot();
         }
         
         return result;
@@ -310,9 +887,10 @@ public class GameManager {
             }
         }
         
-        // Check if puzzle has a unique solution
+        // Check if puzzle has a unique solution, keeping the one found
         SudokuBoard testBoard = currentBoard.copy();
-        int solutionCount = solver.countSolutions(testBoard, 2);
+        int[][] foundSolution = new int[9][9];
+        int solutionCount = solver.countSolutions(testBoard, 2, foundSolution);
         
         if (solutionCount == 0) {
             return new CustomPuzzleResult(false, "No solution exists for this puzzle");
@@ -321,6 +899,7 @@ public class GameManager {
             return new CustomPuzzleResult(false, "Multiple solutions exist - puzzle is not unique");
         }
         
+        solution = foundSolution;
         return new CustomPuzzleResult(true, "Custom puzzle is valid");
     }
     
@@ -338,38 +917,35 @@ public class GameManager {
     }
     
     // Inner classes
-    private static class GameMove {
-        final int row, col, previousValue;
-        
-        GameMove(int row, int col, int previousValue) {
-            this.row = row;
-            this.col = col;
-            this.previousValue = previousValue;
-        }
-    }
-    
     public static class GameStats {
         private final String timeElapsed;
         private final int moveCount;
         private final int hintsUsed;
+        private final int mistakes;
         private final boolean completed;
         
         public GameStats(String timeElapsed, int moveCount, int hintsUsed, boolean completed) {
+            this(timeElapsed, moveCount, hintsUsed, 0, completed);
+        }
+        
+        public GameStats(String timeElapsed, int moveCount, int hintsUsed, int mistakes, boolean completed) {
             this.timeElapsed = timeElapsed;
             this.moveCount = moveCount;
             this.hintsUsed = hintsUsed;
+            this.mistakes = mistakes;
             this.completed = completed;
         }
         
         public String getTimeElapsed() { return timeElapsed; }
         public int getMoveCount() { return moveCount; }
         public int getHintsUsed() { return hintsUsed; }
+        public int getMistakes() { return mistakes; }
         public boolean isCompleted() { return completed; }
         
         @Override
         public String toString() {
-            return String.format("Time: %s | Moves: %d | Hints: %d | Status: %s",
-                timeElapsed, moveCount, hintsUsed, completed ? "Completed" : "In Progress");
+            return String.format("Time: %s | Moves: %d | Hints: %d | Mistakes: %d | Status: %s",
+                timeElapsed, moveCount, hintsUsed, mistakes, completed ? "Completed" : "In Progress");
         }
     }
 }
\ No newline at end of file
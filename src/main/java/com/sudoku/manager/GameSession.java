@@ -0,0 +1,67 @@
+package com.sudoku.manager;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * One independent game hosted by a {@link GameSessionRegistry}. All access to
+ * the session's GameManager goes through the session lock, so moves on
+ * different sessions never contend with each other.
+ */
+public class GameSession {
+    // Rough heap cost on a 64-bit JVM with compressed oops: two boards of 81
+    // cells (cell object plus candidate array) with their row arrays and
+    // version table. The move log reports its own size.
+    private static final long BOARD_BYTES = 81 * 64 + 9 * 56 + 56 + 81 * 8;
+    private static final long SESSION_OVERHEAD_BYTES = 512;
+    
+    private final String id;
+    private final GameManager gameManager;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final long createdTime;
+    private volatile long lastAccessTime;
+    
+    GameSession(String id, GameManager gameManager) {
+        this.id = id;
+        this.gameManager = gameManager;
+        this.createdTime = System.currentTimeMillis();
+        this.lastAccessTime = createdTime;
+    }
+    
+    public String getId() {
+        return id;
+    }
+    
+    public long getCreatedTime() {
+        return createdTime;
+    }
+    
+    public long getLastAccessTime() {
+        return lastAccessTime;
+    }
+    
+    /**
+     * Runs an action against this session's game while holding its lock.
+     */
+    public <T> T execute(Function<GameManager, T> action) {
+        lock.lock();
+        try {
+            lastAccessTime = System.currentTimeMillis();
+            return action.apply(gameManager);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Read without the session lock, so it may lag a move in progress.
+     */
+    long getAcceptedMoveCount() {
+        return gameManager.getAcceptedMoveCount();
+    }
+    
+    public long estimateMemoryBytes() {
+        return execute(manager -> SESSION_OVERHEAD_BYTES + 2 * BOARD_BYTES
+            + manager.getMoveLog().estimateMemoryBytes());
+    }
+}
\ No newline at end of file
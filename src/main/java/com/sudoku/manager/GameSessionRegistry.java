@@ -0,0 +1,194 @@
+package com.sudoku.manager;
+
+import com.sudoku.generator.SudokuGenerator;
+import com.sudoku.persistence.GamePersistence;
+import com.sudoku.solver.SudokuSolver;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Hosts many independent games for a concurrent server. Sessions are created,
+ * looked up and evicted by id; each one is guarded by its own lock, and the
+ * stateless generator and solver instances, as well as one persistence
+ * service with its load cache, are shared between sessions.
+ */
+public class GameSessionRegistry {
+    private final ConcurrentHashMap<String, GameSession> sessions = new ConcurrentHashMap<>();
+    private final SudokuGenerator[] generators;
+    private final SudokuSolver solver;
+    private final GamePersistence persistence;
+    private final AtomicLong nextSessionId = new AtomicLong();
+    // Moves of sessions no longer in the map; live sessions are summed on read
+    private final LongAdder evictedMoves = new LongAdder();
+    
+    private long lastSampleTime;
+    private long lastSampleMoves;
+    
+    public GameSessionRegistry() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+    
+    /**
+     * @param generatorPoolSize number of generators shared round-robin between
+     *                          sessions, to spread contention on their random sources
+     */
+    public GameSessionRegistry(int generatorPoolSize) {
+        this(generatorPoolSize, new GamePersistence());
+    }
+    
+    public GameSessionRegistry(int generatorPoolSize, GamePersistence persistence) {
+        this.solver = new SudokuSolver();
+        this.persistence = persistence;
+        this.generators = new SudokuGenerator[Math.max(1, generatorPoolSize)];
+        for (int i = 0; i < generators.length; i++) {
+            generators[i] = new SudokuGenerator();
+        }
+        this.lastSampleTime = System.nanoTime();
+    }
+    
+    public GameSession createSession() {
+        String id;
+        do {
+            id = "session-" + nextSessionId.incrementAndGet();
+        } while (sessions.containsKey(id));
+        return createSession(id);
+    }
+    
+    public GameSession createSession(String id) {
+        SudokuGenerator generator = generators[Math.floorMod(id.hashCode(), generators.length)];
+        GameManager gameManager = new GameManager(generator, solver);
+        gameManager.setPersistence(persistence);
+        GameSession session = new GameSession(id, gameManager);
+        GameSession existing = sessions.putIfAbsent(id, session);
+        if (existing != null) {
+            throw new IllegalArgumentException("Session already exists: " + id);
+        }
+        return session;
+    }
+    
+    public GamePersistence getPersistence() {
+        return persistence;
+    }
+    
+    public GameSession getSession(String id) {
+        return sessions.get(id);
+    }
+    
+    /**
+     * Runs an action against a session's game while holding that session's lock.
+     */
+    public <T> T withSession(String id, Function<GameManager, T> action) {
+        GameSession session = sessions.get(id);
+        if (session == null) {
+            throw new IllegalArgumentException("Unknown session: " + id);
+        }
+        return session.execute(action);
+    }
+    
+    public boolean makeMove(String id, int row, int col, int value) {
+        return withSession(id, manager -> manager.makeMove(row, col, value));
+    }
+    
+    public boolean evictSession(String id) {
+        GameSession removed = sessions.remove(id);
+        if (removed == null) {
+            return false;
+        }
+        evictedMoves.add(removed.getAcceptedMoveCount());
+        return true;
+    }
+    
+    /**
+     * Evicts every session that has not been accessed for the given time.
+     * @return the number of sessions evicted
+     */
+    public int evictIdleSessions(long maxIdleMillis) {
+        long cutoff = System.currentTimeMillis() - maxIdleMillis;
+        int evicted = 0;
+        for (Iterator<GameSession> it = sessions.values().iterator(); it.hasNext(); ) {
+            GameSession session = it.next();
+            if (session.getLastAccessTime() < cutoff) {
+                it.remove();
+                evictedMoves.add(session.getAcceptedMoveCount());
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+    
+    public Set<String> getSessionIds() {
+        return Collections.unmodifiableSet(sessions.keySet());
+    }
+    
+    public int getActiveSessionCount() {
+        return sessions.size();
+    }
+    
+    /**
+     * Moves accepted by every session's game, live or evicted, whether made
+     * through {@link #makeMove} or directly inside {@link #withSession}.
+     */
+    public long getTotalMoves() {
+        long moves = evictedMoves.sum();
+        for (GameSession session : sessions.values()) {
+            moves += session.getAcceptedMoveCount();
+        }
+        return moves;
+    }
+    
+    /**
+     * Returns the move rate over the window since the previous call.
+     */
+    public synchronized double getMovesPerSecond() {
+        long now = System.nanoTime();
+        long moves = getTotalMoves();
+        double seconds = (now - lastSampleTime) / 1_000_000_000.0;
+        double rate = seconds > 0 ? (moves - lastSampleMoves) / seconds : 0;
+        lastSampleTime = now;
+        lastSampleMoves = moves;
+        return rate;
+    }
+    
+    public long getAverageMemoryPerSession() {
+        long total = 0;
+        int count = 0;
+        for (GameSession session : sessions.values()) {
+            total += session.estimateMemoryBytes();
+            count++;
+        }
+        return count == 0 ? 0 : total / count;
+    }
+    
+    public RegistryStats getStats() {
+        return new RegistryStats(getActiveSessionCount(), getTotalMoves(),
+            getMovesPerSecond(), getAverageMemoryPerSession());
+    }
+    
+    public static class RegistryStats {
+        private final int activeSessions;
+        private final long totalMoves;
+        private final double movesPerSecond;
+        private final long memoryPerSession;
+        
+        public RegistryStats(int activeSessions, long totalMoves, double movesPerSecond, long memoryPerSession) {
+            this.activeSessions = activeSessions;
+            this.totalMoves = totalMoves;
+            this.movesPerSecond = movesPerSecond;
+            this.memoryPerSession = memoryPerSession;
+        }
+        
+        public int getActiveSessions() { return activeSessions; }
+        public long getTotalMoves() { return totalMoves; }
+        public double getMovesPerSecond() { return movesPerSecond; }
+        public long getMemoryPerSession() { return memoryPerSession; }
+        
+        @Override
+        public String toString() {
+            return String.format("Sessions: %d | Moves: %d | Moves/s: %.1f | Memory/session: %d bytes",
+                activeSessions, totalMoves, movesPerSecond, memoryPerSession);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,60 @@
+package com.sudoku.manager;
+
+import com.sudoku.model.SudokuBoard;
+import java.util.BitSet;
+
+/**
+ * A copy of what a view shows of a game, taken while no task is changing
+ * it. Nothing refers to the copied board afterwards, so the snapshot can
+ * be handed to another thread, e.g. the Swing event dispatch thread.
+ */
+public final class GameSnapshot {
+    private final SudokuBoard board;
+    private final long version;
+    private final BitSet changedCells;
+    private final boolean customInputMode;
+    private final GameManager.GameStats stats;
+    private final short[] candidates;
+    private final short[] pencilMarks;
+    private final HintPrecomputer.Analysis hintAnalysis;
+    
+    GameSnapshot(SudokuBoard board, long version, BitSet changedCells, boolean customInputMode,
+                 GameManager.GameStats stats, short[] candidates, short[] pencilMarks,
+                 HintPrecomputer.Analysis hintAnalysis) {
+        this.board = board;
+        this.version = version;
+        this.changedCells = changedCells;
+        this.customInputMode = customInputMode;
+        this.stats = stats;
+        this.candidates = candidates;
+        this.pencilMarks = pencilMarks;
+        this.hintAnalysis = hintAnalysis;
+    }
+    
+    /**
+     * The copied board. It is shared by all readers and must not be modified.
+     */
+    public SudokuBoard getBoard() { return board; }
+    public long getVersion() { return version; }
+    public boolean isCustomInputMode() { return customInputMode; }
+    public GameManager.GameStats getStats() { return stats; }
+    
+    /**
+     * Candidate digits of a cell (index row * 9 + col) as a 9-bit mask.
+     */
+    public int getCandidates(int cell) { return candidates[cell]; }
+    public int getPencilMarks(int cell) { return pencilMarks[cell]; }
+    
+    /**
+     * The background hint analysis of this version, or null if it was not
+     * ready when the snapshot was taken.
+     */
+    public HintPrecomputer.Analysis getHintAnalysis() { return hintAnalysis; }
+    
+    /**
+     * Cells changed after the version the snapshot was requested against.
+     */
+    public BitSet getChangedCells() {
+        return (BitSet) changedCells.clone();
+    }
+}
\ No newline at end of file
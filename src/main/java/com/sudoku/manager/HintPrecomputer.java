@@ -0,0 +1,170 @@
+package com.sudoku.manager;
+
+import com.sudoku.model.SudokuBoard;
+import com.sudoku.solver.SudokuSolver;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Works out the hints and the remaining solve path of a game in the
+ * background, so asking for a hint returns at once.
+ *
+ * Every board change submits a copy of the board to one low-priority
+ * daemon thread. While an analysis is queued a newer submission only
+ * replaces its board, and one arriving while an analysis runs cancels it,
+ * so a burst of changes is analysed once, at the latest version. Results
+ * are keyed by board version; a caller only uses the analysis of the
+ * version it is looking at and otherwise computes one itself.
+ */
+public class HintPrecomputer implements AutoCloseable {
+    private final SudokuSolver solver = new SudokuSolver();
+    private final ExecutorService executor;
+    private final List<Consumer<Analysis>> listeners = new CopyOnWriteArrayList<>();
+    private Future<?> pending;
+    // Board for the queued analysis; null once the analysis has taken it
+    private SudokuBoard pendingBoard;
+    private long pendingVersion;
+    private volatile Analysis latest;
+    
+    public HintPrecomputer() {
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sudoku-hints");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+    
+    /**
+     * Analyses a board in the background. The board is owned by the
+     * analysis from now on and must not be modified by the caller.
+     */
+    public synchronized void submit(SudokuBoard board, long version) {
+        boolean queued = pendingBoard != null;
+        pendingBoard = board;
+        pendingVersion = version;
+        if (queued) return;
+        
+        if (pending != null) {
+            pending.cancel(true);
+        }
+        pending = executor.submit(this::analyzeLatest);
+    }
+    
+    private void analyzeLatest() {
+        SudokuBoard board;
+        long version;
+        synchronized (this) {
+            board = pendingBoard;
+            version = pendingVersion;
+            pendingBoard = null;
+        }
+        if (board == null) return;
+        
+        Analysis analysis = analyze(solver, board, version);
+        if (Thread.currentThread().isInterrupted()) return;
+        
+        latest = analysis;
+        for (Consumer<Analysis> listener : listeners) {
+            listener.accept(analysis);
+        }
+    }
+    
+    /**
+     * The finished analysis of the given board version, or null if it is
+     * not ready.
+     */
+    public Analysis get(long version) {
+        Analysis analysis = latest;
+        return analysis != null && analysis.version == version ? analysis : null;
+    }
+    
+    /**
+     * Called on the analysis thread whenever an analysis completes.
+     */
+    public void addListener(Consumer<Analysis> listener) {
+        listeners.add(listener);
+    }
+    
+    public void removeListener(Consumer<Analysis> listener) {
+        listeners.remove(listener);
+    }
+    
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+    
+    /**
+     * Analyses a board on the calling thread. The board is filled in while
+     * following the solve path.
+     */
+    static Analysis analyze(SudokuSolver solver, SudokuBoard board, long version) {
+        List<String> hints = solver.getHint(board);
+        int emptyCells = 0;
+        for (int row = 0; row < SudokuBoard.SIZE; row++) {
+            for (int col = 0; col < SudokuBoard.SIZE; col++) {
+                if (board.isEmpty(row, col)) emptyCells++;
+            }
+        }
+        
+        List<SudokuSolver.Step> path = solver.solveWithSingles(board);
+        SudokuSolver.Step next = path.isEmpty() ? null : path.get(0);
+        if (hints.isEmpty() && next != null) {
+            // No cell has a single candidate, but a digit has a single place
+            hints.add(next.toString());
+        }
+        return new Analysis(version, hints, next, path.size(), emptyCells, board.isComplete());
+    }
+    
+    /**
+     * What the solver sees in one board version.
+     */
+    public static class Analysis {
+        private final long version;
+        private final List<String> hints;
+        private final SudokuSolver.Step nextStep;
+        private final int logicalSteps;
+        private final int emptyCells;
+        private final boolean solvableWithSingles;
+        
+        Analysis(long version, List<String> hints, SudokuSolver.Step nextStep, int logicalSteps,
+                 int emptyCells, boolean solvableWithSingles) {
+            this.version = version;
+            this.hints = Collections.unmodifiableList(hints);
+            this.nextStep = nextStep;
+            this.logicalSteps = logicalSteps;
+            this.emptyCells = emptyCells;
+            this.solvableWithSingles = solvableWithSingles;
+        }
+        
+        public long getVersion() { return version; }
+        public List<String> getHints() { return hints; }
+        
+        /**
+         * The first step of the solve path, or null if singles give none.
+         */
+        public SudokuSolver.Step getNextStep() { return nextStep; }
+        
+        /**
+         * Steps that naked and hidden singles solve from here on.
+         */
+        public int getLogicalSteps() { return logicalSteps; }
+        
+        /**
+         * The estimated number of steps left: one per empty cell.
+         */
+        public int getStepsRemaining() { return emptyCells; }
+        
+        /**
+         * True if singles alone finish the board, i.e. every remaining step
+         * is one of {@link #getLogicalSteps()}.
+         */
+        public boolean isSolvableWithSingles() { return solvableWithSingles; }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,207 @@
+package com.sudoku.manager;
+
+import com.sudoku.model.SudokuBoard;
+import java.util.Arrays;
+
+/**
+ * Compact move history with undo, redo and random access.
+ *
+ * Each move is packed into a single int: row (4 bits), column (4 bits),
+ * previous value (4 bits), new value (4 bits) and the time since the
+ * previous move in hundredths of a second (16 bits, saturating). Every
+ * CHECKPOINT_INTERVAL moves the board values are stored nibble-packed, so
+ * jumping to any move costs at most one checkpoint restore plus a replay of
+ * fewer than CHECKPOINT_INTERVAL moves.
+ */
+public class MoveLog {
+    public static final int CHECKPOINT_INTERVAL = 128;
+    private static final int MAX_DELTA = 0xFFFF;
+    private static final int PACKED_BOARD_BYTES = (SudokuBoard.CELL_COUNT + 1) / 2;
+    
+    private int[] moves = new int[16];
+    private int size;
+    private int position;
+    private byte[][] checkpoints = new byte[4][];
+    private int checkpointCount;
+    private long lastMoveTime;
+    
+    /**
+     * Clears the log and takes the starting checkpoint from the given board.
+     */
+    public void reset(SudokuBoard board) {
+        size = 0;
+        position = 0;
+        checkpointCount = 0;
+        lastMoveTime = System.currentTimeMillis();
+        if (board != null) {
+            storeCheckpoint(0, board);
+        }
+    }
+    
+    /**
+     * Records a move that has just been applied to the board. Any undone
+     * moves after the current position are discarded.
+     */
+    public void record(int row, int col, int previousValue, int newValue, SudokuBoard board) {
+        long now = System.currentTimeMillis();
+        int delta = (int) Math.min(MAX_DELTA, Math.max(0, (now - lastMoveTime) / 10));
+        lastMoveTime = now;
+        
+        if (position < size) {
+            size = position;
+            checkpointCount = Math.min(checkpointCount, position / CHECKPOINT_INTERVAL + 1);
+        }
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size + (size >> 1));
+        }
+        moves[size++] = pack(row, col, previousValue, newValue, delta);
+        position = size;
+        
+        if (position % CHECKPOINT_INTERVAL == 0) {
+            storeCheckpoint(position / CHECKPOINT_INTERVAL, board);
+        }
+    }
+    
+    /**
+     * Restores a saved history. The board must be in the state after the
+     * first {@code historyPosition} moves; checkpoints are rebuilt by
+     * replaying the history from the start.
+     */
+    public void restore(int[] history, int historyPosition, SudokuBoard board) {
+        SudokuBoard replay = board.copy();
+        for (int i = historyPosition - 1; i >= 0; i--) {
+            replay.setValue(getRow(history[i]), getCol(history[i]), getPreviousValue(history[i]));
+        }
+        reset(replay);
+        
+        moves = Arrays.copyOf(history, Math.max(16, history.length));
+        size = history.length;
+        for (position = 0; position < size; ) {
+            int move = moves[position++];
+            replay.setValue(getRow(move), getCol(move), getNewValue(move));
+            if (position % CHECKPOINT_INTERVAL == 0) {
+                storeCheckpoint(position / CHECKPOINT_INTERVAL, replay);
+            }
+        }
+        position = historyPosition;
+    }
+    
+    public boolean canUndo() {
+        return position > 0;
+    }
+    
+    public boolean canRedo() {
+        return position < size;
+    }
+    
+    public boolean undo(SudokuBoard board) {
+        if (!canUndo()) {
+            return false;
+        }
+        int move = moves[--position];
+        board.setValue(getRow(move), getCol(move), getPreviousValue(move));
+        return true;
+    }
+    
+    public boolean redo(SudokuBoard board) {
+        if (!canRedo()) {
+            return false;
+        }
+        int move = moves[position++];
+        board.setValue(getRow(move), getCol(move), getNewValue(move));
+        return true;
+    }
+    
+    /**
+     * Moves the board to the state after the given number of moves. The
+     * board publishes all changed cells as one change event.
+     */
+    public boolean seek(int target, SudokuBoard board) {
+        if (target < 0 || target > size) {
+            return false;
+        }
+        
+        board.beginBatch();
+        try {
+            if (Math.abs(target - position) > CHECKPOINT_INTERVAL) {
+                int checkpoint = Math.min(target / CHECKPOINT_INTERVAL, checkpointCount - 1);
+                restoreCheckpoint(checkpoint, board);
+                position = checkpoint * CHECKPOINT_INTERVAL;
+            }
+            
+            while (position < target) {
+                redo(board);
+            }
+            while (position > target) {
+                undo(board);
+            }
+        } finally {
+            board.endBatch();
+        }
+        return true;
+    }
+    
+    /**
+     * Number of moves currently applied to the board.
+     */
+    public int getPosition() {
+        return position;
+    }
+    
+    /**
+     * Number of recorded moves, including undone moves that can be redone.
+     */
+    public int size() {
+        return size;
+    }
+    
+    public int getMove(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Move " + index + " of " + size);
+        }
+        return moves[index];
+    }
+    
+    public int[] toArray() {
+        return Arrays.copyOf(moves, size);
+    }
+    
+    public long estimateMemoryBytes() {
+        return 16L + moves.length * 4L + checkpointCount * (16L + PACKED_BOARD_BYTES);
+    }
+    
+    public static int pack(int row, int col, int previousValue, int newValue, int delta) {
+        return row | (col << 4) | (previousValue << 8) | (newValue << 12) | (delta << 16);
+    }
+    
+    public static int getRow(int move) { return move & 0xF; }
+    public static int getCol(int move) { return (move >>> 4) & 0xF; }
+    public static int getPreviousValue(int move) { return (move >>> 8) & 0xF; }
+    public static int getNewValue(int move) { return (move >>> 12) & 0xF; }
+    public static int getDeltaCentis(int move) { return move >>> 16; }
+    
+    private void storeCheckpoint(int index, SudokuBoard board) {
+        if (index == checkpoints.length) {
+            checkpoints = Arrays.copyOf(checkpoints, index * 2);
+        }
+        byte[] packed = checkpoints[index];
+        if (packed == null) {
+            packed = new byte[PACKED_BOARD_BYTES];
+            checkpoints[index] = packed;
+        }
+        Arrays.fill(packed, (byte) 0);
+        for (int i = 0; i < SudokuBoard.CELL_COUNT; i++) {
+            int value = board.getValue(i / SudokuBoard.SIZE, i % SudokuBoard.SIZE);
+            packed[i >> 1] |= (byte) ((i & 1) == 0 ? value : value << 4);
+        }
+        checkpointCount = index + 1;
+    }
+    
+    private void restoreCheckpoint(int index, SudokuBoard board) {
+        byte[] packed = checkpoints[index];
+        for (int i = 0; i < SudokuBoard.CELL_COUNT; i++) {
+            int value = (i & 1) == 0 ? packed[i >> 1] & 0xF : (packed[i >> 1] >> 4) & 0xF;
+            board.setValue(i / SudokuBoard.SIZE, i % SudokuBoard.SIZE, value);
+        }
+    }
+}
\ No newline at end of file
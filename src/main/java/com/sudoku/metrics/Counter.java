@@ -0,0 +1,106 @@
+package com.sudoku.metrics;
+
+import com.sudoku.model.Difficulty;
+import java.lang.ref.Cleaner;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Striped event counter for paths where taking a timestamp would be
+ * noticeable. An increment is one uncontended add on a {@link LongAdder}.
+ *
+ * Paths too hot even for that, such as moves, count into a {@link Cell}
+ * owned by one object instead: a plain array increment that the counter
+ * adds in whenever it is read, and folds into its total once the owner is
+ * garbage collected.
+ */
+public final class Counter implements CounterMBean {
+    private static final Cleaner CLEANER = Cleaner.create();
+    // The last slot counts events without a difficulty
+    private static final int NO_DIFFICULTY = Difficulty.values().length;
+    
+    private final String name;
+    private final LongAdder[] byDifficulty = new LongAdder[NO_DIFFICULTY + 1];
+    private final Set<long[]> cells = ConcurrentHashMap.newKeySet();
+    
+    Counter(String name) {
+        this.name = name;
+        for (int i = 0; i < byDifficulty.length; i++) {
+            byDifficulty[i] = new LongAdder();
+        }
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void increment(Difficulty difficulty) {
+        add(difficulty, 1);
+    }
+    
+    public void add(Difficulty difficulty, long count) {
+        byDifficulty[slot(difficulty)].add(count);
+    }
+    
+    /**
+     * A new cell of this counter for a single owner.
+     */
+    public Cell newCell() {
+        long[] counts = new long[byDifficulty.length];
+        cells.add(counts);
+        Cell cell = new Cell(counts);
+        CLEANER.register(cell, () -> retire(counts));
+        return cell;
+    }
+    
+    private void retire(long[] counts) {
+        cells.remove(counts);
+        for (int i = 0; i < counts.length; i++) {
+            byDifficulty[i].add(counts[i]);
+        }
+    }
+    
+    public long getCount(Difficulty difficulty) {
+        int slot = difficulty.ordinal();
+        long count = byDifficulty[slot].sum();
+        for (long[] counts : cells) {
+            count += counts[slot];
+        }
+        return count;
+    }
+    
+    @Override
+    public long getCount() {
+        long count = 0;
+        for (LongAdder adder : byDifficulty) {
+            count += adder.sum();
+        }
+        for (long[] counts : cells) {
+            for (long value : counts) {
+                count += value;
+            }
+        }
+        return count;
+    }
+    
+    private static int slot(Difficulty difficulty) {
+        return difficulty != null ? difficulty.ordinal() : NO_DIFFICULTY;
+    }
+    
+    /**
+     * Part of a counter written by one thread at a time, such as the thread
+     * holding a game's lock. Reads from other threads may lag a few counts.
+     */
+    public static final class Cell {
+        private final long[] counts;
+        
+        private Cell(long[] counts) {
+            this.counts = counts;
+        }
+        
+        public void increment(Difficulty difficulty) {
+            counts[slot(difficulty)]++;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,8 @@
+package com.sudoku.metrics;
+
+/**
+ * JMX view of a counter.
+ */
+public interface CounterMBean {
+    long getCount();
+}
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.sudoku.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.sudoku.Hint")
+@Label("Hint")
+@Category({"Sudoku", "Game"})
+@Description("A hint request")
+public class HintEvent extends SudokuEvent {
+    @Label("Precomputed")
+    @Description("Whether the background analysis of the board was ready")
+    private boolean precomputed;
+    
+    @Label("Hints")
+    private int hints;
+    
+    @Label("Empty Cells")
+    private int emptyCells;
+    
+    public void setPrecomputed(boolean precomputed) {
+        this.precomputed = precomputed;
+    }
+    
+    public void setHints(int hints) {
+        this.hints = hints;
+    }
+    
+    public void setEmptyCells(int emptyCells) {
+        this.emptyCells = emptyCells;
+    }
+}
\ No newline at end of file
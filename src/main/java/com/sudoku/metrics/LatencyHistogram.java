@@ -0,0 +1,96 @@
+package com.sudoku.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram of fixed size.
+ *
+ * Values in nanoseconds fall into log-linear buckets: 16 linear buckets per
+ * power of two, so a percentile is within 1/16 (about 6%) of the true value
+ * at any magnitude. 656 buckets cover everything up to about 4.9 hours in
+ * 5 KB; longer values are counted in the last bucket. Recording is one
+ * atomic increment plus an add to the running total; reads are not atomic
+ * across buckets, which is fine for monitoring.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKETS = (MAX_EXPONENT + 1) * SUB_BUCKETS;
+    
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+    
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts.incrementAndGet(bucketOf(nanos));
+        total.addAndGet(nanos);
+        if (nanos > max.get()) {
+            max.accumulateAndGet(nanos, Math::max);
+        }
+    }
+    
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+    
+    public long getMax() {
+        return max.get();
+    }
+    
+    public double getMean() {
+        long count = getCount();
+        return count == 0 ? 0 : (double) total.get() / count;
+    }
+    
+    /**
+     * The value below which the given percentage of recordings fall, as the
+     * upper bound of its bucket (never more than the maximum seen).
+     */
+    public long getPercentile(double percent) {
+        long[] snapshot = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            count += snapshot[i];
+        }
+        if (count == 0) return 0;
+        
+        long rank = Math.max(1, (long) Math.ceil(percent / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+    
+    static int bucketOf(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos) - SUB_BUCKET_BITS + 1;
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        // The top bit is implied by the exponent; the next four select the sub-bucket
+        return exponent * SUB_BUCKETS + (int) ((nanos >>> (exponent - 1)) & (SUB_BUCKETS - 1));
+    }
+    
+    static long upperBound(int bucket) {
+        int exponent = bucket / SUB_BUCKETS;
+        long subBucket = bucket % SUB_BUCKETS;
+        if (exponent == 0) {
+            return subBucket;
+        }
+        return ((SUB_BUCKETS + subBucket + 1) << (exponent - 1)) - 1;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,160 @@
+package com.sudoku.metrics;
+
+import com.sudoku.model.Difficulty;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * In-process metrics of the game: latency histograms of the slower
+ * operations (generation, solving, hints, saving and loading) and plain
+ * counters for hot paths like moves.
+ *
+ * Metrics are created once, typically into static fields of the class
+ * they measure, and recorded without locks. They can be published as
+ * platform MBeans under {@code com.sudoku:type=...} and dumped as text
+ * periodically. Both are off by default and switched on from the command
+ * line: -Dsudoku.metrics.jmx=true and -Dsudoku.metrics.dumpSeconds=N
+ * (see {@link #configureFromSystemProperties()}).
+ */
+public final class MetricsRegistry {
+    private static final MetricsRegistry GLOBAL = new MetricsRegistry();
+    
+    private final Map<String, OperationMetrics> operations = new ConcurrentSkipListMap<>();
+    private final Map<String, Counter> counters = new ConcurrentSkipListMap<>();
+    private MBeanServer mbeanServer;
+    private ScheduledExecutorService reporter;
+    
+    /**
+     * The registry the game records into.
+     */
+    public static MetricsRegistry global() {
+        return GLOBAL;
+    }
+    
+    public OperationMetrics operation(String name) {
+        OperationMetrics metrics = operations.computeIfAbsent(name, OperationMetrics::new);
+        registerIfPublished("Operation", name, metrics);
+        return metrics;
+    }
+    
+    public Counter counter(String name) {
+        Counter counter = counters.computeIfAbsent(name, Counter::new);
+        registerIfPublished("Counter", name, counter);
+        return counter;
+    }
+    
+    /**
+     * Applies -Dsudoku.metrics.jmx and -Dsudoku.metrics.dumpSeconds to the
+     * global registry; called by the application entry points. When
+     * dumping, a last report is also written at exit so short runs such as
+     * scripts get one.
+     */
+    public static void configureFromSystemProperties() {
+        if (Boolean.getBoolean("sudoku.metrics.jmx")) {
+            GLOBAL.publishMBeans();
+        }
+        long seconds = Long.getLong("sudoku.metrics.dumpSeconds", 0);
+        if (seconds > 0) {
+            GLOBAL.startReporting(System.err, seconds);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> System.err.print(GLOBAL.report()), "sudoku-metrics-exit"));
+        }
+    }
+    
+    /**
+     * Registers every metric, and from now on every new one, with the
+     * platform MBean server.
+     */
+    public synchronized void publishMBeans() {
+        if (mbeanServer != null) return;
+        
+        mbeanServer = ManagementFactory.getPlatformMBeanServer();
+        operations.forEach((name, metrics) -> register("Operation", name, metrics));
+        counters.forEach((name, counter) -> register("Counter", name, counter));
+    }
+    
+    private synchronized void registerIfPublished(String type, String name, Object mbean) {
+        if (mbeanServer != null) {
+            register(type, name, mbean);
+        }
+    }
+    
+    private void register(String type, String name, Object mbean) {
+        try {
+            ObjectName objectName = new ObjectName("com.sudoku:type=" + type + ",name=" + ObjectName.quote(name));
+            if (!mbeanServer.isRegistered(objectName)) {
+                mbeanServer.registerMBean(mbean, objectName);
+            }
+        } catch (JMException e) {
+            System.err.println("Failed to register metric " + name + ": " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Writes {@link #report()} to the stream every {@code seconds} seconds
+     * from a daemon thread.
+     */
+    public synchronized void startReporting(PrintStream out, long seconds) {
+        if (reporter != null) return;
+        
+        reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sudoku-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(() -> out.print(report()), seconds, seconds, TimeUnit.SECONDS);
+    }
+    
+    public synchronized void stopReporting() {
+        if (reporter != null) {
+            reporter.shutdownNow();
+            reporter = null;
+        }
+    }
+    
+    /**
+     * Every operation with recordings, overall and per difficulty, then
+     * every counter. Latencies are in microseconds.
+     */
+    public String report() {
+        StringBuilder text = new StringBuilder(2048);
+        text.append("# metrics ")
+            .append(LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)).append('\n');
+        text.append(String.format(Locale.ROOT, "%-28s %-10s %10s %8s %10s %10s %10s %10s %10s%n",
+            "operation", "difficulty", "count", "errors", "mean", "p50", "p99", "p999", "max"));
+        for (OperationMetrics metrics : operations.values()) {
+            if (metrics.getCount() == 0) continue;
+            
+            appendRow(text, metrics.getName(), "all", metrics.overall(), metrics.getErrors());
+            for (Difficulty difficulty : Difficulty.values()) {
+                LatencyHistogram histogram = metrics.forDifficulty(difficulty);
+                if (histogram.getCount() > 0) {
+                    appendRow(text, metrics.getName(), difficulty.name(), histogram, -1);
+                }
+            }
+        }
+        for (Counter counter : counters.values()) {
+            text.append(String.format(Locale.ROOT, "%-28s %-10s %10d%n", counter.getName(), "all", counter.getCount()));
+        }
+        return text.toString();
+    }
+    
+    private static void appendRow(StringBuilder text, String name, String difficulty,
+                                  LatencyHistogram histogram, long errors) {
+        text.append(String.format(Locale.ROOT, "%-28s %-10s %10d %8s %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+            name, difficulty, histogram.getCount(), errors >= 0 ? String.valueOf(errors) : "",
+            histogram.getMean() / 1000.0, histogram.getPercentile(50) / 1000.0,
+            histogram.getPercentile(99) / 1000.0, histogram.getPercentile(99.9) / 1000.0,
+            histogram.getMax() / 1000.0));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.sudoku.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A move entered by the player. Moves are frequent and cheap, so the event
+ * is off unless the recording settings enable it, as sudoku.jfc in the
+ * project root does.
+ */
+@Name("com.sudoku.Move")
+@Label("Move")
+@Category({"Sudoku", "Game"})
+@Description("A move made through the game manager")
+@Enabled(false)
+@StackTrace(false)
+public class MoveEvent extends SudokuEvent {
+    @Label("Row")
+    private int row;
+    
+    @Label("Column")
+    private int column;
+    
+    @Label("Value")
+    private int value;
+    
+    @Label("Accepted")
+    private boolean accepted;
+    
+    /**
+     * @param row    1-based, like the coordinates shown to the player
+     * @param column 1-based
+     */
+    public void setMove(int row, int column, int value, boolean accepted) {
+        this.row = row;
+        this.column = column;
+        this.value = value;
+        this.accepted = accepted;
+    }
+}
\ No newline at end of file
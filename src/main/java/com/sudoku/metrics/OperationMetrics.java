@@ -0,0 +1,80 @@
+package com.sudoku.metrics;
+
+import com.sudoku.model.Difficulty;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and error count of one operation, overall and per difficulty.
+ *
+ * Typical use:
+ * <pre>
+ * long start = System.nanoTime();
+ * ...
+ * SOLVE.record(start, difficulty);
+ * </pre>
+ * A null difficulty is only counted overall. The MBean attributes describe
+ * the overall histogram; see {@link #forDifficulty} for the others.
+ */
+public final class OperationMetrics implements OperationMetricsMBean {
+    private final String name;
+    private final LatencyHistogram all = new LatencyHistogram();
+    private final LatencyHistogram[] byDifficulty = new LatencyHistogram[Difficulty.values().length];
+    private final LongAdder errors = new LongAdder();
+    
+    OperationMetrics(String name) {
+        this.name = name;
+        for (int i = 0; i < byDifficulty.length; i++) {
+            byDifficulty[i] = new LatencyHistogram();
+        }
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void record(long startNanos, Difficulty difficulty) {
+        long elapsed = System.nanoTime() - startNanos;
+        all.record(elapsed);
+        if (difficulty != null) {
+            byDifficulty[difficulty.ordinal()].record(elapsed);
+        }
+    }
+    
+    /**
+     * Records an attempt that failed; it counts as an error and its latency
+     * is recorded like any other.
+     */
+    public void recordFailure(long startNanos, Difficulty difficulty) {
+        errors.increment();
+        record(startNanos, difficulty);
+    }
+    
+    public LatencyHistogram overall() {
+        return all;
+    }
+    
+    public LatencyHistogram forDifficulty(Difficulty difficulty) {
+        return byDifficulty[difficulty.ordinal()];
+    }
+    
+    @Override
+    public long getCount() { return all.getCount(); }
+    
+    @Override
+    public long getErrors() { return errors.sum(); }
+    
+    @Override
+    public double getMeanMicros() { return all.getMean() / 1000.0; }
+    
+    @Override
+    public double getP50Micros() { return all.getPercentile(50) / 1000.0; }
+    
+    @Override
+    public double getP99Micros() { return all.getPercentile(99) / 1000.0; }
+    
+    @Override
+    public double getP999Micros() { return all.getPercentile(99.9) / 1000.0; }
+    
+    @Override
+    public double getMaxMicros() { return all.getMax() / 1000.0; }
+}
\ No newline at end of file
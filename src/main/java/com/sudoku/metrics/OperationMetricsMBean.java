@@ -0,0 +1,14 @@
+package com.sudoku.metrics;
+
+/**
+ * JMX view of one operation; latencies are in microseconds.
+ */
+public interface OperationMetricsMBean {
+    long getCount();
+    long getErrors();
+    double getMeanMicros();
+    double getP50Micros();
+    double getP99Micros();
+    double getP999Micros();
+    double getMaxMicros();
+}
\ No newline at end of file
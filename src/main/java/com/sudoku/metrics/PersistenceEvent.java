@@ -0,0 +1,58 @@
+package com.sudoku.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Saving or loading one game. Asynchronous operations are committed on the
+ * thread that completes them, and their duration runs from the call.
+ */
+@Name("com.sudoku.Persistence")
+@Label("Save Game I/O")
+@Category({"Sudoku", "Persistence"})
+@Description("A game saved to or loaded from the save store")
+public class PersistenceEvent extends SudokuEvent {
+    @Label("Operation")
+    private String operation;
+    
+    @Label("Asynchronous")
+    private boolean async;
+    
+    @Label("Save Name")
+    private String name;
+    
+    @Label("Size")
+    @DataAmount
+    private long bytes;
+    
+    @Label("Cached")
+    @Description("Served from the in-memory cache without reading the store")
+    private boolean cached;
+    
+    @Label("Success")
+    private boolean success;
+    
+    public void setOperation(String operation, boolean async) {
+        this.operation = operation;
+        this.async = async;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public void setBytes(long bytes) {
+        this.bytes = bytes;
+    }
+    
+    public void setCached(boolean cached) {
+        this.cached = cached;
+    }
+    
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+}
\ No newline at end of file
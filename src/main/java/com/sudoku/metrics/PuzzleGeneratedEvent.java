@@ -0,0 +1,39 @@
+package com.sudoku.metrics;
+
+import com.sudoku.model.SudokuBoard;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.sudoku.PuzzleGenerated")
+@Label("Puzzle Generated")
+@Category({"Sudoku", "Generator"})
+@Description("A puzzle carved from a complete grid by the generator")
+public class PuzzleGeneratedEvent extends SudokuEvent {
+    @Label("Puzzle")
+    private String puzzle;
+    
+    @Label("Clues")
+    private int clues;
+    
+    @Label("Target Clues")
+    private int targetClues;
+    
+    @Label("Attempts")
+    @Description("Cells tried for removal, each costing a uniqueness check")
+    private int attempts;
+    
+    public void setPuzzle(SudokuBoard board) {
+        this.puzzle = puzzleOf(board);
+        this.clues = cluesOf(board);
+    }
+    
+    public void setTargetClues(int targetClues) {
+        this.targetClues = targetClues;
+    }
+    
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.sudoku.metrics;
+
+import com.sudoku.model.SudokuBoard;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * One solver search. Generating a puzzle runs dozens of short ones, so by
+ * default only searches of at least 1 ms are recorded; sudoku.jfc records
+ * all of them.
+ */
+@Name("com.sudoku.Solve")
+@Label("Solve")
+@Category({"Sudoku", "Solver"})
+@Description("A backtracking search of the solver")
+@Threshold("1 ms")
+public class SolveEvent extends SudokuEvent {
+    @Label("Operation")
+    private String operation;
+    
+    @Label("Puzzle")
+    private String puzzle;
+    
+    @Label("Empty Cells")
+    private int emptyCells;
+    
+    @Label("Nodes")
+    @Description("Cells assigned during the search, including those undone by backtracking")
+    private long nodes;
+    
+    @Label("Solutions")
+    @Description("Solutions found; 0 or 1 for solve")
+    private int solutions;
+    
+    public void setOperation(String operation) {
+        this.operation = operation;
+    }
+    
+    public void setPuzzle(SudokuBoard board) {
+        this.puzzle = puzzleOf(board);
+        this.emptyCells = SudokuBoard.CELL_COUNT - cluesOf(board);
+    }
+    
+    public void setNodes(long nodes) {
+        this.nodes = nodes;
+    }
+    
+    public void setSolutions(int solutions) {
+        this.solutions = solutions;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.sudoku.metrics;
+
+import com.sudoku.model.Difficulty;
+import com.sudoku.model.SudokuBoard;
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * Base of the game's Java Flight Recorder events, shown under "Sudoku" in
+ * JDK Mission Control.
+ *
+ * Events follow the usual pattern: create, {@code begin()}, do the work,
+ * {@code end()}, and fill in and {@code commit()} only if
+ * {@code shouldCommit()}. Calling {@code end()} first matters: on JDK 17
+ * {@code shouldCommit()} otherwise sees no duration and a threshold drops
+ * every event. Without a recording that enables them this costs next to
+ * nothing, as the JIT removes the unused event object. Record with e.g.
+ * {@code -XX:StartFlightRecording:filename=sudoku.jfr}.
+ */
+@Category("Sudoku")
+public abstract class SudokuEvent extends Event {
+    @Label("Difficulty")
+    protected String difficulty;
+    
+    public void setDifficulty(Difficulty difficulty) {
+        this.difficulty = difficulty != null ? difficulty.name() : null;
+    }
+    
+    /**
+     * A board as one line of 81 digits, 0 for empty cells, so a recorded
+     * puzzle can be pasted back into a test or the custom puzzle input.
+     */
+    static String puzzleOf(SudokuBoard board) {
+        char[] line = new char[SudokuBoard.CELL_COUNT];
+        for (int cell = 0; cell < line.length; cell++) {
+            line[cell] = (char) ('0' + board.getValue(cell / SudokuBoard.SIZE, cell % SudokuBoard.SIZE));
+        }
+        return new String(line);
+    }
+    
+    static int cluesOf(SudokuBoard board) {
+        int clues = 0;
+        for (int cell = 0; cell < SudokuBoard.CELL_COUNT; cell++) {
+            if (!board.isEmpty(cell / SudokuBoard.SIZE, cell % SudokuBoard.SIZE)) clues++;
+        }
+        return clues;
+    }
+}
\ No newline at end of file
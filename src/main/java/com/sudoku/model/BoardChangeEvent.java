@@ -0,0 +1,82 @@
+package com.sudoku.model;
+
+import java.util.BitSet;
+
+/**
+ * Describes a change to a board. Dirty cells are indexed as row * 9 + col.
+ */
+public class BoardChangeEvent {
+    public enum Type {
+        VALUE_CHANGED,
+        FIXED_CHANGED,
+        BOARD_REPLACED
+    }
+    
+    private final SudokuBoard board;
+    private final Type type;
+    private final long version;
+    // Null for the common single-cell event, which then only keeps its index
+    private final BitSet dirtyCells;
+    private final int cell;
+    
+    public BoardChangeEvent(SudokuBoard board, Type type, long version, BitSet dirtyCells) {
+        this.board = board;
+        this.type = type;
+        this.version = version;
+        this.dirtyCells = dirtyCells;
+        this.cell = dirtyCells.nextSetBit(0);
+    }
+    
+    /**
+     * An event for a single changed cell.
+     */
+    public BoardChangeEvent(SudokuBoard board, Type type, long version, int cell) {
+        this.board = board;
+        this.type = type;
+        this.version = version;
+        this.dirtyCells = null;
+        this.cell = cell;
+    }
+    
+    public SudokuBoard getBoard() { return board; }
+    public Type getType() { return type; }
+    public long getVersion() { return version; }
+    
+    public BitSet getDirtyCells() {
+        if (dirtyCells != null) {
+            return (BitSet) dirtyCells.clone();
+        }
+        BitSet dirty = new BitSet(SudokuBoard.CELL_COUNT);
+        dirty.set(cell);
+        return dirty;
+    }
+    
+    /**
+     * Index of the first dirty cell, or -1; handy for single-cell events.
+     */
+    public int getFirstDirtyCell() {
+        return cell;
+    }
+    
+    /**
+     * Index of the next dirty cell at or after {@code fromIndex}, or -1.
+     * Iterates the dirty cells without copying them:
+     * {@code for (int i = e.nextDirtyCell(0); i >= 0; i = e.nextDirtyCell(i + 1))}.
+     */
+    public int nextDirtyCell(int fromIndex) {
+        if (dirtyCells != null) {
+            return dirtyCells.nextSetBit(fromIndex);
+        }
+        return fromIndex <= cell ? cell : -1;
+    }
+    
+    public boolean isDirty(int row, int col) {
+        int index = row * SudokuBoard.SIZE + col;
+        return dirtyCells != null ? dirtyCells.get(index) : index == cell;
+    }
+    
+    @Override
+    public String toString() {
+        return type + "@" + version + " " + getDirtyCells();
+    }
+}
\ No newline at end of file
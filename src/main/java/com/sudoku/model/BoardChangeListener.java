@@ -0,0 +1,8 @@
+package com.sudoku.model;
+
+/**
+ * Receives fine-grained change notifications from a {@link SudokuBoard}.
+ */
+public interface BoardChangeListener {
+    void boardChanged(BoardChangeEvent event);
+}
\ No newline at end of file
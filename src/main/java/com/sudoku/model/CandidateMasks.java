@@ -0,0 +1,131 @@
+package com.sudoku.model;
+
+import java.util.Arrays;
+
+/**
+ * Candidate digits of every cell, kept up to date incrementally.
+ *
+ * Each row, column and box keeps a count per digit, so a changed cell only
+ * updates its three units and recomputes the masks of itself and its 20
+ * peers instead of calling isValidMove nine times per empty cell. Counts
+ * rather than bits keep this right while a board has duplicates, as in
+ * custom input mode. Bit d-1 of a mask is set if digit d is still possible;
+ * filled cells have an empty mask.
+ */
+public class CandidateMasks {
+    public static final int ALL = (1 << SudokuBoard.SIZE) - 1;
+    
+    private static final int SIZE = SudokuBoard.SIZE;
+    private static final int UNITS = 3 * SIZE;
+    
+    // Units of each cell (row, column, box) and its 20 distinct peers
+    private static final int[][] CELL_UNITS = new int[SudokuBoard.CELL_COUNT][];
+    private static final int[][] PEERS = new int[SudokuBoard.CELL_COUNT][];
+    
+    static {
+        for (int cell = 0; cell < SudokuBoard.CELL_COUNT; cell++) {
+            int row = cell / SIZE;
+            int col = cell % SIZE;
+            int box = (row / SudokuBoard.BOX_SIZE) * SudokuBoard.BOX_SIZE + col / SudokuBoard.BOX_SIZE;
+            CELL_UNITS[cell] = new int[] {row, SIZE + col, 2 * SIZE + box};
+            
+            int[] peers = new int[20];
+            int count = 0;
+            for (int other = 0; other < SudokuBoard.CELL_COUNT; other++) {
+                int otherRow = other / SIZE;
+                int otherCol = other % SIZE;
+                boolean sameBox = otherRow / SudokuBoard.BOX_SIZE == row / SudokuBoard.BOX_SIZE
+                    && otherCol / SudokuBoard.BOX_SIZE == col / SudokuBoard.BOX_SIZE;
+                if (other != cell && (otherRow == row || otherCol == col || sameBox)) {
+                    peers[count++] = other;
+                }
+            }
+            PEERS[cell] = peers;
+        }
+    }
+    
+    private final int[] values = new int[SudokuBoard.CELL_COUNT];
+    private final short[] masks = new short[SudokuBoard.CELL_COUNT];
+    private final byte[] counts = new byte[UNITS * (SIZE + 1)];
+    private final int[] used = new int[UNITS];
+    
+    public CandidateMasks() {
+        Arrays.fill(masks, (short) ALL);
+    }
+    
+    /**
+     * Recomputes everything, e.g. after the board was replaced.
+     */
+    public void rebuild(SudokuBoard board) {
+        Arrays.fill(counts, (byte) 0);
+        Arrays.fill(used, 0);
+        for (int cell = 0; cell < SudokuBoard.CELL_COUNT; cell++) {
+            values[cell] = board.getValue(cell / SIZE, cell % SIZE);
+            if (values[cell] != 0) {
+                add(cell, values[cell]);
+            }
+        }
+        for (int cell = 0; cell < SudokuBoard.CELL_COUNT; cell++) {
+            recompute(cell);
+        }
+    }
+    
+    /**
+     * Applies a new value of one cell.
+     * @return false if the value did not change and no mask was touched
+     */
+    public boolean update(int cell, int value) {
+        int previous = values[cell];
+        if (previous == value) return false;
+        
+        if (previous != 0) remove(cell, previous);
+        if (value != 0) add(cell, value);
+        values[cell] = value;
+        
+        recompute(cell);
+        for (int peer : PEERS[cell]) {
+            recompute(peer);
+        }
+        return true;
+    }
+    
+    public int get(int cell) {
+        return masks[cell];
+    }
+    
+    public short[] toArray() {
+        return masks.clone();
+    }
+    
+    /**
+     * The 20 cells sharing a row, column or box with the given cell.
+     */
+    public static int[] peersOf(int cell) {
+        return PEERS[cell].clone();
+    }
+    
+    private void add(int cell, int digit) {
+        for (int unit : CELL_UNITS[cell]) {
+            if (counts[unit * (SIZE + 1) + digit]++ == 0) {
+                used[unit] |= 1 << (digit - 1);
+            }
+        }
+    }
+    
+    private void remove(int cell, int digit) {
+        for (int unit : CELL_UNITS[cell]) {
+            if (--counts[unit * (SIZE + 1) + digit] == 0) {
+                used[unit] &= ~(1 << (digit - 1));
+            }
+        }
+    }
+    
+    private void recompute(int cell) {
+        if (values[cell] != 0) {
+            masks[cell] = 0;
+            return;
+        }
+        int[] units = CELL_UNITS[cell];
+        masks[cell] = (short) (ALL & ~(used[units[0]] | used[units[1]] | used[units[2]]));
+    }
+}
\ No newline at end of file
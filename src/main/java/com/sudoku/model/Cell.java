@@ -4,6 +4,8 @@ public class Cell {
     private int value;
     private boolean isFixed;
     private boolean[] candidates;
+    private SudokuBoard board;
+    private int index;
     
     public Cell() {
         this.value = 0;
@@ -22,8 +24,11 @@ public class Cell {
     }
     
     public void setValue(int value) {
-        if (!isFixed && value >= 0 && value <= 9) {
+        if (!isFixed && value >= 0 && value <= 9 && this.value != value) {
             this.value = value;
+            if (board != null) {
+                board.cellChanged(index, BoardChangeEvent.Type.VALUE_CHANGED);
+            }
         }
     }
     
@@ -32,7 +37,12 @@ public class Cell {
     }
     
     public void setFixed(boolean fixed) {
-        this.isFixed = fixed;
+        if (this.isFixed != fixed) {
+            this.isFixed = fixed;
+            if (board != null) {
+                board.cellChanged(index, BoardChangeEvent.Type.FIXED_CHANGED);
+            }
+        }
     }
     
     public boolean isEmpty() {
@@ -53,6 +63,11 @@ public class Cell {
         return num >= 1 && num <= 9 && candidates[num];
     }
     
+    void attach(SudokuBoard board, int index) {
+        this.board = board;
+        this.index = index;
+    }
+    
     @Override
     public String toString() {
         return isEmpty() ? "." : String.valueOf(value);
@@ -1,5 +1,7 @@
 package com.sudoku.model;
 
+import java.util.Random;
+
 public enum Difficulty {
     EASY(40, 45),
     MEDIUM(30, 35),
@@ -25,4 +27,8 @@ public enum Difficulty {
     public int getRandomClueCount() {
         return minClues + (int) (Math.random() * (maxClues - minClues + 1));
     }
+    
+    public int getRandomClueCount(Random random) {
+        return minClues + random.nextInt(maxClues - minClues + 1);
+    }
 }
\ No newline at end of file
@@ -1,11 +1,28 @@
 package com.sudoku.model;
 
+import java.util.Arrays;
+import java.util.BitSet;
+
 public class SudokuBoard {
     public static final int SIZE = 9;
     public static final int BOX_SIZE = 3;
+    public static final int CELL_COUNT = SIZE * SIZE;
     
     private Cell[][] board;
     
+    private static final BoardChangeListener[] NO_LISTENERS = new BoardChangeListener[0];
+    
+    // Change tracking: the board version is bumped on every cell change and
+    // each cell remembers the version at which it was last modified.
+    private long version;
+    private final long[] cellVersions = new long[CELL_COUNT];
+    // Copy-on-write, so firing an event never copies the list
+    private BoardChangeListener[] listeners = NO_LISTENERS;
+    // Changes collected between beginBatch and endBatch
+    private int batchDepth;
+    private BitSet batchDirty;
+    private BoardChangeEvent.Type batchType;
+    
     public SudokuBoard() {
         board = new Cell[SIZE][SIZE];
         initializeBoard();
@@ -26,11 +43,16 @@ public class SudokuBoard {
     private void initializeBoard() {
         for (int row = 0; row < SIZE; row++) {
             for (int col = 0; col < SIZE; col++) {
-                board[row][col] = new Cell();
+                setCell(row, col, new Cell());
             }
         }
     }
     
+    private void setCell(int row, int col, Cell cell) {
+        board[row][col] = cell;
+        cell.attach(this, row * SIZE + col);
+    }
+    
     public Cell getCell(int row, int col) {
         if (isValidPosition(row, col)) {
             return board[row][col];
@@ -64,16 +86,11 @@ public class SudokuBoard {
             return false;
         }
         
-        // Temporarily place the value to check validity
-        int originalValue = board[row][col].getValue();
-        board[row][col].setValue(value);
-        
-        boolean valid = !hasConflict(row, col);
-        
-        // Restore original value
-        board[row][col].setValue(originalValue);
-        
-        return valid;
+        // Check the value against its peers without placing it, so that
+        // validation never shows up as a change on the board
+        return !hasRowConflict(row, col, value) &&
+               !hasColumnConflict(row, col, value) &&
+               !hasBoxConflict(row, col, value);
     }
     
     public boolean hasConflict(int row, int col) {
@@ -133,12 +150,17 @@ public class SudokuBoard {
     }
     
     public void clear() {
-        for (int row = 0; row < SIZE; row++) {
-            for (int col = 0; col < SIZE; col++) {
-                if (!board[row][col].isFixed()) {
-                    board[row][col].setValue(0);
+        beginBatch();
+        try {
+            for (int row = 0; row < SIZE; row++) {
+                for (int col = 0; col < SIZE; col++) {
+                    if (!board[row][col].isFixed()) {
+                        board[row][col].setValue(0);
+                    }
                 }
             }
+        } finally {
+            endBatch();
         }
     }
     
@@ -147,7 +169,7 @@ public class SudokuBoard {
         for (int row = 0; row < SIZE; row++) {
             for (int col = 0; col < SIZE; col++) {
                 Cell original = this.board[row][col];
-                copy.board[row][col] = new Cell(original.getValue(), original.isFixed());
+                copy.setCell(row, col, new Cell(original.getValue(), original.isFixed()));
             }
         }
         return copy;
@@ -157,7 +179,7 @@ public class SudokuBoard {
         board = new Cell[SIZE][SIZE];
         for (int i = 0; i < SIZE; i++) {
             for (int j = 0; j < SIZE; j++) {
-                board[i][j] = new Cell(values[i][j], fixed[i][j]);
+                setCell(i, j, new Cell(values[i][j], fixed[i][j]));
             }
         }
     }
@@ -182,6 +204,103 @@ public class SudokuBoard {
         return array;
     }
     
+    public long getVersion() {
+        return version;
+    }
+    
+    /**
+     * Returns the cells modified after the given version, so a view that
+     * remembers the version it last rendered can redraw only those cells.
+     */
+    public BitSet getChangedCellsSince(long sinceVersion) {
+        BitSet changed = new BitSet(CELL_COUNT);
+        if (sinceVersion >= version) {
+            return changed;
+        }
+        for (int i = 0; i < CELL_COUNT; i++) {
+            if (cellVersions[i] > sinceVersion) {
+                changed.set(i);
+            }
+        }
+        return changed;
+    }
+    
+    public void addChangeListener(BoardChangeListener listener) {
+        BoardChangeListener[] updated = Arrays.copyOf(listeners, listeners.length + 1);
+        updated[listeners.length] = listener;
+        listeners = updated;
+    }
+    
+    public void removeChangeListener(BoardChangeListener listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                BoardChangeListener[] updated = new BoardChangeListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, updated, 0, i);
+                System.arraycopy(listeners, i + 1, updated, i, updated.length - i);
+                listeners = updated;
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Starts a multi-cell operation such as a checkpoint restore. Until the
+     * matching {@link #endBatch()} the changed cells are collected and then
+     * published as one event, whose type is VALUE_CHANGED if any value
+     * changed. Batches nest.
+     */
+    public void beginBatch() {
+        batchDepth++;
+    }
+    
+    public void endBatch() {
+        if (batchDepth == 0 || --batchDepth > 0 || batchDirty == null) return;
+        
+        BitSet dirty = batchDirty;
+        batchDirty = null;
+        fireChange(new BoardChangeEvent(this, batchType, version, dirty));
+    }
+    
+    /**
+     * Marks this board as the replacement of a previous one. The version
+     * continues past the previous board's version and every cell is dirty.
+     */
+    public void markReplaced(SudokuBoard previous) {
+        version = Math.max(version, previous != null ? previous.version : 0) + 1;
+        Arrays.fill(cellVersions, version);
+        
+        if (listeners.length > 0) {
+            BitSet all = new BitSet(CELL_COUNT);
+            all.set(0, CELL_COUNT);
+            fireChange(new BoardChangeEvent(this, BoardChangeEvent.Type.BOARD_REPLACED, version, all));
+        }
+    }
+    
+    void cellChanged(int index, BoardChangeEvent.Type type) {
+        version++;
+        cellVersions[index] = version;
+        
+        if (listeners.length == 0) return;
+        
+        if (batchDepth > 0) {
+            if (batchDirty == null) {
+                batchDirty = new BitSet(CELL_COUNT);
+                batchType = type;
+            } else if (type == BoardChangeEvent.Type.VALUE_CHANGED) {
+                batchType = type;
+            }
+            batchDirty.set(index);
+        } else {
+            fireChange(new BoardChangeEvent(this, type, version, index));
+        }
+    }
+    
+    private void fireChange(BoardChangeEvent event) {
+        for (BoardChangeListener listener : listeners) {
+            listener.boardChanged(event);
+        }
+    }
+    
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
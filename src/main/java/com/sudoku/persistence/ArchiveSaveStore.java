@@ -0,0 +1,401 @@
+package com.sudoku.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps all saves in one append-only data file plus an index, so servers
+ * with many saves do not need one file per game.
+ *
+ * Every write appends the save to the data file, forces it to disk and only
+ * then appends an entry (name, offset, length) to the index log, so an entry
+ * never points at data lost in a crash; a delete appends a tombstone. Index
+ * entries are forced too, so a save or delete that returned survives. On
+ * open the index log is replayed into memory, ignoring a torn final entry.
+ * Reads copy the record out of a read-only memory mapping of the data file,
+ * so a later compaction cannot pull the data from under the caller. Records
+ * appended since the mapping was made are read with positional reads, and
+ * the file is only remapped once that tail is as large as the mapping. Once
+ * more than half of the data file is dead, live records are copied into a
+ * new data file and a fresh index is swapped in atomically; the index header
+ * names the data file it belongs to, so an interrupted compaction leaves
+ * the previous pair intact. A compaction that fails is logged and retried
+ * after a later write; the write itself has already succeeded by then.
+ * Asynchronous writes run in order on a single I/O thread, so the forces
+ * and compactions stay off the caller's thread.
+ */
+public class ArchiveSaveStore implements SaveStore {
+    public static final long DEFAULT_COMPACT_MIN_BYTES = 1024 * 1024;
+    
+    private static final String INDEX_FILE = "archive.idx";
+    private static final String DATA_PREFIX = "archive-";
+    private static final String DATA_SUFFIX = ".dat";
+    private static final int INDEX_MAGIC = 0x53494458; // "SIDX"
+    private static final short INDEX_VERSION = 1;
+    private static final int DELETED = -1;
+    private static final long MIN_MAP_BYTES = 64 * 1024;
+    private static final int CLOSE_TIMEOUT_SECONDS = 10;
+    
+    private final Path directory;
+    private final long compactMinBytes;
+    private final Map<String, Location> entries = new LinkedHashMap<>();
+    private final ExecutorService ioExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sudoku-archive-io");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private String dataName;
+    private FileChannel data;
+    private FileChannel index;
+    private long dataSize;
+    private long liveBytes;
+    private MappedByteBuffer mapped;
+    private ByteBuffer entryBuffer = ByteBuffer.allocate(256);
+    
+    public ArchiveSaveStore(Path directory) throws IOException {
+        this(directory, DEFAULT_COMPACT_MIN_BYTES);
+    }
+    
+    public ArchiveSaveStore(Path directory, long compactMinBytes) throws IOException {
+        this.directory = directory;
+        this.compactMinBytes = compactMinBytes;
+        Files.createDirectories(directory);
+        
+        Path indexPath = directory.resolve(INDEX_FILE);
+        if (Files.exists(indexPath)) {
+            replayIndex(indexPath);
+        } else {
+            dataName = dataFileName(1);
+            writeIndex(indexPath, dataName, Collections.emptyMap());
+            index = FileChannel.open(indexPath, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        data = FileChannel.open(directory.resolve(dataName),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        dataSize = data.size();
+        
+        // Entries pointing past the end of the data file were never fully written
+        entries.values().removeIf(location -> location.offset + location.length > dataSize);
+        for (Location location : entries.values()) {
+            liveBytes += location.length;
+        }
+        deleteStaleDataFiles();
+    }
+    
+    @Override
+    public synchronized void write(String name, ByteBuffer save) throws IOException {
+        int length = save.remaining();
+        long offset = dataSize;
+        long position = offset;
+        while (save.hasRemaining()) {
+            position += data.write(save, position);
+        }
+        data.force(false);
+        dataSize = position;
+        appendIndexEntry(name, offset, length);
+        
+        Location previous = entries.put(name, new Location(offset, length));
+        if (previous != null) {
+            liveBytes -= previous.length;
+        }
+        liveBytes += length;
+        compactIfWasteful();
+    }
+    
+    @Override
+    public CompletableFuture<Void> writeAsync(String name, ByteBuffer save) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        try {
+            ioExecutor.execute(() -> {
+                try {
+                    write(name, save);
+                    result.complete(null);
+                } catch (IOException | RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(new IOException("Save store is closed", e));
+        }
+        return result;
+    }
+    
+    @Override
+    public synchronized ByteBuffer read(String name) throws IOException {
+        Location location = entries.get(name);
+        if (location == null) {
+            return null;
+        }
+        
+        long end = location.offset + location.length;
+        ByteBuffer buffer = ByteBuffer.allocate(location.length);
+        if (mapped == null || end > mapped.capacity()) {
+            long mappedBytes = mapped != null ? mapped.capacity() : 0;
+            if (dataSize > Integer.MAX_VALUE || dataSize - mappedBytes < Math.max(mappedBytes, MIN_MAP_BYTES)) {
+                // Too large to map, or a recent record not worth remapping for
+                while (buffer.hasRemaining() && data.read(buffer, location.offset + buffer.position()) >= 0) {
+                    // Keep reading until the whole record is buffered
+                }
+                return buffer.flip();
+            }
+            mapped = data.map(FileChannel.MapMode.READ_ONLY, 0, dataSize);
+        }
+        // Copied while holding the lock, since compaction replaces the file
+        return buffer.put(mapped.duplicate()
+            .position((int) location.offset)
+            .limit((int) end))
+            .flip();
+    }
+    
+    /**
+     * Reads in place: {@link #read} already returns a buffer the caller owns.
+     */
+    @Override
+    public CompletableFuture<ByteBuffer> readAsync(String name) {
+        try {
+            return CompletableFuture.completedFuture(read(name));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    /**
+     * The record's position in the data file, which every write moves. A
+     * compaction moves them all, so the next index check reloads them.
+     */
+    @Override
+    public synchronized long stamp(String name) {
+        Location location = entries.get(name);
+        return location != null ? location.offset + 1 : 0;
+    }
+    
+    @Override
+    public synchronized List<String> list() {
+        return new ArrayList<>(entries.keySet());
+    }
+    
+    @Override
+    public synchronized boolean delete(String name) throws IOException {
+        Location removed = entries.remove(name);
+        if (removed == null) {
+            return false;
+        }
+        appendIndexEntry(name, 0, DELETED);
+        liveBytes -= removed.length;
+        compactIfWasteful();
+        return true;
+    }
+    
+    public synchronized long getDataBytes() { return dataSize; }
+    public synchronized long getLiveBytes() { return liveBytes; }
+    
+    /**
+     * Copies the live records into a new data file and replaces the index.
+     */
+    public synchronized void compact() throws IOException {
+        String newDataName = dataFileName(dataFileNumber(dataName) + 1);
+        Path newDataPath = directory.resolve(newDataName);
+        Map<String, Location> compacted = new LinkedHashMap<>();
+        Path indexPath = directory.resolve(INDEX_FILE);
+        Path tempIndex = directory.resolve(INDEX_FILE + ".tmp");
+        
+        try {
+            try (FileChannel target = FileChannel.open(newDataPath,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                long position = 0;
+                for (Map.Entry<String, Location> entry : entries.entrySet()) {
+                    Location location = entry.getValue();
+                    long copied = 0;
+                    while (copied < location.length) {
+                        copied += data.transferTo(location.offset + copied, location.length - copied, target);
+                    }
+                    compacted.put(entry.getKey(), new Location(position, location.length));
+                    position += location.length;
+                }
+                target.force(true);
+            }
+            writeIndex(tempIndex, newDataName, compacted);
+            // Switching the index is the commit point of the compaction
+            Files.move(tempIndex, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            // Nothing has changed yet: drop the new files and keep the current pair
+            deleteAfterFailure(tempIndex, e);
+            deleteAfterFailure(newDataPath, e);
+            throw e;
+        }
+        
+        String oldDataName = dataName;
+        dataName = newDataName;
+        index.close();
+        index = FileChannel.open(indexPath, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        
+        FileChannel oldData = data;
+        data = FileChannel.open(newDataPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        dataSize = data.size();
+        mapped = null;
+        entries.clear();
+        entries.putAll(compacted);
+        
+        oldData.close();
+        // A data file left behind here is removed the next time the store opens
+        Files.deleteIfExists(directory.resolve(oldDataName));
+    }
+    
+    private static void deleteAfterFailure(Path path, Exception failure) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            failure.addSuppressed(e);
+        }
+    }
+    
+    private void compactIfWasteful() {
+        if (dataSize >= compactMinBytes && liveBytes < dataSize / 2) {
+            try {
+                compact();
+            } catch (IOException e) {
+                System.err.println("Failed to compact save archive: " + e.getMessage());
+            }
+        }
+    }
+    
+    private void replayIndex(Path indexPath) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(indexPath));
+        if (in.remaining() < 8 || in.getInt() != INDEX_MAGIC) {
+            throw new IOException("Not a save archive index: " + indexPath);
+        }
+        short version = in.getShort();
+        if (version > INDEX_VERSION) {
+            throw new IOException("Unsupported archive index version " + version);
+        }
+        dataName = readName(in);
+        if (dataName == null) {
+            throw new IOException("Truncated archive index header: " + indexPath);
+        }
+        
+        long validEnd = in.position();
+        while (true) {
+            String name = readName(in);
+            if (name == null || in.remaining() < 12) break;
+            long offset = in.getLong();
+            int length = in.getInt();
+            if (length == DELETED) {
+                entries.remove(name);
+            } else {
+                entries.put(name, new Location(offset, length));
+            }
+            validEnd = in.position();
+        }
+        
+        index = FileChannel.open(indexPath, StandardOpenOption.WRITE);
+        if (index.size() > validEnd) {
+            index.truncate(validEnd);
+        }
+        index.position(validEnd);
+    }
+    
+    private static String readName(ByteBuffer in) {
+        if (in.remaining() < 2) return null;
+        int length = in.getShort() & 0xFFFF;
+        if (in.remaining() < length) return null;
+        byte[] name = new byte[length];
+        in.get(name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+    
+    private void writeIndex(Path path, String dataName, Map<String, Location> contents) throws IOException {
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            byte[] name = dataName.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer header = ByteBuffer.allocate(8 + name.length);
+            header.putInt(INDEX_MAGIC).putShort(INDEX_VERSION).putShort((short) name.length).put(name).flip();
+            writeFully(channel, header);
+            for (Map.Entry<String, Location> entry : contents.entrySet()) {
+                writeFully(channel, encodeEntry(entry.getKey(), entry.getValue().offset, entry.getValue().length));
+            }
+            channel.force(true);
+        }
+    }
+    
+    private void appendIndexEntry(String name, long offset, int length) throws IOException {
+        writeFully(index, encodeEntry(name, offset, length));
+        index.force(false);
+    }
+    
+    private ByteBuffer encodeEntry(String name, long offset, int length) throws IOException {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IOException("Save name too long");
+        }
+        int size = 2 + bytes.length + 12;
+        if (entryBuffer.capacity() < size) {
+            entryBuffer = ByteBuffer.allocate(size * 2);
+        }
+        entryBuffer.clear();
+        entryBuffer.putShort((short) bytes.length).put(bytes).putLong(offset).putInt(length);
+        return entryBuffer.flip();
+    }
+    
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+    
+    private void deleteStaleDataFiles() throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, DATA_PREFIX + "*" + DATA_SUFFIX)) {
+            for (Path path : stream) {
+                if (!path.getFileName().toString().equals(dataName)) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+    }
+    
+    private static String dataFileName(int number) {
+        return String.format("%s%08d%s", DATA_PREFIX, number, DATA_SUFFIX);
+    }
+    
+    private static int dataFileNumber(String name) {
+        return Integer.parseInt(name.substring(DATA_PREFIX.length(), name.length() - DATA_SUFFIX.length()));
+    }
+    
+    /**
+     * Finishes the queued asynchronous writes, then closes the files.
+     */
+    @Override
+    public void close() throws IOException {
+        ioExecutor.shutdown();
+        try {
+            if (!ioExecutor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                System.err.println("Closing save archive with writes still pending");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            mapped = null;
+            index.close();
+            data.close();
+        }
+    }
+    
+    private static class Location {
+        final long offset;
+        final int length;
+        
+        Location(long offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
\ No newline at end of file
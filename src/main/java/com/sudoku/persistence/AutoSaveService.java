@@ -0,0 +1,164 @@
+package com.sudoku.persistence;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Write-behind autosave. Callers mark a game dirty whenever it changes;
+ * marks for the same save name are coalesced and a single background thread
+ * takes one snapshot and writes it once the game has been quiet for the
+ * debounce delay, or at the latest when the oldest unsaved change reaches the
+ * maximum staleness. The caller neither copies the game nor waits for disk
+ * I/O.
+ *
+ * The queue holds at most one entry per save name, a supplier and two
+ * timestamps, so it never grows past the number of games being played;
+ * those games are in memory anyway. maxPending is therefore not a hard
+ * limit but the point at which the writer flushes everything at once.
+ * markDirty never flushes or blocks itself: it runs under the caller's
+ * game lock, and a snapshot supplier takes its own game's lock, so writing
+ * another game's entry inline, or waiting for the writer, could deadlock.
+ */
+public class AutoSaveService implements AutoCloseable {
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 1000;
+    public static final long DEFAULT_MAX_STALENESS_MILLIS = 3000;
+    public static final int DEFAULT_MAX_PENDING = 1024;
+    
+    private final GamePersistence persistence;
+    private final long debounceMillis;
+    private final long maxStalenessMillis;
+    private final int maxPending;
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService writer;
+    private final AtomicBoolean urgentFlushQueued = new AtomicBoolean();
+    private final AtomicLong snapshotsReceived = new AtomicLong();
+    private final AtomicLong snapshotsWritten = new AtomicLong();
+    private volatile boolean closed;
+    
+    public AutoSaveService(GamePersistence persistence) {
+        this(persistence, DEFAULT_DEBOUNCE_MILLIS, DEFAULT_MAX_STALENESS_MILLIS, DEFAULT_MAX_PENDING);
+    }
+    
+    /**
+     * @param maxPending number of games waiting to be saved above which the
+     *                   writer is asked to flush them all right away
+     */
+    public AutoSaveService(GamePersistence persistence, long debounceMillis, long maxStalenessMillis, int maxPending) {
+        this.persistence = persistence;
+        this.debounceMillis = debounceMillis;
+        this.maxStalenessMillis = Math.max(debounceMillis, maxStalenessMillis);
+        this.maxPending = maxPending;
+        this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sudoku-autosave");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long tick = Math.max(20, debounceMillis / 4);
+        writer.scheduleWithFixedDelay(() -> flushDue(false), tick, tick, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Records the latest state of a game. Returns immediately.
+     */
+    public void markDirty(String filename, GameState snapshot) {
+        markDirty(filename, () -> snapshot);
+    }
+    
+    /**
+     * Marks a game as changed. The snapshot supplier runs later on the
+     * writer thread, so it must take whatever lock guards the game; it may
+     * return null if there is nothing to save. Returns immediately.
+     */
+    public void markDirty(String filename, Supplier<GameState> snapshot) {
+        if (closed) return;
+        
+        long now = System.currentTimeMillis();
+        snapshotsReceived.incrementAndGet();
+        pending.compute(filename, (name, previous) -> {
+            if (previous != null && previous.snapshot == snapshot) {
+                previous.lastDirtyTime = now;
+                return previous;
+            }
+            return new Pending(snapshot, previous != null ? previous.firstDirtyTime : now, now);
+        });
+        
+        // Too many games waiting: ask the writer to flush everything now
+        if (pending.size() > maxPending && urgentFlushQueued.compareAndSet(false, true)) {
+            writer.execute(() -> {
+                urgentFlushQueued.set(false);
+                flushDue(true);
+            });
+        }
+    }
+    
+    /**
+     * Writes every pending snapshot on the calling thread.
+     */
+    public void flush() {
+        flushDue(true);
+    }
+    
+    public int getPendingCount() {
+        return pending.size();
+    }
+    
+    public long getSnapshotsReceived() {
+        return snapshotsReceived.get();
+    }
+    
+    public long getSnapshotsWritten() {
+        return snapshotsWritten.get();
+    }
+    
+    private synchronized void flushDue(boolean force) {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, Pending> entry : pending.entrySet()) {
+            Pending item = entry.getValue();
+            boolean due = force
+                || now - item.lastDirtyTime >= debounceMillis
+                || now - item.firstDirtyTime >= maxStalenessMillis;
+            // Changes marked after the removal queue a new entry, so the
+            // snapshot taken here may only ever be newer than needed
+            if (due && pending.remove(entry.getKey(), item)) {
+                GameState state = item.snapshot.get();
+                if (state != null && persistence.saveGame(state, entry.getKey())) {
+                    snapshotsWritten.incrementAndGet();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Flushes pending snapshots and stops the writer thread.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+    
+    private static class Pending {
+        final Supplier<GameState> snapshot;
+        final long firstDirtyTime;
+        // Updated in place by markDirty, inside the map's compute
+        volatile long lastDirtyTime;
+        
+        Pending(Supplier<GameState> snapshot, long firstDirtyTime, long lastDirtyTime) {
+            this.snapshot = snapshot;
+            this.firstDirtyTime = firstDirtyTime;
+            this.lastDirtyTime = lastDirtyTime;
+        }
+    }
+}
\ No newline at end of file
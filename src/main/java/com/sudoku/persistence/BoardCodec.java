@@ -0,0 +1,199 @@
+package com.sudoku.persistence;
+
+import com.sudoku.model.SudokuBoard;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * Compact binary encodings for 9x9 grids.
+ *
+ * Values are packed two cells per byte (high nibble first), so a grid takes
+ * 41 bytes instead of the 162 characters of the text format. Boolean grids
+ * are packed one cell per bit, row-major, in 11 bytes.
+ */
+public final class BoardCodec {
+    public static final int PACKED_BOARD_BYTES = (SudokuBoard.CELL_COUNT + 1) / 2;
+    public static final int PACKED_MASK_BYTES = (SudokuBoard.CELL_COUNT + 7) / 8;
+    
+    private BoardCodec() {}
+    
+    public static void writeBoard(ByteBuffer buffer, int[][] board) {
+        int pending = -1;
+        for (int row = 0; row < SudokuBoard.SIZE; row++) {
+            for (int col = 0; col < SudokuBoard.SIZE; col++) {
+                int value = board[row][col] & 0xF;
+                if (pending < 0) {
+                    pending = value << 4;
+                } else {
+                    buffer.put((byte) (pending | value));
+                    pending = -1;
+                }
+            }
+        }
+        if (pending >= 0) {
+            buffer.put((byte) pending);
+        }
+    }
+    
+    public static int[][] readBoard(ByteBuffer buffer) {
+        int[][] board = new int[SudokuBoard.SIZE][SudokuBoard.SIZE];
+        int packed = 0;
+        for (int i = 0; i < SudokuBoard.CELL_COUNT; i++) {
+            int value;
+            if ((i & 1) == 0) {
+                packed = buffer.get() & 0xFF;
+                value = packed >>> 4;
+            } else {
+                value = packed & 0xF;
+            }
+            if (value > SudokuBoard.SIZE) {
+                throw new IllegalArgumentException("Invalid cell value " + value);
+            }
+            board[i / SudokuBoard.SIZE][i % SudokuBoard.SIZE] = value;
+        }
+        return board;
+    }
+    
+    public static void writeMask(ByteBuffer buffer, boolean[][] mask) {
+        int bits = 0;
+        int count = 0;
+        for (boolean[] row : mask) {
+            for (boolean set : row) {
+                bits = (bits << 1) | (set ? 1 : 0);
+                if (++count == 8) {
+                    buffer.put((byte) bits);
+                    bits = 0;
+                    count = 0;
+                }
+            }
+        }
+        if (count > 0) {
+            buffer.put((byte) (bits << (8 - count)));
+        }
+    }
+    
+    public static boolean[][] readMask(ByteBuffer buffer) {
+        boolean[][] mask = new boolean[SudokuBoard.SIZE][SudokuBoard.SIZE];
+        int bits = 0;
+        for (int i = 0; i < SudokuBoard.CELL_COUNT; i++) {
+            if ((i & 7) == 0) {
+                bits = buffer.get() & 0xFF;
+            }
+            mask[i / SudokuBoard.SIZE][i % SudokuBoard.SIZE] = (bits & (0x80 >>> (i & 7))) != 0;
+        }
+        return mask;
+    }
+    
+    /**
+     * Nibble-packs only the cells whose mask entry equals {@code selected},
+     * in row-major order.
+     */
+    public static void writeCells(ByteBuffer buffer, int[][] board, boolean[][] mask, boolean selected) {
+        int pending = -1;
+        for (int row = 0; row < SudokuBoard.SIZE; row++) {
+            for (int col = 0; col < SudokuBoard.SIZE; col++) {
+                if (mask[row][col] != selected) continue;
+                int value = board[row][col] & 0xF;
+                if (pending < 0) {
+                    pending = value << 4;
+                } else {
+                    buffer.put((byte) (pending | value));
+                    pending = -1;
+                }
+            }
+        }
+        if (pending >= 0) {
+            buffer.put((byte) pending);
+        }
+    }
+    
+    /**
+     * Reads cells written by {@link #writeCells} into the given board.
+     */
+    public static void readCells(ByteBuffer buffer, int[][] board, boolean[][] mask, boolean selected) {
+        int packed = 0;
+        int index = 0;
+        for (int row = 0; row < SudokuBoard.SIZE; row++) {
+            for (int col = 0; col < SudokuBoard.SIZE; col++) {
+                if (mask[row][col] != selected) continue;
+                int value;
+                if ((index++ & 1) == 0) {
+                    packed = buffer.get() & 0xFF;
+                    value = packed >>> 4;
+                } else {
+                    value = packed & 0xF;
+                }
+                if (value > SudokuBoard.SIZE) {
+                    throw new IllegalArgumentException("Invalid cell value " + value);
+                }
+                board[row][col] = value;
+            }
+        }
+    }
+    
+    /**
+     * Writes a puzzle as its givens: an 81-bit mask of the given cells
+     * followed by their nibble-packed values (20 to 34 bytes for typical
+     * puzzles instead of 41).
+     */
+    public static void writePuzzle(ByteBuffer buffer, int[][] puzzle) {
+        boolean[][] givens = givensOf(puzzle);
+        writeMask(buffer, givens);
+        writeCells(buffer, puzzle, givens, true);
+    }
+    
+    public static int[][] readPuzzle(ByteBuffer buffer) {
+        boolean[][] givens = readMask(buffer);
+        int[][] puzzle = new int[SudokuBoard.SIZE][SudokuBoard.SIZE];
+        readCells(buffer, puzzle, givens, true);
+        return puzzle;
+    }
+    
+    public static int puzzleBytes(int[][] puzzle) {
+        int givens = 0;
+        for (int[] row : puzzle) {
+            for (int value : row) {
+                if (value != 0) givens++;
+            }
+        }
+        return PACKED_MASK_BYTES + (givens + 1) / 2;
+    }
+    
+    /**
+     * A short URL-safe text form of a puzzle for sharing, e.g. to start the
+     * same puzzle on another machine.
+     */
+    public static String toShareCode(int[][] puzzle) {
+        ByteBuffer buffer = ByteBuffer.allocate(puzzleBytes(puzzle));
+        writePuzzle(buffer, puzzle);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+    
+    public static int[][] fromShareCode(String code) {
+        return readPuzzle(ByteBuffer.wrap(Base64.getUrlDecoder().decode(code.trim())));
+    }
+    
+    /**
+     * The given cells of a puzzle are exactly its non-empty original cells.
+     */
+    public static boolean[][] givensOf(int[][] originalBoard) {
+        boolean[][] givens = new boolean[SudokuBoard.SIZE][SudokuBoard.SIZE];
+        for (int row = 0; row < SudokuBoard.SIZE; row++) {
+            for (int col = 0; col < SudokuBoard.SIZE; col++) {
+                givens[row][col] = originalBoard[row][col] != 0;
+            }
+        }
+        return givens;
+    }
+    
+    public static boolean isGivensOf(boolean[][] mask, int[][] originalBoard) {
+        for (int row = 0; row < SudokuBoard.SIZE; row++) {
+            for (int col = 0; col < SudokuBoard.SIZE; col++) {
+                if (mask[row][col] != (originalBoard[row][col] != 0)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,254 @@
+package com.sudoku.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Keeps every save in its own file inside a directory.
+ *
+ * Writes go to a temporary file that is forced to disk and then renamed over
+ * the save, so a crash never leaves a half-written save behind. The async
+ * variants do the same on an {@link AsynchronousFileChannel}; creating,
+ * opening and sizing the files run on the store's I/O threads as well, so
+ * the caller never touches the disk.
+ */
+public class DirectorySaveStore implements SaveStore {
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final Set<StandardOpenOption> WRITE = Set.of(StandardOpenOption.WRITE);
+    private static final Set<StandardOpenOption> READ = Set.of(StandardOpenOption.READ);
+    
+    private final Path directory;
+    private final String extension;
+    private final ExecutorService ioExecutor;
+    private ByteBuffer buffer = ByteBuffer.allocate(512);
+    
+    public DirectorySaveStore(Path directory, String extension) {
+        this.directory = directory;
+        this.extension = extension;
+        this.ioExecutor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "sudoku-save-io");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @Override
+    public void write(String name, ByteBuffer data) throws IOException {
+        Path temp = Files.createTempFile(directory, name, TEMP_SUFFIX);
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (data.hasRemaining()) {
+                    channel.write(data);
+                }
+                channel.force(false);
+            }
+            commit(temp, name);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+    
+    @Override
+    public CompletableFuture<Void> writeAsync(String name, ByteBuffer data) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        runOnIoThread(result, () -> startWrite(name, data, result));
+        return result;
+    }
+    
+    private void startWrite(String name, ByteBuffer data, CompletableFuture<Void> result) throws IOException {
+        Path temp = Files.createTempFile(directory, name, TEMP_SUFFIX);
+        AsynchronousFileChannel channel;
+        try {
+            channel = AsynchronousFileChannel.open(temp, WRITE, ioExecutor);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        
+        channel.write(data, 0, null, new CompletionHandler<Integer, Void>() {
+            private long position;
+            
+            @Override
+            public void completed(Integer written, Void attachment) {
+                position += written;
+                if (data.hasRemaining()) {
+                    channel.write(data, position, null, this);
+                    return;
+                }
+                try {
+                    channel.force(false);
+                    channel.close();
+                    commit(temp, name);
+                    result.complete(null);
+                } catch (IOException e) {
+                    failed(e, null);
+                }
+            }
+            
+            @Override
+            public void failed(Throwable error, Void attachment) {
+                try {
+                    channel.close();
+                    Files.deleteIfExists(temp);
+                } catch (IOException e) {
+                    error.addSuppressed(e);
+                }
+                result.completeExceptionally(error);
+            }
+        });
+    }
+    
+    private void commit(Path temp, String name) throws IOException {
+        Files.move(temp, directory.resolve(name), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    @Override
+    public synchronized ByteBuffer read(String name) throws IOException {
+        Path path = directory.resolve(name);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE / 2) {
+                throw new IOException("Save file too large: " + name);
+            }
+            if (buffer.capacity() < size) {
+                buffer = ByteBuffer.allocate(Math.max((int) size, buffer.capacity() * 2));
+            }
+            buffer.clear().limit((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // Keep reading until the whole file is buffered
+            }
+        }
+        return buffer.flip();
+    }
+    
+    @Override
+    public CompletableFuture<ByteBuffer> readAsync(String name) {
+        CompletableFuture<ByteBuffer> result = new CompletableFuture<>();
+        runOnIoThread(result, () -> startRead(name, result));
+        return result;
+    }
+    
+    private void startRead(String name, CompletableFuture<ByteBuffer> result) throws IOException {
+        AsynchronousFileChannel channel;
+        ByteBuffer data;
+        try {
+            channel = AsynchronousFileChannel.open(directory.resolve(name), READ, ioExecutor);
+        } catch (NoSuchFileException e) {
+            result.complete(null);
+            return;
+        }
+        try {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE / 2) {
+                throw new IOException("Save file too large: " + name);
+            }
+            data = ByteBuffer.allocate((int) size);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        
+        channel.read(data, 0, null, new CompletionHandler<Integer, Void>() {
+            @Override
+            public void completed(Integer read, Void attachment) {
+                if (read >= 0 && data.hasRemaining()) {
+                    channel.read(data, data.position(), null, this);
+                    return;
+                }
+                try {
+                    channel.close();
+                    result.complete(data.flip());
+                } catch (IOException e) {
+                    result.completeExceptionally(e);
+                }
+            }
+            
+            @Override
+            public void failed(Throwable error, Void attachment) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    error.addSuppressed(e);
+                }
+                result.completeExceptionally(error);
+            }
+        });
+    }
+    
+    private interface IoTask {
+        void run() throws IOException;
+    }
+    
+    private void runOnIoThread(CompletableFuture<?> result, IoTask task) {
+        try {
+            ioExecutor.execute(() -> {
+                try {
+                    task.run();
+                } catch (IOException | RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(new IOException("Save store is closed", e));
+        }
+    }
+    
+    /**
+     * Combines the size, modification time and file key; every write
+     * renames a new file into place, so the key alone usually changes.
+     */
+    @Override
+    public long stamp(String name) throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(directory.resolve(name), BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return 0;
+        }
+        long stamp = attributes.lastModifiedTime().to(TimeUnit.MICROSECONDS) * 31 + attributes.size();
+        Object key = attributes.fileKey();
+        return key != null ? stamp * 31 + key.hashCode() : stamp;
+    }
+    
+    @Override
+    public List<String> list() throws IOException {
+        List<String> names = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                .filter(name -> name.endsWith(extension))
+                .forEach(names::add);
+        }
+        return names;
+    }
+    
+    @Override
+    public boolean delete(String name) throws IOException {
+        return Files.deleteIfExists(directory.resolve(name));
+    }
+    
+    /**
+     * Stops the I/O threads once the async operations in flight finish.
+     */
+    @Override
+    public void close() {
+        ioExecutor.shutdown();
+    }
+}
\ No newline at end of file
@@ -1,18 +1,113 @@
 package com.sudoku.persistence;
 
+import com.sudoku.metrics.Counter;
+import com.sudoku.metrics.MetricsRegistry;
+import com.sudoku.metrics.OperationMetrics;
+import com.sudoku.metrics.PersistenceEvent;
 import com.sudoku.model.SudokuBoard;
 import com.sudoku.model.Difficulty;
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
 
+/**
+ * Saves and loads games as versioned binary .sudoku files.
+ *
+ * Layout (big-endian): magic "SDKU", short format version, byte flags,
+ * byte difficulty ordinal (-1 if none), long start time, long save time,
+ * int hints used, int mistakes, long journal sequence, short-prefixed UTF-8
+ * player name, then the game. Version 2 stores the puzzle once as its givens
+ * (see {@link BoardCodec#writePuzzle}) and the player's progress as a
+ * short count of (cell << 4 | value) entries for the cells that differ from
+ * the puzzle (or the nibble-packed grid once that is smaller), followed by
+ * optional sections selected by the flags: the fixed-cell mask when it
+ * differs from the givens, the solution values of the non-given cells, the
+ * move history (varint count and position, then per move a short of cell,
+ * previous and new value plus a varint time delta), and the player's pencil
+ * marks (a mask of the cells that have any, then a short of marked digits
+ * per such cell). A save therefore grows with the player's progress rather
+ * than with the board size. Version 1 stored full nibble-packed grids. The
+ * file ends with a CRC32 of everything before it. Text saves written by
+ * earlier versions are still loaded.
+ *
+ * Encoded saves are kept in a {@link SaveStore}: one file per save in
+ * saved_games/ by default, or an {@link ArchiveSaveStore} on servers with
+ * many saves. Saves may come from the autosave and journal threads as well
+ * as the UI, so encoding is synchronized around the single reused buffer.
+ * A {@link SaveIndex} of every save's metadata is kept up to date on save
+ * and delete for listing without opening the saves, and the most recently
+ * loaded or saved states are kept in a small LRU cache so switching between
+ * a few games does not reread them. The cache assumes this instance is the
+ * only writer of its store; states are copied in and out of it.
+ */
 public class GamePersistence {
     private static final String SAVE_DIR = "saved_games";
     private static final String FILE_EXTENSION = ".sudoku";
+    private static final String INDEX_FILE = "saves.index";
+    public static final int DEFAULT_CACHE_SIZE = 16;
+    
+    private static final int MAGIC = 0x53444B55; // "SDKU"
+    private static final short FORMAT_VERSION = 2;
+    private static final int FLAG_COMPLETED = 1;
+    private static final int FLAG_FIXED_MASK = 1 << 1;
+    private static final int FLAG_SOLUTION = 1 << 2;
+    private static final int FLAG_MOVES = 1 << 3;
+    private static final int FLAG_FULL_CURRENT = 1 << 4;
+    private static final int FLAG_PENCIL_MARKS = 1 << 5;
+    private static final int FIXED_HEADER_BYTES = 4 + 2 + 1 + 1 + 8 + 8 + 4 + 4 + 8 + 2;
+    
+    private static final OperationMetrics SAVE = MetricsRegistry.global().operation("persistence.save");
+    private static final OperationMetrics LOAD = MetricsRegistry.global().operation("persistence.load");
+    private static final Counter CACHE_HITS = MetricsRegistry.global().counter("persistence.cacheHits");
+    private static final Counter CACHE_MISSES = MetricsRegistry.global().counter("persistence.cacheMisses");
+    
+    private final SaveStore store;
+    private final SaveIndex index;
+    private final Map<String, GameState> cache;
+    private long cacheHits;
+    private long cacheMisses;
+    private ByteBuffer buffer = ByteBuffer.allocate(512);
+    private final CRC32 crc = new CRC32();
     
     public GamePersistence() {
         createSaveDirectory();
+        this.store = new DirectorySaveStore(Paths.get(SAVE_DIR), FILE_EXTENSION);
+        this.index = new SaveIndex(Paths.get(SAVE_DIR, INDEX_FILE));
+        this.cache = createCache(DEFAULT_CACHE_SIZE);
+    }
+    
+    public GamePersistence(SaveStore store) {
+        this(store, null);
+    }
+    
+    /**
+     * @param indexFile where to keep the metadata index, or null to rebuild
+     *                  it in memory on first use
+     */
+    public GamePersistence(SaveStore store, Path indexFile) {
+        this(store, indexFile, DEFAULT_CACHE_SIZE);
+    }
+    
+    public GamePersistence(SaveStore store, Path indexFile, int cacheSize) {
+        this.store = store;
+        this.index = new SaveIndex(indexFile);
+        this.cache = createCache(cacheSize);
+    }
+    
+    private static Map<String, GameState> createCache(int maxEntries) {
+        return new LinkedHashMap<String, GameState>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, GameState> eldest) {
+                return size() > maxEntries;
+            }
+        };
     }
     
     private void createSaveDirectory() {
@@ -24,6 +119,62 @@ public class GamePersistence {
     }
     
     public boolean saveGame(GameState gameState, String filename) {
+        long start = System.nanoTime();
+        String name = saveName(gameState, filename);
+        PersistenceEvent event = beginEvent("save", false, name);
+        synchronized (cache) {
+            cache.remove(name);
+        }
+        try {
+            event.setBytes(writeBinary(name, gameState));
+        } catch (IOException e) {
+            System.err.println("Failed to save game: " + e.getMessage());
+            finish(SAVE, start, event, gameState.getDifficulty(), false);
+            return false;
+        }
+        saveCompleted(name, gameState);
+        finish(SAVE, start, event, gameState.getDifficulty(), true);
+        return true;
+    }
+    
+    /**
+     * Saves without blocking the caller: the game is encoded right away and
+     * written through the store's asynchronous I/O. The future completes
+     * with false if the save failed.
+     */
+    public CompletableFuture<Boolean> saveGameAsync(GameState gameState, String filename) {
+        long start = System.nanoTime();
+        String name = saveName(gameState, filename);
+        PersistenceEvent event = beginEvent("save", true, name);
+        GameState snapshot = gameState.copy();
+        ByteBuffer encoded;
+        synchronized (cache) {
+            cache.remove(name);
+        }
+        synchronized (this) {
+            try {
+                ByteBuffer shared = encode(snapshot);
+                encoded = ByteBuffer.allocate(shared.remaining()).put(shared).flip();
+            } catch (IOException e) {
+                System.err.println("Failed to save game: " + e.getMessage());
+                finish(SAVE, start, event, snapshot.getDifficulty(), false);
+                return CompletableFuture.completedFuture(false);
+            }
+        }
+        event.setBytes(encoded.remaining());
+        return store.writeAsync(name, encoded).handle((ignored, error) -> {
+            if (error != null) {
+                System.err.println("Failed to save game: " + error.getMessage());
+                finish(SAVE, start, event, snapshot.getDifficulty(), false);
+                return false;
+            }
+            saveCompleted(name, snapshot);
+            finish(SAVE, start, event, snapshot.getDifficulty(), true);
+            return true;
+        });
+    }
+    
+    private String saveName(GameState gameState, String filename) {
         if (filename == null || filename.trim().isEmpty()) {
             filename = generateFilename(gameState);
         }
@@ -31,46 +182,434 @@ public class GamePersistence {
         if (!filename.endsWith(FILE_EXTENSION)) {
             filename += FILE_EXTENSION;
         }
+        return filename;
+    }
+    
+    private void saveCompleted(String name, GameState gameState) {
+        synchronized (cache) {
+            cache.put(name, gameState.copy());
+        }
         
-        Path filePath = Paths.get(SAVE_DIR, filename);
-        
-        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(filePath))) {
-            writer.println("# Sudoku Game Save File");
-            writer.println("player=" + (gameState.getPlayerName() != null ? gameState.getPlayerName() : "Unknown"));
-            writer.println("difficulty=" + gameState.getDifficulty());
-            writer.println("startTime=" + gameState.getStartTime());
-            writer.println("saveTime=" + gameState.getSaveTime());
-            writer.println("gameCompleted=" + gameState.isGameCompleted());
-            writer.println("hintsUsed=" + gameState.getHintsUsed());
-            
-            writer.println("# Original Board");
-            writeBoard(writer, gameState.getOriginalBoard(), "original");
-            
-            writer.println("# Current Board");
-            writeBoard(writer, gameState.getCurrentBoard(), "current");
-            
-            writer.println("# Fixed Cells");
-            writeFixedCells(writer, gameState.getFixedCells());
-            
-            return true;
+        try {
+            openIndex().put(SaveMetadata.of(name, gameState), store.stamp(name));
         } catch (IOException e) {
-            System.err.println("Failed to save game: " + e.getMessage());
-            return false;
+            System.err.println("Failed to update save index: " + e.getMessage());
         }
     }
     
     public GameState loadGame(String filename) {
-        if (!filename.endsWith(FILE_EXTENSION)) {
-            filename += FILE_EXTENSION;
+        long start = System.nanoTime();
+        String name = loadName(filename);
+        PersistenceEvent event = beginEvent("load", false, name);
+        GameState cached = cachedCopy(name);
+        if (cached != null) {
+            event.setCached(true);
+            finish(LOAD, start, event, cached.getDifficulty(), true);
+            return cached;
+        }
+        return loadCompleted(name, loadUncached(name, event), start, event);
+    }
+    
+    /**
+     * Loads without blocking the caller. Cached games complete immediately;
+     * others are read through the store's asynchronous I/O. The future
+     * completes with null if there is no such save or it cannot be read.
+     */
+    public CompletableFuture<GameState> loadGameAsync(String filename) {
+        long start = System.nanoTime();
+        String name = loadName(filename);
+        PersistenceEvent event = beginEvent("load", true, name);
+        GameState cached = cachedCopy(name);
+        if (cached != null) {
+            event.setCached(true);
+            finish(LOAD, start, event, cached.getDifficulty(), true);
+            return CompletableFuture.completedFuture(cached);
+        }
+        return store.readAsync(name).handle((data, error) -> {
+            try {
+                if (error != null) {
+                    throw error instanceof CompletionException ? error.getCause() : error;
+                }
+                if (data != null) {
+                    event.setBytes(data.remaining());
+                }
+                return loadCompleted(name, data != null ? decode(data, name) : null, start, event);
+            } catch (Throwable e) {
+                System.err.println("Failed to load game: " + e.getMessage());
+                finish(LOAD, start, event, null, false);
+                return null;
+            }
+        });
+    }
+    
+    private String loadName(String filename) {
+        return filename.endsWith(FILE_EXTENSION) ? filename : filename + FILE_EXTENSION;
+    }
+    
+    private GameState cachedCopy(String name) {
+        synchronized (cache) {
+            GameState cached = cache.get(name);
+            if (cached != null) {
+                cacheHits++;
+                CACHE_HITS.increment(cached.getDifficulty());
+                return cached.copy();
+            }
+            cacheMisses++;
+            CACHE_MISSES.increment(null);
+            return null;
+        }
+    }
+    
+    private GameState loadCompleted(String name, GameState gameState, long startNanos, PersistenceEvent event) {
+        if (gameState == null) {
+            finish(LOAD, startNanos, event, null, false);
+            return null;
+        }
+        synchronized (cache) {
+            // A save that raced with this load has already cached the newer state
+            cache.putIfAbsent(name, gameState.copy());
+        }
+        finish(LOAD, startNanos, event, gameState.getDifficulty(), true);
+        return gameState;
+    }
+    
+    /**
+     * Starts the flight recorder event of a save or load; {@link #finish}
+     * commits it along with the metrics.
+     */
+    private static PersistenceEvent beginEvent(String operation, boolean async, String name) {
+        PersistenceEvent event = new PersistenceEvent();
+        event.setOperation(operation, async);
+        event.setName(name);
+        event.begin();
+        return event;
+    }
+    
+    private static void finish(OperationMetrics metrics, long startNanos, PersistenceEvent event,
+                               Difficulty difficulty, boolean success) {
+        if (success) {
+            metrics.record(startNanos, difficulty);
+        } else {
+            metrics.recordFailure(startNanos, difficulty);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.setDifficulty(difficulty);
+            event.setSuccess(success);
+            event.commit();
         }
+    }
+    
+    private GameState loadUncached(String filename) {
+        return loadUncached(filename, null);
+    }
+    
+    /**
+     * @param event receives the size of the save, or null
+     */
+    private GameState loadUncached(String filename, PersistenceEvent event) {
+        try {
+            return readSave(filename, event);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Failed to load game: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    public long getCacheHits() {
+        synchronized (cache) {
+            return cacheHits;
+        }
+    }
+    
+    public long getCacheMisses() {
+        synchronized (cache) {
+            return cacheMisses;
+        }
+    }
+    
+    public int getCachedCount() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+    
+    /**
+     * @return the number of bytes written
+     */
+    private synchronized int writeBinary(String filename, GameState gameState) throws IOException {
+        ByteBuffer data = encode(gameState);
+        int bytes = data.remaining();
+        store.write(filename, data);
+        return bytes;
+    }
+    
+    /**
+     * Encodes into the shared buffer; callers must hold this object's lock.
+     */
+    private ByteBuffer encode(GameState gameState) throws IOException {
+        byte[] player = (gameState.getPlayerName() != null ? gameState.getPlayerName() : "Unknown")
+            .getBytes(StandardCharsets.UTF_8);
+        if (player.length > Short.MAX_VALUE) {
+            throw new IOException("Player name too long");
+        }
+        boolean[][] fixed = gameState.getFixedCells();
+        int[][] original = gameState.getOriginalBoard();
+        boolean storeFixed = fixed != null && !BoardCodec.isGivensOf(fixed, original);
         
-        Path filePath = Paths.get(SAVE_DIR, filename);
+        int flags = 0;
+        if (gameState.isGameCompleted()) flags |= FLAG_COMPLETED;
+        if (storeFixed) flags |= FLAG_FIXED_MASK;
+        if (gameState.getSolution() != null) flags |= FLAG_SOLUTION;
+        int[] moves = gameState.getMoveHistory();
+        if (moves != null && moves.length > 0) flags |= FLAG_MOVES;
+        if (gameState.getPencilMarks() != null) flags |= FLAG_PENCIL_MARKS;
+        if (2 + 2 * countDifferences(original, gameState.getCurrentBoard()) > BoardCodec.PACKED_BOARD_BYTES) {
+            flags |= FLAG_FULL_CURRENT;
+        }
         
-        if (!Files.exists(filePath)) {
-            return null;
+        ByteBuffer out = buffer(FIXED_HEADER_BYTES + player.length + 2 * BoardCodec.PACKED_MASK_BYTES
+            + 2 * BoardCodec.PACKED_BOARD_BYTES + 2 + 2 * SudokuBoard.CELL_COUNT
+            + 10 + (moves != null ? moves.length * 5 : 0)
+            + BoardCodec.PACKED_MASK_BYTES + 2 * SudokuBoard.CELL_COUNT + 4);
+        out.putInt(MAGIC)
+            .putShort(FORMAT_VERSION)
+            .put((byte) flags)
+            .put((byte) (gameState.getDifficulty() != null ? gameState.getDifficulty().ordinal() : -1))
+            .putLong(gameState.getStartTime())
+            .putLong(gameState.getSaveTime())
+            .putInt(gameState.getHintsUsed())
+            .putInt(gameState.getMistakes())
+            .putLong(gameState.getJournalSequence())
+            .putShort((short) player.length)
+            .put(player);
+        BoardCodec.writePuzzle(out, original);
+        if ((flags & FLAG_FULL_CURRENT) != 0) {
+            BoardCodec.writeBoard(out, gameState.getCurrentBoard());
+        } else {
+            writeProgress(out, original, gameState.getCurrentBoard());
+        }
+        if (storeFixed) {
+            BoardCodec.writeMask(out, fixed);
+        }
+        if (gameState.getSolution() != null) {
+            BoardCodec.writeCells(out, gameState.getSolution(), BoardCodec.givensOf(original), false);
+        }
+        if ((flags & FLAG_MOVES) != 0) {
+            writeMoves(out, moves, gameState.getMovePosition());
+        }
+        if ((flags & FLAG_PENCIL_MARKS) != 0) {
+            writePencilMarks(out, gameState.getPencilMarks());
+        }
+        crc.reset();
+        crc.update(out.array(), 0, out.position());
+        out.putInt((int) crc.getValue());
+        return out.flip();
+    }
+    
+    /**
+     * @return the decoded state, or null if there is no such save
+     */
+    private synchronized GameState readSave(String filename, PersistenceEvent event) throws IOException {
+        ByteBuffer in = store.read(filename);
+        if (in != null && event != null) {
+            event.setBytes(in.remaining());
+        }
+        return in != null ? decode(in, filename) : null;
+    }
+    
+    private synchronized GameState decode(ByteBuffer in, String filename) throws IOException {
+        if (in.remaining() < FIXED_HEADER_BYTES + 4 || in.getInt(0) != MAGIC) {
+            return readText(new BufferedReader(new StringReader(StandardCharsets.UTF_8.decode(in).toString())));
+        }
+        
+        crc.reset();
+        crc.update(in.duplicate().limit(in.limit() - 4));
+        if ((int) crc.getValue() != in.getInt(in.limit() - 4)) {
+            throw new IOException("Checksum mismatch in " + filename);
+        }
+        in.position(4);
+        short version = in.getShort();
+        if (version > FORMAT_VERSION) {
+            throw new IOException("Unsupported save format version " + version);
         }
         
-        try (BufferedReader reader = Files.newBufferedReader(filePath)) {
+        GameState gameState = new GameState();
+        int flags = in.get();
+        int difficulty = in.get();
+        gameState.setDifficulty(difficulty >= 0 ? Difficulty.values()[difficulty] : null);
+        gameState.setStartTime(in.getLong());
+        gameState.setSaveTime(in.getLong());
+        gameState.setHintsUsed(in.getInt());
+        gameState.setMistakes(in.getInt());
+        gameState.setJournalSequence(in.getLong());
+        byte[] player = new byte[in.getShort()];
+        in.get(player);
+        gameState.setPlayerName(new String(player, StandardCharsets.UTF_8));
+        gameState.setGameCompleted((flags & FLAG_COMPLETED) != 0);
+        
+        if (version == 1) {
+            gameState.setOriginalBoard(BoardCodec.readBoard(in));
+            gameState.setCurrentBoard(BoardCodec.readBoard(in));
+        } else {
+            gameState.setOriginalBoard(BoardCodec.readPuzzle(in));
+            gameState.setCurrentBoard((flags & FLAG_FULL_CURRENT) != 0
+                ? BoardCodec.readBoard(in)
+                : readProgress(in, gameState.getOriginalBoard()));
+        }
+        boolean[][] givens = BoardCodec.givensOf(gameState.getOriginalBoard());
+        gameState.setFixedCells((flags & FLAG_FIXED_MASK) != 0 ? BoardCodec.readMask(in) : givens);
+        if ((flags & FLAG_SOLUTION) != 0) {
+            if (version == 1) {
+                gameState.setSolution(BoardCodec.readBoard(in));
+            } else {
+                int[][] solution = copyOf(gameState.getOriginalBoard());
+                BoardCodec.readCells(in, solution, givens, false);
+                gameState.setSolution(solution);
+            }
+        }
+        if ((flags & FLAG_MOVES) != 0) {
+            readMoves(in, gameState);
+        }
+        if ((flags & FLAG_PENCIL_MARKS) != 0) {
+            gameState.setPencilMarks(readPencilMarks(in));
+        }
+        return gameState;
+    }
+    
+    private static int countDifferences(int[][] original, int[][] current) {
+        int count = 0;
+        for (int row = 0; row < SudokuBoard.SIZE; row++) {
+            for (int col = 0; col < SudokuBoard.SIZE; col++) {
+                if (current[row][col] != original[row][col]) count++;
+            }
+        }
+        return count;
+    }
+    
+    private static void writeProgress(ByteBuffer out, int[][] original, int[][] current) {
+        int countPosition = out.position();
+        out.putShort((short) 0);
+        int count = 0;
+        for (int cell = 0; cell < SudokuBoard.CELL_COUNT; cell++) {
+            int value = current[cell / SudokuBoard.SIZE][cell % SudokuBoard.SIZE];
+            if (value != original[cell / SudokuBoard.SIZE][cell % SudokuBoard.SIZE]) {
+                out.putShort((short) (cell << 4 | value));
+                count++;
+            }
+        }
+        out.putShort(countPosition, (short) count);
+    }
+    
+    private static int[][] readProgress(ByteBuffer in, int[][] original) throws IOException {
+        int[][] current = copyOf(original);
+        int count = in.getShort();
+        for (int i = 0; i < count; i++) {
+            int entry = in.getShort() & 0xFFFF;
+            int cell = entry >>> 4;
+            int value = entry & 0xF;
+            if (cell >= SudokuBoard.CELL_COUNT || value > SudokuBoard.SIZE) {
+                throw new IOException("Invalid progress entry " + entry);
+            }
+            current[cell / SudokuBoard.SIZE][cell % SudokuBoard.SIZE] = value;
+        }
+        return current;
+    }
+    
+    private static void writeMoves(ByteBuffer out, int[] moves, int position) {
+        writeVarInt(out, moves.length);
+        writeVarInt(out, position);
+        for (int move : moves) {
+            int cell = (move & 0xF) * SudokuBoard.SIZE + ((move >>> 4) & 0xF);
+            out.putShort((short) (cell << 8 | (move >>> 8) & 0xFF));
+            writeVarInt(out, move >>> 16);
+        }
+    }
+    
+    private static void readMoves(ByteBuffer in, GameState gameState) throws IOException {
+        int count = readVarInt(in);
+        int position = readVarInt(in);
+        if (count > in.remaining() / 3 || position > count) {
+            throw new IOException("Invalid move history");
+        }
+        int[] moves = new int[count];
+        for (int i = 0; i < count; i++) {
+            int entry = in.getShort() & 0xFFFF;
+            int cell = entry >>> 8;
+            if (cell >= SudokuBoard.CELL_COUNT) {
+                throw new IOException("Invalid move cell " + cell);
+            }
+            moves[i] = cell / SudokuBoard.SIZE | (cell % SudokuBoard.SIZE) << 4 | (entry & 0xFF) << 8
+                | readVarInt(in) << 16;
+        }
+        gameState.setMoveHistory(moves);
+        gameState.setMovePosition(position);
+    }
+    
+    private static void writePencilMarks(ByteBuffer out, short[] marks) {
+        boolean[][] marked = new boolean[SudokuBoard.SIZE][SudokuBoard.SIZE];
+        for (int cell = 0; cell < SudokuBoard.CELL_COUNT; cell++) {
+            marked[cell / SudokuBoard.SIZE][cell % SudokuBoard.SIZE] = marks[cell] != 0;
+        }
+        BoardCodec.writeMask(out, marked);
+        for (short mark : marks) {
+            if (mark != 0) {
+                out.putShort(mark);
+            }
+        }
+    }
+    
+    private static short[] readPencilMarks(ByteBuffer in) {
+        boolean[][] marked = BoardCodec.readMask(in);
+        short[] marks = new short[SudokuBoard.CELL_COUNT];
+        for (int cell = 0; cell < SudokuBoard.CELL_COUNT; cell++) {
+            if (marked[cell / SudokuBoard.SIZE][cell % SudokuBoard.SIZE]) {
+                marks[cell] = (short) (in.getShort() & 0x1FF);
+            }
+        }
+        return marks;
+    }
+    
+    private static void writeVarInt(ByteBuffer out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+    
+    private static int readVarInt(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) break;
+        }
+        return value;
+    }
+    
+    private static int[][] copyOf(int[][] board) {
+        int[][] copy = new int[board.length][];
+        for (int row = 0; row < board.length; row++) {
+            copy[row] = board[row].clone();
+        }
+        return copy;
+    }
+    
+    private ByteBuffer buffer(int capacity) {
+        if (buffer.capacity() < capacity) {
+            buffer = ByteBuffer.allocate(Math.max(capacity, buffer.capacity() * 2));
+        }
+        buffer.clear();
+        buffer.limit(capacity);
+        return buffer;
+    }
+    
+    /**
+     * Reads the comma-separated text format used before binary saves.
+     */
+    private GameState readText(BufferedReader text) throws IOException {
+        try (BufferedReader reader = text) {
             GameState gameState = new GameState();
             String line;
             
@@ -89,32 +628,57 @@ public class GamePersistence {
                     gameState.setGameCompleted(Boolean.parseBoolean(line.substring(14)));
                 } else if (line.startsWith("hintsUsed=")) {
                     gameState.setHintsUsed(Integer.parseInt(line.substring(10)));
+                } else if (line.startsWith("mistakes=")) {
+                    gameState.setMistakes(Integer.parseInt(line.substring(9)));
+                } else if (line.startsWith("journalSequence=")) {
+                    gameState.setJournalSequence(Long.parseLong(line.substring(16)));
                 } else if (line.startsWith("original:")) {
                     gameState.setOriginalBoard(readBoard(reader));
                 } else if (line.startsWith("current:")) {
                     gameState.setCurrentBoard(readBoard(reader));
                 } else if (line.startsWith("fixed:")) {
                     gameState.setFixedCells(readFixedCells(reader));
+                } else if (line.startsWith("solution:")) {
+                    gameState.setSolution(readBoard(reader));
                 }
             }
             
             return gameState;
-        } catch (IOException | NumberFormatException e) {
-            System.err.println("Failed to load game: " + e.getMessage());
-            return null;
         }
     }
     
+    /**
+     * Lists saves from the metadata index without opening them.
+     * @param filter which saves to include, or null for all
+     * @param order sort order, e.g. {@link SaveMetadata#NEWEST_FIRST}
+     */
+    public List<SaveMetadata> listSaveMetadata(Predicate<SaveMetadata> filter, Comparator<SaveMetadata> order, int limit) {
+        try {
+            return openIndex().query(filter, order, limit);
+        } catch (IOException e) {
+            System.err.println("Failed to read save index: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+    
+    private SaveIndex openIndex() throws IOException {
+        if (!index.isOpen()) {
+            Map<String, Long> saves = new LinkedHashMap<>();
+            for (String name : store.list()) {
+                saves.put(name, store.stamp(name));
+            }
+            index.open(saves, this::loadUncached);
+        }
+        return index;
+    }
+    
     public List<String> listSavedGames() {
-        List<String> games = new ArrayList<>();
         try {
-            Files.list(Paths.get(SAVE_DIR))
-                .filter(path -> path.toString().endsWith(FILE_EXTENSION))
-                .forEach(path -> games.add(path.getFileName().toString()));
+            return store.list();
         } catch (IOException e) {
             System.err.println("Failed to list saved games: " + e.getMessage());
+            return new ArrayList<>();
         }
-        return games;
     }
     
     public boolean deleteGame(String filename) {
@@ -122,36 +686,19 @@ public class GamePersistence {
             filename += FILE_EXTENSION;
         }
         
+        synchronized (cache) {
+            cache.remove(filename);
+        }
         try {
-            return Files.deleteIfExists(Paths.get(SAVE_DIR, filename));
+            boolean deleted = store.delete(filename);
+            openIndex().remove(filename);
+            return deleted;
         } catch (IOException e) {
             System.err.println("Failed to delete game: " + e.getMessage());
             return false;
         }
     }
     
-    private void writeBoard(PrintWriter writer, int[][] board, String prefix) {
-        writer.println(prefix + ":");
-        for (int[] row : board) {
-            for (int i = 0; i < row.length; i++) {
-                writer.print(row[i]);
-                if (i < row.length - 1) writer.print(",");
-            }
-            writer.println();
-        }
-    }
-    
-    private void writeFixedCells(PrintWriter writer, boolean[][] fixed) {
-        writer.println("fixed:");
-        for (boolean[] row : fixed) {
-            for (int i = 0; i < row.length; i++) {
-                writer.print(row[i] ? "1" : "0");
-                if (i < row.length - 1) writer.print(",");
-            }
-            writer.println();
-        }
-    }
-    
     private int[][] readBoard(BufferedReader reader) throws IOException {
         int[][] board = new int[9][9];
         for (int i = 0; i < 9; i++) {
@@ -6,12 +6,18 @@ public class GameState {
     private int[][] currentBoard;
     private int[][] originalBoard;
     private boolean[][] fixedCells;
+    private int[][] solution;
     private Difficulty difficulty;
     private long startTime;
     private boolean gameCompleted;
     private int hintsUsed;
+    private int mistakes;
     private String playerName;
     private long saveTime;
+    private long journalSequence;
+    private int[] moveHistory;
+    private int movePosition;
+    private short[] pencilMarks;
     
     public GameState() {}
     
@@ -29,6 +35,40 @@ public class GameState {
         this.saveTime = System.currentTimeMillis();
     }
     
+    /**
+     * Deep copy, so cached states cannot be changed through a caller's copy.
+     */
+    public GameState copy() {
+        GameState copy = new GameState(copyOf(currentBoard), copyOf(originalBoard), copyOf(fixedCells),
+            difficulty, startTime, gameCompleted, hintsUsed, playerName);
+        copy.solution = copyOf(solution);
+        copy.mistakes = mistakes;
+        copy.saveTime = saveTime;
+        copy.journalSequence = journalSequence;
+        copy.moveHistory = moveHistory != null ? moveHistory.clone() : null;
+        copy.movePosition = movePosition;
+        copy.pencilMarks = pencilMarks != null ? pencilMarks.clone() : null;
+        return copy;
+    }
+    
+    private static int[][] copyOf(int[][] grid) {
+        if (grid == null) return null;
+        int[][] copy = new int[grid.length][];
+        for (int i = 0; i < grid.length; i++) {
+            copy[i] = grid[i].clone();
+        }
+        return copy;
+    }
+    
+    private static boolean[][] copyOf(boolean[][] grid) {
+        if (grid == null) return null;
+        boolean[][] copy = new boolean[grid.length][];
+        for (int i = 0; i < grid.length; i++) {
+            copy[i] = grid[i].clone();
+        }
+        return copy;
+    }
+    
     // Getters and setters
     public int[][] getCurrentBoard() { return currentBoard; }
     public void setCurrentBoard(int[][] currentBoard) { this.currentBoard = currentBoard; }
@@ -39,6 +79,9 @@ public class GameState {
     public boolean[][] getFixedCells() { return fixedCells; }
     public void setFixedCells(boolean[][] fixedCells) { this.fixedCells = fixedCells; }
     
+    public int[][] getSolution() { return solution; }
+    public void setSolution(int[][] solution) { this.solution = solution; }
+    
     public Difficulty getDifficulty() { return difficulty; }
     public void setDifficulty(Difficulty difficulty) { this.difficulty = difficulty; }
     
@@ -51,9 +94,26 @@ public class GameState {
     public int getHintsUsed() { return hintsUsed; }
     public void setHintsUsed(int hintsUsed) { this.hintsUsed = hintsUsed; }
     
+    public int getMistakes() { return mistakes; }
+    public void setMistakes(int mistakes) { this.mistakes = mistakes; }
+    
     public String getPlayerName() { return playerName; }
     public void setPlayerName(String playerName) { this.playerName = playerName; }
     
     public long getSaveTime() { return saveTime; }
     public void setSaveTime(long saveTime) { this.saveTime = saveTime; }
+    
+    public long getJournalSequence() { return journalSequence; }
+    public void setJournalSequence(long journalSequence) { this.journalSequence = journalSequence; }
+    
+    // Packed moves as in MoveLog, or null if the save has no history
+    public int[] getMoveHistory() { return moveHistory; }
+    public void setMoveHistory(int[] moveHistory) { this.moveHistory = moveHistory; }
+    
+    public int getMovePosition() { return movePosition; }
+    public void setMovePosition(int movePosition) { this.movePosition = movePosition; }
+    
+    // Player's pencil marks per cell (row * 9 + col, bit d-1 for digit d), or null if none
+    public short[] getPencilMarks() { return pencilMarks; }
+    public void setPencilMarks(short[] pencilMarks) { this.pencilMarks = pencilMarks; }
 }
\ No newline at end of file
@@ -0,0 +1,528 @@
+package com.sudoku.persistence;
+
+import com.sudoku.model.SudokuBoard;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, segmented move journal for crash recovery.
+ *
+ * Every move is appended as a small binary record and made durable with
+ * group commit: a single writer thread drains all queued requests, writes
+ * them as one checksummed frame and calls force once for the whole batch.
+ * Moves carry a global sequence number. Snapshots are ordinary saves through
+ * {@link GamePersistence} that remember the last sequence they include, so on
+ * recovery a game is rebuilt from its snapshot plus the journal moves with a
+ * higher sequence. {@link #compact()} folds old segments into the snapshots
+ * and deletes them.
+ *
+ * Frame layout: int payload length, long first record sequence, int CRC32
+ * of the payload, then records. Every segment starts with an empty frame
+ * holding the next sequence, so numbering survives compaction deleting all
+ * the segments that held records. A name declaration is type 1, int id,
+ * short length, UTF-8 bytes; ids are scoped to a segment. Every other record
+ * is a type byte, int id and int value and takes one sequence number:
+ * a move (type 2) or a revealed cell (type 3), both packed as in MoveLog
+ * with their real previous value; a seek of the move history to a new
+ * position by undo, redo or a jump (type 4); or a hint that placed nothing
+ * (type 5). Replaying them rebuilds the history, mistakes and hints along
+ * with the board, so a recovered game undoes and redoes like the original.
+ */
+public class MoveJournal implements AutoCloseable {
+    public static final long DEFAULT_SEGMENT_BYTES = 8L * 1024 * 1024;
+    
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int FRAME_HEADER_BYTES = 16;
+    private static final byte RECORD_DECLARE = 1;
+    private static final byte RECORD_MOVE = 2;
+    private static final byte RECORD_REVEAL = 3;
+    private static final byte RECORD_SEEK = 4;
+    private static final byte RECORD_HINT = 5;
+    
+    private final GamePersistence persistence;
+    private final Path directory;
+    private final long segmentBytes;
+    private final BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private volatile boolean closed;
+    
+    // Writer thread state
+    private FileChannel segment;
+    private int segmentIndex;
+    private final Map<String, Integer> declaredNames = new HashMap<>();
+    private long nextSequence = 1;
+    private long frameFirstSequence;
+    private ByteBuffer frame = ByteBuffer.allocateDirect(64 * 1024);
+    private final CRC32 crc = new CRC32();
+    
+    public MoveJournal(GamePersistence persistence) throws IOException {
+        this(persistence, Paths.get("saved_games", "journal"), DEFAULT_SEGMENT_BYTES);
+    }
+    
+    public MoveJournal(GamePersistence persistence, Path directory, long segmentBytes) throws IOException {
+        this.persistence = persistence;
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(directory);
+        
+        // Continue numbering after whatever earlier runs left behind
+        for (Path path : listSegments()) {
+            segmentIndex = Math.max(segmentIndex, segmentNumber(path));
+            nextSequence = Math.max(nextSequence, readSegment(path, (name, sequence, type, value) -> { }));
+        }
+        openNextSegment();
+        
+        writer = new Thread(this::writeLoop, "sudoku-journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+    
+    /**
+     * Appends a move for the given game, packed as in MoveLog. The future
+     * completes once the batch containing it has been forced to disk.
+     */
+    public CompletableFuture<Void> appendMove(String gameName, int packedMove) {
+        return submit(new Request(Request.RECORD, gameName, RECORD_MOVE, packedMove, null));
+    }
+    
+    /**
+     * Appends a cell filled in as a hint; it counts as a move and a hint.
+     */
+    public CompletableFuture<Void> appendReveal(String gameName, int packedMove) {
+        return submit(new Request(Request.RECORD, gameName, RECORD_REVEAL, packedMove, null));
+    }
+    
+    /**
+     * Appends an undo, redo or jump that left the move history at the given
+     * position.
+     */
+    public CompletableFuture<Void> appendSeek(String gameName, int position) {
+        return submit(new Request(Request.RECORD, gameName, RECORD_SEEK, position, null));
+    }
+    
+    /**
+     * Appends a hint that was only shown, not placed on the board.
+     */
+    public CompletableFuture<Void> appendHint(String gameName) {
+        return submit(new Request(Request.RECORD, gameName, RECORD_HINT, 0, null));
+    }
+    
+    /**
+     * Saves a full snapshot of the game, tagged with the sequence of the last
+     * journaled move, so that recovery only replays newer moves.
+     */
+    public CompletableFuture<Void> snapshot(String gameName, GameState state) {
+        return submit(new Request(Request.SNAPSHOT, gameName, (byte) 0, 0, state));
+    }
+    
+    /**
+     * Folds all closed segments into the snapshots and deletes them.
+     */
+    public CompletableFuture<Void> compact() {
+        return submit(new Request(Request.COMPACT, null, (byte) 0, 0, null));
+    }
+    
+    /**
+     * Rebuilds every journaled game from its latest snapshot and the records
+     * written after it. Only games with moves still in the journal are
+     * returned; compacted games are already up to date in their saves.
+     * Games whose snapshot cannot be loaded are skipped.
+     */
+    public Map<String, GameState> recover() throws IOException {
+        Map<String, List<long[]>> records = readRecords(listSegments());
+        Map<String, GameState> games = new LinkedHashMap<>();
+        for (Map.Entry<String, List<long[]>> entry : records.entrySet()) {
+            GameState state = persistence.loadGame(entry.getKey());
+            if (state != null) {
+                applyRecords(state, entry.getValue());
+                games.put(entry.getKey(), state);
+            }
+        }
+        return games;
+    }
+    
+    private CompletableFuture<Void> submit(Request request) {
+        if (closed) {
+            request.done.completeExceptionally(new IllegalStateException("Journal is closed"));
+        } else {
+            queue.add(request);
+        }
+        return request.done;
+    }
+    
+    private void writeLoop() {
+        List<Request> batch = new ArrayList<>();
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Request first = queue.take();
+                if (first.type == Request.STOP) {
+                    first.done.complete(null);
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch);
+                processBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (IOException | RuntimeException e) {
+                for (Request request : batch) {
+                    request.done.completeExceptionally(e);
+                }
+            }
+            batch.clear();
+        }
+    }
+    
+    private void processBatch(List<Request> batch) throws IOException {
+        long segmentSize = segment.size();
+        long firstSequence = nextSequence;
+        List<String> newNames = new ArrayList<>();
+        try {
+            beginFrame();
+            for (Request request : batch) {
+                if (request.type == Request.RECORD) {
+                    int id = declare(request.gameName, newNames);
+                    ensureFrameCapacity(9);
+                    frame.put(request.record).putInt(id).putInt(request.value);
+                    nextSequence++;
+                } else if (request.type == Request.SNAPSHOT) {
+                    // Covers the records queued before it; saved once they are durable
+                    request.state.setJournalSequence(nextSequence - 1);
+                }
+            }
+            commitFrame();
+        } catch (IOException | RuntimeException e) {
+            rollBack(segmentSize, firstSequence, newNames);
+            throw e;
+        }
+        
+        boolean compact = false;
+        for (Request request : batch) {
+            if (request.type == Request.SNAPSHOT && !persistence.saveGame(request.state, request.gameName)) {
+                request.done.completeExceptionally(new IOException("Snapshot failed: " + request.gameName));
+            }
+            compact |= request.type == Request.COMPACT;
+        }
+        for (Request request : batch) {
+            if (request.type != Request.COMPACT) {
+                request.done.complete(null); // No-op for requests that already failed
+            }
+        }
+        
+        // The records are durable now; a failure from here on only fails the compaction
+        if (segment.size() >= segmentBytes || compact) {
+            openNextSegment();
+        }
+        if (compact) {
+            compactClosedSegments();
+        }
+        for (Request request : batch) {
+            request.done.complete(null);
+        }
+    }
+    
+    /**
+     * Undoes a batch whose frame could not be written: drops the partial
+     * frame, so frames written later stay readable, and forgets the sequence
+     * numbers and name ids it used. If the segment cannot be truncated the
+     * journal moves on to a new one.
+     */
+    private void rollBack(long segmentSize, long firstSequence, List<String> newNames) {
+        nextSequence = firstSequence;
+        for (String name : newNames) {
+            declaredNames.remove(name);
+        }
+        try {
+            segment.truncate(segmentSize);
+        } catch (IOException e) {
+            try {
+                openNextSegment();
+            } catch (IOException rotateError) {
+                System.err.println("Failed to recover journal segment: " + rotateError.getMessage());
+            }
+        }
+    }
+    
+    private void beginFrame() {
+        frame.clear();
+        frame.position(FRAME_HEADER_BYTES);
+        frameFirstSequence = nextSequence;
+    }
+    
+    private void commitFrame() throws IOException {
+        int payloadLength = frame.position() - FRAME_HEADER_BYTES;
+        if (payloadLength == 0) return;
+        
+        ByteBuffer payload = frame.duplicate();
+        payload.flip().position(FRAME_HEADER_BYTES);
+        crc.reset();
+        crc.update(payload);
+        
+        frame.putInt(0, payloadLength);
+        frame.putLong(4, frameFirstSequence);
+        frame.putInt(12, (int) crc.getValue());
+        frame.flip();
+        while (frame.hasRemaining()) {
+            segment.write(frame);
+        }
+        segment.force(false);
+    }
+    
+    private int declare(String gameName, List<String> newNames) {
+        Integer id = declaredNames.get(gameName);
+        if (id != null) return id;
+        
+        id = declaredNames.size() + 1;
+        byte[] name = gameName.getBytes(StandardCharsets.UTF_8);
+        ensureFrameCapacity(7 + name.length);
+        frame.put(RECORD_DECLARE).putInt(id).putShort((short) name.length).put(name);
+        declaredNames.put(gameName, id);
+        newNames.add(gameName);
+        return id;
+    }
+    
+    private void ensureFrameCapacity(int bytes) {
+        if (frame.remaining() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocateDirect(frame.capacity() * 2 + bytes);
+            frame.flip();
+            larger.put(frame);
+            frame = larger;
+        }
+    }
+    
+    private void openNextSegment() throws IOException {
+        if (segment != null) {
+            segment.close();
+        }
+        segmentIndex++;
+        segment = FileChannel.open(directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, segmentIndex, SEGMENT_SUFFIX)),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        declaredNames.clear();
+        
+        // Empty frame recording where numbering continues
+        beginFrame();
+        frame.putInt(0, 0);
+        frame.putLong(4, nextSequence);
+        frame.putInt(12, 0);
+        frame.flip();
+        while (frame.hasRemaining()) {
+            segment.write(frame);
+        }
+        segment.force(false);
+    }
+    
+    private void compactClosedSegments() throws IOException {
+        List<Path> closedSegments = new ArrayList<>();
+        for (Path path : listSegments()) {
+            if (segmentNumber(path) < segmentIndex) {
+                closedSegments.add(path);
+            }
+        }
+        
+        Map<String, List<long[]>> records = readRecords(closedSegments);
+        for (Map.Entry<String, List<long[]>> entry : records.entrySet()) {
+            GameState state = persistence.loadGame(entry.getKey());
+            if (state != null && applyRecords(state, entry.getValue())) {
+                state.setSaveTime(System.currentTimeMillis());
+                if (!persistence.saveGame(state, entry.getKey())) {
+                    throw new IOException("Compaction failed for " + entry.getKey());
+                }
+            }
+        }
+        for (Path path : closedSegments) {
+            Files.deleteIfExists(path);
+        }
+    }
+    
+    /**
+     * Replays records newer than the snapshot onto it: the board, the move
+     * history and its position, mistakes, hints and whether the game is
+     * complete, the same way GameManager changed them while playing.
+     * @return true if any record was applied
+     */
+    static boolean applyRecords(GameState state, List<long[]> records) {
+        int[][] board = state.getCurrentBoard();
+        boolean[][] fixed = state.getFixedCells();
+        int[][] solution = state.getSolution();
+        int[] history = state.getMoveHistory() != null ? state.getMoveHistory() : new int[0];
+        int size = history.length;
+        int position = Math.max(0, Math.min(state.getMovePosition(), size));
+        int mistakes = state.getMistakes();
+        int hints = state.getHintsUsed();
+        boolean applied = false;
+        for (long[] record : records) {
+            long sequence = record[0];
+            if (sequence <= state.getJournalSequence()) continue;
+            
+            int type = (int) record[1];
+            int value = (int) record[2];
+            if (type == RECORD_MOVE || type == RECORD_REVEAL) {
+                // Packed as in MoveLog: row, column, previous and new value in 4 bits each
+                int row = value & 0xF;
+                int col = (value >>> 4) & 0xF;
+                int newValue = (value >>> 12) & 0xF;
+                if (row < SudokuBoard.SIZE && col < SudokuBoard.SIZE && !fixed[row][col]) {
+                    // A new move discards the undone moves after the position
+                    size = position;
+                    if (size == history.length) {
+                        history = Arrays.copyOf(history, Math.max(16, size * 2));
+                    }
+                    history[size++] = value;
+                    position = size;
+                    board[row][col] = newValue;
+                    if (type == RECORD_REVEAL) {
+                        hints++;
+                    } else if (newValue != 0 && solution != null && solution[row][col] != newValue) {
+                        mistakes++;
+                    }
+                }
+            } else if (type == RECORD_SEEK && value >= 0 && value <= size) {
+                while (position > value) {
+                    int move = history[--position];
+                    board[move & 0xF][(move >>> 4) & 0xF] = (move >>> 8) & 0xF;
+                }
+                while (position < value) {
+                    int move = history[position++];
+                    board[move & 0xF][(move >>> 4) & 0xF] = (move >>> 12) & 0xF;
+                }
+            } else if (type == RECORD_HINT) {
+                hints++;
+            }
+            state.setJournalSequence(sequence);
+            applied = true;
+        }
+        if (applied) {
+            state.setMoveHistory(Arrays.copyOf(history, size));
+            state.setMovePosition(position);
+            state.setMistakes(mistakes);
+            state.setHintsUsed(hints);
+            state.setGameCompleted(new SudokuBoard(board, fixed).isComplete());
+        }
+        return applied;
+    }
+    
+    private Map<String, List<long[]>> readRecords(List<Path> segments) throws IOException {
+        Map<String, List<long[]>> records = new LinkedHashMap<>();
+        for (Path path : segments) {
+            readSegment(path, (name, sequence, type, value) -> {
+                if (name != null) {
+                    records.computeIfAbsent(name, key -> new ArrayList<>()).add(new long[]{sequence, type, value});
+                }
+            });
+        }
+        return records;
+    }
+    
+    private interface RecordVisitor {
+        void visit(String gameName, long sequence, byte type, int value);
+    }
+    
+    /**
+     * Reads a segment frame by frame, stopping at the first frame that is
+     * incomplete or fails its checksum (a write torn by a crash).
+     * @return the sequence that follows the segment's last valid frame
+     */
+    private long readSegment(Path path, RecordVisitor visitor) throws IOException {
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(path));
+        Map<Integer, String> names = new HashMap<>();
+        CRC32 check = new CRC32();
+        long next = 1;
+        
+        while (data.remaining() >= FRAME_HEADER_BYTES) {
+            int length = data.getInt();
+            long sequence = data.getLong();
+            int expectedCrc = data.getInt();
+            if (length < 0 || length > data.remaining()) break;
+            
+            ByteBuffer payload = data.slice();
+            payload.limit(length);
+            check.reset();
+            check.update(payload.duplicate());
+            if ((int) check.getValue() != expectedCrc) break;
+            data.position(data.position() + length);
+            
+            while (payload.hasRemaining()) {
+                byte type = payload.get();
+                int id = payload.getInt();
+                if (type == RECORD_DECLARE) {
+                    byte[] name = new byte[payload.getShort()];
+                    payload.get(name);
+                    names.put(id, new String(name, StandardCharsets.UTF_8));
+                } else {
+                    visitor.visit(names.get(id), sequence++, type, payload.getInt());
+                }
+            }
+            next = Math.max(next, sequence);
+        }
+        return next;
+    }
+    
+    private List<Path> listSegments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                segments.add(path);
+            }
+        }
+        segments.sort(Comparator.comparingInt(MoveJournal::segmentNumber));
+        return segments;
+    }
+    
+    private static int segmentNumber(Path path) {
+        String name = path.getFileName().toString();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+    
+    /**
+     * Writes everything still queued and closes the current segment.
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+        
+        Request stop = new Request(Request.STOP, null, (byte) 0, 0, null);
+        closed = true;
+        queue.add(stop);
+        try {
+            stop.done.join();
+            writer.join();
+            segment.close();
+        } catch (IOException e) {
+            System.err.println("Failed to close journal: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static class Request {
+        static final int RECORD = 0;
+        static final int SNAPSHOT = 1;
+        static final int COMPACT = 2;
+        static final int STOP = 3;
+        
+        final int type;
+        final String gameName;
+        final byte record;
+        final int value;
+        final GameState state;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        
+        Request(int type, String gameName, byte record, int value, GameState state) {
+            this.type = type;
+            this.gameName = gameName;
+            this.record = record;
+            this.value = value;
+            this.state = state;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,258 @@
+package com.sudoku.persistence;
+
+import com.sudoku.model.SudokuBoard;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Bulk import of puzzle collections.
+ *
+ * Line formats (one puzzle of 81 cells per line, digits with '0' or '.' for
+ * empty cells, as in SadMan .sdm files) are memory-mapped in line-aligned
+ * chunks that are parsed in parallel directly into nibble-packed boards,
+ * without creating a String per line. Anything after the 81st cell is
+ * ignored; blank lines and lines starting with '#' are skipped and malformed
+ * lines are counted as rejected. Single-grid SadMan .sdk files are read with
+ * {@link #readSdk(Path)}. See {@link PuzzleLineWriter} for export.
+ */
+public final class PuzzleCorpus {
+    public static final int CHUNK_BYTES = 16 * 1024 * 1024;
+    
+    // A task reads past its chunk to finish its last line; longer lines are rejected
+    private static final int MAX_LINE_BYTES = 4096;
+    
+    private PuzzleCorpus() {}
+    
+    /**
+     * Imports a puzzle file, choosing the parser by extension: .sdk files
+     * hold a single grid, everything else is read as one puzzle per line.
+     * Batches are handed to the consumer from several threads at once.
+     */
+    public static ImportResult importFile(Path file, Consumer<Batch> consumer) throws IOException {
+        if (file.getFileName().toString().toLowerCase().endsWith(".sdk")) {
+            Batch batch = new Batch(0, 1);
+            batch.add(readSdk(file));
+            consumer.accept(batch);
+            return new ImportResult(1, 0, Files.size(file));
+        }
+        return importLines(file, consumer);
+    }
+    
+    /**
+     * Parses a file of 81-character puzzle lines in parallel. Each chunk of
+     * the file becomes one {@link Batch}; batches arrive out of order, with
+     * {@link Batch#getSequence()} giving their position in the file.
+     */
+    public static ImportResult importLines(Path file, Consumer<Batch> consumer) throws IOException {
+        return importLines(file, consumer, CHUNK_BYTES, MAX_LINE_BYTES);
+    }
+    
+    /**
+     * {@link #importLines(Path, Consumer)} with other chunk and line sizes,
+     * so tests can put chunk boundaries anywhere in a small file.
+     */
+    static ImportResult importLines(Path file, Consumer<Batch> consumer, int chunkBytes, int maxLineBytes)
+            throws IOException {
+        AtomicLong puzzles = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int chunks = (int) ((size + chunkBytes - 1) / chunkBytes);
+            
+            IntStream.range(0, chunks).parallel().forEach(chunk -> {
+                try {
+                    Batch batch = parseChunk(channel, size, chunk, chunkBytes, maxLineBytes);
+                    puzzles.addAndGet(batch.size());
+                    rejected.addAndGet(batch.rejected);
+                    consumer.accept(batch);
+                } catch (IOException e) {
+                    throw new IllegalStateException("Failed to read " + file + ": " + e.getMessage(), e);
+                }
+            });
+            return new ImportResult(puzzles.get(), rejected.get(), size);
+        }
+    }
+    
+    /**
+     * Parses the lines that start inside the given chunk.
+     */
+    private static Batch parseChunk(FileChannel channel, long size, int chunk, int chunkBytes, int maxLineBytes)
+            throws IOException {
+        long start = (long) chunk * chunkBytes;
+        long end = Math.min(size, start + chunkBytes);
+        // Map one byte before the chunk to see whether it starts on a line boundary
+        long mapStart = Math.max(0, start - 1);
+        long mapEnd = Math.min(size, end + maxLineBytes);
+        MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, mapStart, mapEnd - mapStart);
+        
+        int limit = (int) (end - mapStart);
+        int mapped = (int) (mapEnd - mapStart);
+        int pos = (int) (start - mapStart);
+        if (start > 0 && data.get(pos - 1) != '\n') {
+            // First partial line belongs to the previous chunk
+            while (pos < mapped && data.get(pos) != '\n') pos++;
+            pos++;
+        }
+        
+        Batch batch = new Batch(chunk, (int) ((end - start) / (SudokuBoard.CELL_COUNT + 1)) + 1);
+        while (pos < limit) {
+            int lineEnd = pos;
+            while (lineEnd < mapped && data.get(lineEnd) != '\n') lineEnd++;
+            if (lineEnd - pos > maxLineBytes || lineEnd == mapped && mapEnd < size) {
+                // Too long, whether or not its end fits in the read-ahead window
+                batch.rejected++;
+            } else if (!isSkippable(data, pos, lineEnd) && !batch.addLine(data, pos, lineEnd)) {
+                batch.rejected++;
+            }
+            pos = lineEnd + 1;
+        }
+        return batch;
+    }
+    
+    private static boolean isSkippable(ByteBuffer data, int from, int to) {
+        for (int i = from; i < to; i++) {
+            byte b = data.get(i);
+            if (b == '#') return true;
+            if (b != ' ' && b != '\t' && b != '\r') return false;
+        }
+        return true;
+    }
+    
+    /**
+     * Reads a SadMan .sdk file: nine rows of nine cells, '.' for empty,
+     * optional "[Puzzle]" header and '#' metadata lines.
+     */
+    public static int[][] readSdk(Path file) throws IOException {
+        int[][] board = new int[SudokuBoard.SIZE][SudokuBoard.SIZE];
+        int cell = 0;
+        for (String line : Files.readAllLines(file)) {
+            if (line.startsWith("#") || line.startsWith("[")) continue;
+            for (int i = 0; i < line.length() && cell < SudokuBoard.CELL_COUNT; i++) {
+                int value = cellValue((byte) line.charAt(i));
+                if (value >= 0) {
+                    board[cell / SudokuBoard.SIZE][cell % SudokuBoard.SIZE] = value;
+                    cell++;
+                }
+            }
+        }
+        if (cell < SudokuBoard.CELL_COUNT) {
+            throw new IOException("Incomplete puzzle in " + file.getFileName() + ": " + cell + " cells");
+        }
+        return board;
+    }
+    
+    /**
+     * Writes a single grid as a SadMan .sdk file.
+     */
+    public static void writeSdk(Path file, int[][] board) throws IOException {
+        StringBuilder text = new StringBuilder("[Puzzle]\n");
+        for (int[] row : board) {
+            for (int value : row) {
+                text.append(value == 0 ? '.' : (char) ('0' + value));
+            }
+            text.append('\n');
+        }
+        Files.writeString(file, text);
+    }
+    
+    /**
+     * @return the cell value for a puzzle character, or -1 if it is not one
+     */
+    static int cellValue(byte b) {
+        if (b >= '1' && b <= '9') return b - '0';
+        if (b == '0' || b == '.') return 0;
+        return -1;
+    }
+    
+    /**
+     * Puzzles parsed from one chunk of the input, nibble-packed as in
+     * {@link BoardCodec}.
+     */
+    public static class Batch {
+        private final int sequence;
+        private byte[] packed;
+        private int count;
+        private int rejected;
+        
+        Batch(int sequence, int capacity) {
+            this.sequence = sequence;
+            this.packed = new byte[Math.max(1, capacity) * BoardCodec.PACKED_BOARD_BYTES];
+        }
+        
+        public int getSequence() { return sequence; }
+        public int size() { return count; }
+        public int getRejected() { return rejected; }
+        
+        public int[][] getBoard(int index) {
+            return BoardCodec.readBoard(ByteBuffer.wrap(packed, index * BoardCodec.PACKED_BOARD_BYTES,
+                BoardCodec.PACKED_BOARD_BYTES));
+        }
+        
+        /**
+         * The packed boards; board i starts at i * PACKED_BOARD_BYTES.
+         */
+        public byte[] getPackedData() {
+            return packed;
+        }
+        
+        void add(int[][] board) {
+            ensureCapacity();
+            BoardCodec.writeBoard(ByteBuffer.wrap(packed, count * BoardCodec.PACKED_BOARD_BYTES,
+                BoardCodec.PACKED_BOARD_BYTES), board);
+            count++;
+        }
+        
+        /**
+         * Packs the first 81 cells of a line; false if the line is malformed.
+         */
+        boolean addLine(ByteBuffer data, int from, int to) {
+            if (to - from < SudokuBoard.CELL_COUNT) return false;
+            ensureCapacity();
+            
+            int out = count * BoardCodec.PACKED_BOARD_BYTES;
+            for (int i = 0; i < SudokuBoard.CELL_COUNT; i += 2) {
+                int high = cellValue(data.get(from + i));
+                int low = i + 1 < SudokuBoard.CELL_COUNT ? cellValue(data.get(from + i + 1)) : 0;
+                if ((high | low) < 0) return false;
+                packed[out++] = (byte) (high << 4 | low);
+            }
+            if (to - from > SudokuBoard.CELL_COUNT && cellValue(data.get(from + SudokuBoard.CELL_COUNT)) >= 0) {
+                return false; // More than 81 cells
+            }
+            count++;
+            return true;
+        }
+        
+        private void ensureCapacity() {
+            if ((count + 1) * BoardCodec.PACKED_BOARD_BYTES > packed.length) {
+                packed = Arrays.copyOf(packed, packed.length * 2);
+            }
+        }
+    }
+    
+    public static class ImportResult {
+        private final long puzzles;
+        private final long rejected;
+        private final long bytes;
+        
+        public ImportResult(long puzzles, long rejected, long bytes) {
+            this.puzzles = puzzles;
+            this.rejected = rejected;
+            this.bytes = bytes;
+        }
+        
+        public long getPuzzles() { return puzzles; }
+        public long getRejected() { return rejected; }
+        public long getBytes() { return bytes; }
+    }
+}
\ No newline at end of file
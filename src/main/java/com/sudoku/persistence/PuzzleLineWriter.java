@@ -0,0 +1,90 @@
+package com.sudoku.persistence;
+
+import com.sudoku.model.SudokuBoard;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams puzzles to a file as 81-character lines ('.' for empty cells),
+ * the format read by {@link PuzzleCorpus#importLines}. Lines are encoded
+ * into one reused direct buffer and written when it fills up.
+ */
+public class PuzzleLineWriter implements AutoCloseable {
+    private static final int LINE_BYTES = SudokuBoard.CELL_COUNT + 1;
+    private static final byte[] DIGITS = {'.', '1', '2', '3', '4', '5', '6', '7', '8', '9'};
+    
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private long written;
+    
+    public PuzzleLineWriter(Path file) throws IOException {
+        this(file, 1024 * 1024);
+    }
+    
+    public PuzzleLineWriter(Path file, int bufferBytes) throws IOException {
+        this.channel = FileChannel.open(file,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.buffer = ByteBuffer.allocateDirect(Math.max(LINE_BYTES, bufferBytes));
+    }
+    
+    public void write(int[][] board) throws IOException {
+        ensureRoom();
+        for (int[] row : board) {
+            for (int value : row) {
+                buffer.put(DIGITS[value]);
+            }
+        }
+        buffer.put((byte) '\n');
+        written++;
+    }
+    
+    /**
+     * Writes a nibble-packed board without unpacking it into a grid first.
+     */
+    public void writePacked(byte[] packed, int offset) throws IOException {
+        ensureRoom();
+        for (int i = 0; i < SudokuBoard.CELL_COUNT; i++) {
+            int b = packed[offset + (i >> 1)];
+            buffer.put(DIGITS[(i & 1) == 0 ? (b >>> 4) & 0xF : b & 0xF]);
+        }
+        buffer.put((byte) '\n');
+        written++;
+    }
+    
+    public void writeBatch(PuzzleCorpus.Batch batch) throws IOException {
+        byte[] packed = batch.getPackedData();
+        for (int i = 0; i < batch.size(); i++) {
+            writePacked(packed, i * BoardCodec.PACKED_BOARD_BYTES);
+        }
+    }
+    
+    public long getWrittenCount() {
+        return written;
+    }
+    
+    private void ensureRoom() throws IOException {
+        if (buffer.remaining() < LINE_BYTES) {
+            flush();
+        }
+    }
+    
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+    
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
\ No newline at end of file
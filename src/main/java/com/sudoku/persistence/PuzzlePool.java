@@ -0,0 +1,145 @@
+package com.sudoku.persistence;
+
+import com.sudoku.model.Difficulty;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Puzzles generated ahead of time, kept per difficulty and persisted, so a
+ * game can start without waiting for the generator, even right after launch.
+ *
+ * The pool is one small file in the save store: a header, then for every
+ * difficulty a count and that many puzzles, each as its givens
+ * ({@link BoardCodec#writePuzzle}) followed by the packed solution. It is
+ * written through a {@link DirectorySaveStore}, so a crash while saving
+ * leaves the previous pool intact. A missing or damaged file is treated as
+ * an empty pool.
+ */
+public final class PuzzlePool {
+    private static final String DEFAULT_DIR = "saved_games";
+    private static final String FILE_EXTENSION = ".pool";
+    private static final String NAME = "puzzles" + FILE_EXTENSION;
+    private static final int MAGIC = 0x53504F4C; // "SPOL"
+    private static final short VERSION = 1;
+    
+    private final SaveStore store;
+    private final List<Deque<Entry>> puzzles = new ArrayList<>();
+    
+    public PuzzlePool(SaveStore store) {
+        this.store = store;
+        for (int i = 0; i < Difficulty.values().length; i++) {
+            puzzles.add(new ArrayDeque<>());
+        }
+    }
+    
+    /**
+     * The pool kept next to the saves in saved_games/.
+     */
+    public static PuzzlePool openDefault() {
+        Path directory = Paths.get(DEFAULT_DIR);
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            System.err.println("Failed to create save directory: " + e.getMessage());
+        }
+        PuzzlePool pool = new PuzzlePool(new DirectorySaveStore(directory, FILE_EXTENSION));
+        pool.load();
+        return pool;
+    }
+    
+    /**
+     * Replaces the pool's contents with the stored ones.
+     * @return false if there was no usable pool file
+     */
+    public synchronized boolean load() {
+        for (Deque<Entry> queue : puzzles) {
+            queue.clear();
+        }
+        try {
+            ByteBuffer data = store.read(NAME);
+            if (data == null || data.remaining() < 6 || data.getInt() != MAGIC || data.getShort() != VERSION) {
+                return false;
+            }
+            for (Deque<Entry> queue : puzzles) {
+                int count = data.getInt();
+                for (int i = 0; i < count; i++) {
+                    int[][] puzzle = BoardCodec.readPuzzle(data);
+                    queue.add(new Entry(puzzle, BoardCodec.readBoard(data)));
+                }
+            }
+            return true;
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+            System.err.println("Ignoring puzzle pool: " + e.getMessage());
+            for (Deque<Entry> queue : puzzles) {
+                queue.clear();
+            }
+            return false;
+        }
+    }
+    
+    public synchronized boolean save() {
+        int bytes = 4 + 2;
+        for (Deque<Entry> queue : puzzles) {
+            bytes += 4;
+            for (Entry entry : queue) {
+                bytes += BoardCodec.puzzleBytes(entry.puzzle) + BoardCodec.PACKED_BOARD_BYTES;
+            }
+        }
+        
+        ByteBuffer data = ByteBuffer.allocate(bytes);
+        data.putInt(MAGIC).putShort(VERSION);
+        for (Deque<Entry> queue : puzzles) {
+            data.putInt(queue.size());
+            for (Entry entry : queue) {
+                BoardCodec.writePuzzle(data, entry.puzzle);
+                BoardCodec.writeBoard(data, entry.solution);
+            }
+        }
+        data.flip();
+        
+        try {
+            store.write(NAME, data);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Failed to save puzzle pool: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Removes and returns the oldest puzzle of a difficulty, or null if
+     * there is none.
+     */
+    public synchronized Entry take(Difficulty difficulty) {
+        return puzzles.get(difficulty.ordinal()).poll();
+    }
+    
+    public synchronized void add(Difficulty difficulty, int[][] puzzle, int[][] solution) {
+        puzzles.get(difficulty.ordinal()).add(new Entry(puzzle, solution));
+    }
+    
+    public synchronized int size(Difficulty difficulty) {
+        return puzzles.get(difficulty.ordinal()).size();
+    }
+    
+    public static class Entry {
+        private final int[][] puzzle;
+        private final int[][] solution;
+        
+        Entry(int[][] puzzle, int[][] solution) {
+            this.puzzle = puzzle;
+            this.solution = solution;
+        }
+        
+        public int[][] getPuzzle() { return puzzle; }
+        public int[][] getSolution() { return solution; }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,303 @@
+package com.sudoku.persistence;
+
+import com.sudoku.model.Difficulty;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Persistent metadata index of all saves.
+ *
+ * Kept entirely in memory and backed by an append-only log of put and
+ * remove records, so updating it on a save or delete costs one small
+ * append. The log is rewritten once it holds more than twice as many
+ * records as there are saves. If the log file is missing it is rebuilt from
+ * the saves themselves on first use; otherwise it is checked against the
+ * store, since saves may have been added, deleted or rewritten while the
+ * index was closed. Each entry keeps the store's stamp of its save (see
+ * {@link SaveStore#stamp}), so a rewritten save is noticed without reading
+ * it. A torn final record is ignored.
+ */
+public class SaveIndex implements AutoCloseable {
+    private static final int MAGIC = 0x534D4458; // "SMDX"
+    private static final short VERSION = 2;
+    private static final byte RECORD_PUT = 1;
+    private static final byte RECORD_REMOVE = 2;
+    
+    private final Path file;
+    private final Map<String, SaveMetadata> entries = new HashMap<>();
+    private final Map<String, Long> stamps = new HashMap<>();
+    private FileChannel log;
+    private boolean loaded;
+    private int logRecords;
+    private short logVersion;
+    private ByteBuffer buffer = ByteBuffer.allocate(256);
+    
+    /**
+     * @param file the log file, or null to keep the index in memory only
+     */
+    public SaveIndex(Path file) {
+        this.file = file;
+    }
+    
+    /**
+     * Loads the index, rebuilding it with the given loader when there is no
+     * log to load from, or else loading only the saves it is missing or
+     * holds a different stamp for, and dropping those no longer in the
+     * store. Does nothing if already open.
+     * @param saves every save in the store with its current stamp
+     */
+    public synchronized void open(Map<String, Long> saves, SaveLoader loader) throws IOException {
+        if (loaded) return;
+        
+        if (file != null && Files.exists(file) && replay()) {
+            log = FileChannel.open(file, StandardOpenOption.WRITE);
+            log.position(log.size());
+            if (logVersion < VERSION) {
+                rewrite(); // Before appending records of the new version
+            }
+            reconcile(saves, loader);
+        } else {
+            entries.clear();
+            stamps.clear();
+            for (Map.Entry<String, Long> save : saves.entrySet()) {
+                GameState state = loader.load(save.getKey());
+                if (state != null) {
+                    entries.put(save.getKey(), SaveMetadata.of(save.getKey(), state));
+                    stamps.put(save.getKey(), save.getValue());
+                }
+            }
+            rewrite();
+        }
+        loaded = true;
+    }
+    
+    private void reconcile(Map<String, Long> saves, SaveLoader loader) throws IOException {
+        for (String name : new ArrayList<>(entries.keySet())) {
+            if (!saves.containsKey(name)) {
+                remove(name);
+            }
+        }
+        for (Map.Entry<String, Long> save : saves.entrySet()) {
+            String name = save.getKey();
+            long stamp = save.getValue();
+            // A stamp of 0 means the store cannot tell, so only the name counts
+            if (entries.containsKey(name) && (stamp == 0 || stamps.getOrDefault(name, 0L) == stamp)) {
+                continue;
+            }
+            GameState state = loader.load(name);
+            if (state != null) {
+                put(SaveMetadata.of(name, state), stamp);
+            } else {
+                remove(name);
+            }
+        }
+    }
+    
+    public interface SaveLoader {
+        GameState load(String name);
+    }
+    
+    public synchronized boolean isOpen() {
+        return loaded;
+    }
+    
+    /**
+     * @param stamp the store's {@link SaveStore#stamp} of the save just written
+     */
+    public synchronized void put(SaveMetadata metadata, long stamp) throws IOException {
+        entries.put(metadata.getFilename(), metadata);
+        stamps.put(metadata.getFilename(), stamp);
+        append(RECORD_PUT, metadata.getFilename(), metadata, stamp);
+    }
+    
+    public synchronized void remove(String filename) throws IOException {
+        stamps.remove(filename);
+        if (entries.remove(filename) != null) {
+            append(RECORD_REMOVE, filename, null, 0);
+        }
+    }
+    
+    public synchronized SaveMetadata get(String filename) {
+        return entries.get(filename);
+    }
+    
+    public synchronized int size() {
+        return entries.size();
+    }
+    
+    /**
+     * Returns up to {@code limit} saves matching the filter, in the given
+     * order. A null filter matches everything; a null order is unspecified.
+     */
+    public synchronized List<SaveMetadata> query(Predicate<SaveMetadata> filter, Comparator<SaveMetadata> order, int limit) {
+        if (order != null && limit < entries.size()) {
+            // Keep only the best matches in a bounded heap instead of sorting them all
+            PriorityQueue<SaveMetadata> best = new PriorityQueue<>(Math.max(1, limit), order.reversed());
+            for (SaveMetadata metadata : entries.values()) {
+                if (limit > 0 && (filter == null || filter.test(metadata))) {
+                    best.add(metadata);
+                    if (best.size() > limit) {
+                        best.poll();
+                    }
+                }
+            }
+            List<SaveMetadata> top = new ArrayList<>(best);
+            top.sort(order);
+            return top;
+        }
+        
+        List<SaveMetadata> matches = new ArrayList<>();
+        for (SaveMetadata metadata : entries.values()) {
+            if (filter == null || filter.test(metadata)) {
+                matches.add(metadata);
+            }
+        }
+        if (order != null) {
+            matches.sort(order);
+        }
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+    
+    private void append(byte type, String filename, SaveMetadata metadata, long stamp) throws IOException {
+        if (log == null) return;
+        
+        buffer = encode(buffer, type, filename, metadata, stamp);
+        while (buffer.hasRemaining()) {
+            log.write(buffer);
+        }
+        if (++logRecords > 2 * entries.size() + 64) {
+            try {
+                rewrite();
+            } catch (IOException e) {
+                // The record is in the old log, which stays in use
+                System.err.println("Failed to rewrite save index: " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Writes the entries to a new log and swaps it in. Until the swap
+     * succeeds the current log stays open, so a failure leaves it in use.
+     */
+    private void rewrite() throws IOException {
+        if (file == null) return;
+        
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (FileChannel out = FileChannel.open(temp,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer header = ByteBuffer.allocate(6).putInt(MAGIC).putShort(VERSION).flip();
+                out.write(header);
+                for (SaveMetadata metadata : entries.values()) {
+                    buffer = encode(buffer, RECORD_PUT, metadata.getFilename(), metadata,
+                        stamps.getOrDefault(metadata.getFilename(), 0L));
+                    while (buffer.hasRemaining()) {
+                        out.write(buffer);
+                    }
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        
+        if (log != null) {
+            log.close();
+        }
+        log = FileChannel.open(file, StandardOpenOption.WRITE);
+        log.position(log.size());
+        logRecords = entries.size();
+    }
+    
+    /**
+     * @return false if the file is not a readable index
+     */
+    private boolean replay() throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (in.remaining() < 6 || in.getInt() != MAGIC) {
+            return false;
+        }
+        logVersion = in.getShort();
+        if (logVersion > VERSION) {
+            return false;
+        }
+        
+        entries.clear();
+        stamps.clear();
+        logRecords = 0;
+        long validEnd = in.position();
+        try {
+            while (in.hasRemaining()) {
+                byte type = in.get();
+                String filename = readString(in);
+                if (type == RECORD_PUT) {
+                    String player = readString(in);
+                    int difficulty = in.get();
+                    SaveMetadata metadata = new SaveMetadata(filename, player,
+                        difficulty >= 0 ? Difficulty.values()[difficulty] : null,
+                        in.getLong(), in.getLong(), in.get() != 0, in.getInt(), in.get());
+                    // Version 1 logs have no stamps; 0 never matches a known one
+                    long stamp = logVersion >= 2 ? in.getLong() : 0;
+                    entries.put(filename, metadata);
+                    stamps.put(filename, stamp);
+                } else {
+                    entries.remove(filename);
+                    stamps.remove(filename);
+                }
+                logRecords++;
+                validEnd = in.position();
+            }
+        } catch (RuntimeException e) {
+            // Torn final record from an interrupted append
+        }
+        
+        if (validEnd < in.capacity()) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(validEnd);
+            }
+        }
+        return true;
+    }
+    
+    private static ByteBuffer encode(ByteBuffer buffer, byte type, String filename, SaveMetadata metadata, long stamp) {
+        byte[] name = filename.getBytes(StandardCharsets.UTF_8);
+        byte[] player = metadata != null ? metadata.getPlayerName().getBytes(StandardCharsets.UTF_8) : new byte[0];
+        int size = 1 + 2 + name.length + 2 + player.length + 1 + 8 + 8 + 1 + 4 + 1 + 8;
+        if (buffer.capacity() < size) {
+            buffer = ByteBuffer.allocate(size * 2);
+        }
+        buffer.clear();
+        buffer.put(type).putShort((short) name.length).put(name);
+        if (metadata != null) {
+            buffer.putShort((short) player.length).put(player)
+                .put((byte) (metadata.getDifficulty() != null ? metadata.getDifficulty().ordinal() : -1))
+                .putLong(metadata.getStartTime())
+                .putLong(metadata.getSaveTime())
+                .put((byte) (metadata.isGameCompleted() ? 1 : 0))
+                .putInt(metadata.getHintsUsed())
+                .put((byte) metadata.getFilledCells())
+                .putLong(stamp);
+        }
+        return buffer.flip();
+    }
+    
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getShort() & 0xFFFF];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        if (log != null) {
+            log.close();
+            log = null;
+        }
+    }
+}
\ No newline at end of file
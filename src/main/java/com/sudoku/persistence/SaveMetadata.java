@@ -0,0 +1,73 @@
+package com.sudoku.persistence;
+
+import com.sudoku.model.Difficulty;
+import com.sudoku.model.SudokuBoard;
+import java.util.Comparator;
+
+/**
+ * Summary of a save, kept in the {@link SaveIndex} so saves can be listed,
+ * sorted and filtered without opening them.
+ */
+public class SaveMetadata {
+    public static final Comparator<SaveMetadata> NEWEST_FIRST =
+        Comparator.comparingLong(SaveMetadata::getSaveTime).reversed();
+    public static final Comparator<SaveMetadata> BY_PLAYER =
+        Comparator.comparing(SaveMetadata::getPlayerName, String.CASE_INSENSITIVE_ORDER);
+    public static final Comparator<SaveMetadata> MOST_PROGRESS_FIRST =
+        Comparator.comparingInt(SaveMetadata::getFilledCells).reversed();
+    
+    private final String filename;
+    private final String playerName;
+    private final Difficulty difficulty;
+    private final long startTime;
+    private final long saveTime;
+    private final boolean gameCompleted;
+    private final int hintsUsed;
+    private final int filledCells;
+    
+    public SaveMetadata(String filename, String playerName, Difficulty difficulty, long startTime,
+                        long saveTime, boolean gameCompleted, int hintsUsed, int filledCells) {
+        this.filename = filename;
+        this.playerName = playerName != null ? playerName : "Unknown";
+        this.difficulty = difficulty;
+        this.startTime = startTime;
+        this.saveTime = saveTime;
+        this.gameCompleted = gameCompleted;
+        this.hintsUsed = hintsUsed;
+        this.filledCells = filledCells;
+    }
+    
+    public static SaveMetadata of(String filename, GameState gameState) {
+        int filled = 0;
+        if (gameState.getCurrentBoard() != null) {
+            for (int[] row : gameState.getCurrentBoard()) {
+                for (int value : row) {
+                    if (value != 0) filled++;
+                }
+            }
+        }
+        return new SaveMetadata(filename, gameState.getPlayerName(), gameState.getDifficulty(),
+            gameState.getStartTime(), gameState.getSaveTime(), gameState.isGameCompleted(),
+            gameState.getHintsUsed(), filled);
+    }
+    
+    public String getFilename() { return filename; }
+    public String getPlayerName() { return playerName; }
+    public Difficulty getDifficulty() { return difficulty; }
+    public long getStartTime() { return startTime; }
+    public long getSaveTime() { return saveTime; }
+    public boolean isGameCompleted() { return gameCompleted; }
+    public int getHintsUsed() { return hintsUsed; }
+    public int getFilledCells() { return filledCells; }
+    
+    public double getFillRatio() {
+        return (double) filledCells / SudokuBoard.CELL_COUNT;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%s - %s, %s, %d%% filled%s", filename, playerName,
+            difficulty != null ? difficulty : "CUSTOM", Math.round(getFillRatio() * 100),
+            gameCompleted ? ", completed" : "");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,66 @@
+package com.sudoku.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Storage backend for encoded saves, addressed by file name.
+ */
+public interface SaveStore extends AutoCloseable {
+    /**
+     * Stores the remaining bytes of the buffer under the given name,
+     * replacing any previous save with that name.
+     */
+    void write(String name, ByteBuffer data) throws IOException;
+    
+    /**
+     * Returns the stored bytes, or null if there is no such save. The buffer
+     * may be reused or unmapped by later calls and must be consumed first.
+     */
+    ByteBuffer read(String name) throws IOException;
+    
+    /**
+     * Asynchronous {@link #write}. Stores whose writes do not touch the
+     * disk synchronously may keep this default, which writes in place.
+     */
+    default CompletableFuture<Void> writeAsync(String name, ByteBuffer data) {
+        try {
+            write(name, data);
+            return CompletableFuture.completedFuture(null);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    /**
+     * Asynchronous {@link #read}. Unlike read, the buffer belongs to the
+     * caller.
+     */
+    default CompletableFuture<ByteBuffer> readAsync(String name) {
+        try {
+            ByteBuffer data = read(name);
+            return CompletableFuture.completedFuture(
+                data != null ? ByteBuffer.allocate(data.remaining()).put(data).flip() : null);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    /**
+     * A cheap value that changes whenever the save is rewritten, such as its
+     * size and modification time, or 0 if there is no such save or the store
+     * cannot tell. Lets an index notice saves changed while it was closed.
+     */
+    default long stamp(String name) throws IOException {
+        return 0;
+    }
+    
+    List<String> list() throws IOException;
+    
+    boolean delete(String name) throws IOException;
+    
+    @Override
+    void close() throws IOException;
+}
\ No newline at end of file
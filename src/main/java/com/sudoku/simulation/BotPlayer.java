@@ -0,0 +1,75 @@
+package com.sudoku.simulation;
+
+import com.sudoku.manager.GameManager;
+import com.sudoku.model.SudokuBoard;
+import java.util.SplittableRandom;
+
+/**
+ * Synthetic player that fills the board cell by cell. With configurable
+ * probabilities it asks for a hint or enters a wrong (but non-conflicting)
+ * value that it later corrects. Think time between moves is simulated, not
+ * slept, so games run at full speed.
+ */
+public class BotPlayer {
+    private final double hintRate;
+    private final double mistakeRate;
+    private final int meanThinkMillis;
+    private final int maxMovesPerGame;
+    
+    public BotPlayer(double hintRate, double mistakeRate, int meanThinkMillis) {
+        this.hintRate = hintRate;
+        this.mistakeRate = mistakeRate;
+        this.meanThinkMillis = meanThinkMillis;
+        this.maxMovesPerGame = SudokuBoard.CELL_COUNT * 4;
+    }
+    
+    /**
+     * Plays the current game of the manager to completion.
+     * @return the simulated play time in milliseconds
+     */
+    public long play(GameManager manager, SplittableRandom random, int[] emptyCells) {
+        SudokuBoard board = manager.getCurrentBoard();
+        int emptyCount = 0;
+        for (int i = 0; i < SudokuBoard.CELL_COUNT; i++) {
+            if (board.isEmpty(i / SudokuBoard.SIZE, i % SudokuBoard.SIZE)) {
+                emptyCells[emptyCount++] = i;
+            }
+        }
+        
+        long timeMillis = 0;
+        int actions = 0;
+        while (emptyCount > 0 && !manager.isGameCompleted() && actions++ < maxMovesPerGame) {
+            timeMillis += 1 + random.nextInt(2 * meanThinkMillis + 1);
+            
+            int slot = random.nextInt(emptyCount);
+            int cell = emptyCells[slot];
+            int row = cell / SudokuBoard.SIZE;
+            int col = cell % SudokuBoard.SIZE;
+            int correct = manager.getSolutionValue(row, col);
+            
+            if (random.nextDouble() < hintRate) {
+                manager.revealCell(row, col);
+            } else if (random.nextDouble() < mistakeRate && placeWrongValue(manager, row, col, correct, random)) {
+                continue; // The cell stays open and gets corrected later
+            } else {
+                manager.makeMove(row, col, correct);
+            }
+            
+            if (board.getValue(row, col) == correct) {
+                emptyCells[slot] = emptyCells[--emptyCount];
+            }
+        }
+        return timeMillis;
+    }
+    
+    private boolean placeWrongValue(GameManager manager, int row, int col, int correct, SplittableRandom random) {
+        int start = random.nextInt(9);
+        for (int i = 0; i < 9; i++) {
+            int value = (start + i) % 9 + 1;
+            if (value != correct && manager.makeMove(row, col, value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.sudoku.simulation;
+
+import com.sudoku.manager.MoveLog;
+import com.sudoku.model.Difficulty;
+import com.sudoku.model.SudokuBoard;
+
+/**
+ * A puzzle together with a recorded stream of moves in {@link MoveLog}
+ * packed form, ready to be replayed by the {@link SimulationEngine}.
+ */
+public class RecordedGame {
+    private final SudokuBoard puzzle;
+    private final int[][] solution;
+    private final Difficulty difficulty;
+    private final int[] moves;
+    
+    public RecordedGame(SudokuBoard puzzle, int[][] solution, Difficulty difficulty, int[] moves) {
+        this.puzzle = puzzle;
+        this.solution = solution;
+        this.difficulty = difficulty;
+        this.moves = moves;
+    }
+    
+    public SudokuBoard getPuzzle() { return puzzle; }
+    public int[][] getSolution() { return solution; }
+    public Difficulty getDifficulty() { return difficulty; }
+    public int[] getMoves() { return moves; }
+}
\ No newline at end of file
@@ -0,0 +1,140 @@
+package com.sudoku.simulation;
+
+import com.sudoku.generator.SudokuGenerator;
+import com.sudoku.manager.GameManager;
+import com.sudoku.manager.MoveLog;
+import com.sudoku.model.Difficulty;
+import com.sudoku.model.SudokuBoard;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Headless engine that drives {@link GameManager} at full speed, either by
+ * replaying recorded move streams or by letting {@link BotPlayer}s play.
+ *
+ * Work is spread over a fixed number of threads. Each worker reuses one
+ * headless GameManager and one {@link SimulationStats}, so moves fire no
+ * board or flight recorder events and allocate nothing once the move log
+ * has grown; per game the working copy of the puzzle and a few
+ * start-of-game objects are created.
+ */
+public class SimulationEngine {
+    private final int threads;
+    
+    public SimulationEngine(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+    
+    /**
+     * Replays every recorded game once. Play time is the sum of the recorded
+     * move deltas.
+     */
+    public SimulationStats replay(List<RecordedGame> games) {
+        AtomicLong next = new AtomicLong();
+        return runWorkers(worker -> {
+            GameManager manager = newManager();
+            SimulationStats stats = new SimulationStats();
+            long index;
+            while ((index = next.getAndIncrement()) < games.size()) {
+                RecordedGame game = games.get((int) index);
+                manager.startGame(game.getPuzzle().copy(), game.getSolution(), game.getDifficulty());
+                
+                long timeMillis = 0;
+                for (int move : game.getMoves()) {
+                    manager.makeMove(MoveLog.getRow(move), MoveLog.getCol(move), MoveLog.getNewValue(move));
+                    timeMillis += MoveLog.getDeltaCentis(move) * 10L;
+                }
+                stats.recordGame(timeMillis, manager.getMoveCount(), manager.getHintsUsed(),
+                    manager.getMistakes(), manager.isGameCompleted());
+            }
+            return stats;
+        });
+    }
+    
+    /**
+     * Lets the bot play the given number of games, cycling through the
+     * puzzle corpus. Each worker gets its own deterministic random stream.
+     */
+    public SimulationStats simulate(List<SudokuGenerator.GeneratedPuzzle> puzzles, Difficulty difficulty,
+                                    BotPlayer bot, long gameCount, long seed) {
+        AtomicLong next = new AtomicLong();
+        return runWorkers(worker -> {
+            GameManager manager = newManager();
+            SimulationStats stats = new SimulationStats();
+            SplittableRandom random = new SplittableRandom(seed + worker);
+            int[] emptyCells = new int[SudokuBoard.CELL_COUNT];
+            long index;
+            while ((index = next.getAndIncrement()) < gameCount) {
+                SudokuGenerator.GeneratedPuzzle puzzle = puzzles.get((int) (index % puzzles.size()));
+                manager.startGame(puzzle.getPuzzle().copy(), puzzle.getSolution(), difficulty);
+                long timeMillis = bot.play(manager, random, emptyCells);
+                stats.recordGame(timeMillis, manager.getMoveCount(), manager.getHintsUsed(),
+                    manager.getMistakes(), manager.isGameCompleted());
+            }
+            return stats;
+        });
+    }
+    
+    private static GameManager newManager() {
+        GameManager manager = new GameManager();
+        manager.setHeadless(true);
+        return manager;
+    }
+    
+    private interface Worker {
+        SimulationStats run(int workerIndex) throws Exception;
+    }
+    
+    private SimulationStats runWorkers(Worker worker) {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<SimulationStats>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                int workerIndex = i;
+                results.add(executor.submit(() -> worker.run(workerIndex)));
+            }
+            
+            SimulationStats total = new SimulationStats();
+            for (Future<SimulationStats> result : results) {
+                total.merge(result.get());
+            }
+            return total;
+        } catch (Exception e) {
+            throw new IllegalStateException("Simulation failed: " + e.getMessage(), e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    /**
+     * Usage: java com.sudoku.simulation.SimulationEngine [games] [threads] [difficulty]
+     */
+    public static void main(String[] args) {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 100_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        Difficulty difficulty = args.length > 2 ? Difficulty.valueOf(args[2].toUpperCase()) : Difficulty.MEDIUM;
+        
+        System.out.println("Generating puzzle corpus...");
+        // Seeded like the simulation itself, so runs are comparable
+        SudokuGenerator generator = new SudokuGenerator(42);
+        List<SudokuGenerator.GeneratedPuzzle> puzzles = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            puzzles.add(generator.generate(difficulty));
+        }
+        
+        System.out.println("Simulating " + games + " games on " + threads + " threads...");
+        long start = System.nanoTime();
+        SimulationStats stats = new SimulationEngine(threads)
+            .simulate(puzzles, difficulty, new BotPlayer(0.02, 0.05, 4000), games, 42);
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        
+        System.out.println(stats);
+        System.out.printf("Elapsed: %.2fs (%.0f games/s, %.0f moves/s)%n",
+            seconds, stats.getGames() / seconds, stats.getTotalMoves() / seconds);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,69 @@
+package com.sudoku.simulation;
+
+/**
+ * Aggregated per-game statistics kept in primitive fields. Each worker
+ * thread owns one instance and the results are merged at the end, so no
+ * synchronization or per-game objects are needed.
+ */
+public class SimulationStats {
+    private long games;
+    private long completedGames;
+    private long totalMoves;
+    private long totalHints;
+    private long totalMistakes;
+    private long totalTimeMillis;
+    private int minMoves = Integer.MAX_VALUE;
+    private int maxMoves;
+    private long minTimeMillis = Long.MAX_VALUE;
+    private long maxTimeMillis;
+    
+    public void recordGame(long timeMillis, int moves, int hints, int mistakes, boolean completed) {
+        games++;
+        if (completed) completedGames++;
+        totalMoves += moves;
+        totalHints += hints;
+        totalMistakes += mistakes;
+        totalTimeMillis += timeMillis;
+        minMoves = Math.min(minMoves, moves);
+        maxMoves = Math.max(maxMoves, moves);
+        minTimeMillis = Math.min(minTimeMillis, timeMillis);
+        maxTimeMillis = Math.max(maxTimeMillis, timeMillis);
+    }
+    
+    public void merge(SimulationStats other) {
+        games += other.games;
+        completedGames += other.completedGames;
+        totalMoves += other.totalMoves;
+        totalHints += other.totalHints;
+        totalMistakes += other.totalMistakes;
+        totalTimeMillis += other.totalTimeMillis;
+        minMoves = Math.min(minMoves, other.minMoves);
+        maxMoves = Math.max(maxMoves, other.maxMoves);
+        minTimeMillis = Math.min(minTimeMillis, other.minTimeMillis);
+        maxTimeMillis = Math.max(maxTimeMillis, other.maxTimeMillis);
+    }
+    
+    public long getGames() { return games; }
+    public long getCompletedGames() { return completedGames; }
+    public long getTotalMoves() { return totalMoves; }
+    public long getTotalHints() { return totalHints; }
+    public long getTotalMistakes() { return totalMistakes; }
+    public long getTotalTimeMillis() { return totalTimeMillis; }
+    public int getMinMoves() { return games == 0 ? 0 : minMoves; }
+    public int getMaxMoves() { return maxMoves; }
+    public long getMinTimeMillis() { return games == 0 ? 0 : minTimeMillis; }
+    public long getMaxTimeMillis() { return maxTimeMillis; }
+    
+    private double average(long total) {
+        return games == 0 ? 0 : (double) total / games;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format(
+            "Games: %d (completed %d) | Moves avg %.1f [%d-%d] | Hints avg %.2f | Mistakes avg %.2f | Time avg %.1fs [%.1f-%.1f]",
+            games, completedGames, average(totalMoves), getMinMoves(), maxMoves,
+            average(totalHints), average(totalMistakes), average(totalTimeMillis) / 1000.0,
+            getMinTimeMillis() / 1000.0, maxTimeMillis / 1000.0);
+    }
+}
\ No newline at end of file
@@ -1,15 +1,56 @@
 package com.sudoku.solver;
 
+import com.sudoku.metrics.MetricsRegistry;
+import com.sudoku.metrics.OperationMetrics;
+import com.sudoku.metrics.SolveEvent;
+import com.sudoku.model.CandidateMasks;
 import com.sudoku.model.SudokuBoard;
 import java.util.*;
 
 public class SudokuSolver {
+    // The solver does not know a board's difficulty; callers that do record their own metrics
+    private static final OperationMetrics SOLVE = MetricsRegistry.global().operation("solver.solve");
+    private static final OperationMetrics COUNT_SOLUTIONS = MetricsRegistry.global().operation("solver.countSolutions");
+    
+    private final Random random;
+    
+    public SudokuSolver() {
+        this(new Random());
+    }
+    
+    /**
+     * Uses the given source for the order in which {@link #solve} tries
+     * digits, e.g. a seeded one for reproducible runs.
+     */
+    public SudokuSolver(Random random) {
+        this.random = random;
+    }
     
     public boolean solve(SudokuBoard board) {
-        return solveBacktrack(board);
+        long start = System.nanoTime();
+        SolveEvent event = new SolveEvent();
+        if (event.isEnabled()) {
+            event.setPuzzle(board); // before the search fills it in
+        }
+        event.begin();
+        NodeCounter nodes = new NodeCounter();
+        boolean solved = solveBacktrack(board, nodes);
+        if (solved) {
+            SOLVE.record(start, null);
+        } else {
+            SOLVE.recordFailure(start, null);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.setOperation("solve");
+            event.setNodes(nodes.count);
+            event.setSolutions(solved ? 1 : 0);
+            event.commit();
+        }
+        return solved;
     }
     
-    private boolean solveBacktrack(SudokuBoard board) {
+    private boolean solveBacktrack(SudokuBoard board, NodeCounter nodes) {
         int[] emptyCell = findEmptyCell(board);
         if (emptyCell == null) {
             return true; // Board is complete
@@ -23,8 +64,9 @@ public class SudokuSolver {
         for (int num : candidates) {
             if (board.isValidMove(row, col, num)) {
                 board.setValue(row, col, num);
+                nodes.count++;
                 
-                if (solveBacktrack(board)) {
+                if (solveBacktrack(board, nodes)) {
                     return true;
                 }
                 
@@ -52,12 +94,50 @@ public class SudokuSolver {
     }
     
     public int countSolutions(SudokuBoard board, int maxSolutions) {
-        return countSolutionsPrivate(board, maxSolutions);
+        return countSolutionsRecorded(board, maxSolutions, null);
+    }
+    
+    /**
+     * Counts solutions like {@link #countSolutions(SudokuBoard, int)} and also
+     * copies the first solution found into {@code firstSolution}, so a unique
+     * puzzle does not need a second solver run to obtain its answer.
+     */
+    public int countSolutions(SudokuBoard board, int maxSolutions, int[][] firstSolution) {
+        for (int[] row : firstSolution) {
+            Arrays.fill(row, 0);
+        }
+        return countSolutionsRecorded(board, maxSolutions, firstSolution);
+    }
+    
+    private int countSolutionsRecorded(SudokuBoard board, int maxSolutions, int[][] firstSolution) {
+        long start = System.nanoTime();
+        SolveEvent event = new SolveEvent();
+        event.begin();
+        NodeCounter nodes = new NodeCounter();
+        int count = countSolutionsPrivate(board, maxSolutions, firstSolution, nodes);
+        COUNT_SOLUTIONS.record(start, null);
+        event.end();
+        if (event.shouldCommit()) {
+            // The search leaves the board as it found it
+            event.setOperation("countSolutions");
+            event.setPuzzle(board);
+            event.setNodes(nodes.count);
+            event.setSolutions(count);
+            event.commit();
+        }
+        return count;
     }
     
-    private int countSolutionsPrivate(SudokuBoard board, int maxSolutions) {
+    private int countSolutionsPrivate(SudokuBoard board, int maxSolutions, int[][] firstSolution, NodeCounter nodes) {
         int[] emptyCell = findEmptyCell(board);
         if (emptyCell == null) {
+            if (firstSolution != null && firstSolution[0][0] == 0) {
+                for (int row = 0; row < SudokuBoard.SIZE; row++) {
+                    for (int col = 0; col < SudokuBoard.SIZE; col++) {
+                        firstSolution[row][col] = board.getValue(row, col);
+                    }
+                }
+            }
             return 1; // Found one solution
         }
         
@@ -68,8 +148,9 @@ public class SudokuSolver {
         for (int num = 1; num <= 9; num++) {
             if (board.isValidMove(row, col, num)) {
                 board.setValue(row, col, num);
+                nodes.count++;
                 
-                solutionCount += countSolutionsPrivate(board, maxSolutions - solutionCount);
+                solutionCount += countSolutionsPrivate(board, maxSolutions - solutionCount, firstSolution, nodes);
                 
                 if (solutionCount >= maxSolutions) {
                     board.setValue(row, col, 0);
@@ -118,7 +199,7 @@ public class SudokuSolver {
     
     private List<Integer> getShuffledCandidates() {
         List<Integer> candidates = Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9);
-        Collections.shuffle(candidates);
+        Collections.shuffle(candidates, random);
         return candidates;
     }
     
@@ -146,4 +227,122 @@ public class SudokuSolver {
         
         return hints;
     }
+    
+    /**
+     * Fills the board in place for as long as a naked single (a cell with
+     * one candidate) or a hidden single (a digit with one place in a row,
+     * column or box) exists, which is how far a player gets without harder
+     * techniques. Stops early at a cell without candidates, i.e. a mistake
+     * on the board, or when the thread is interrupted.
+     * @return the steps taken, in order
+     */
+    public List<Step> solveWithSingles(SudokuBoard board) {
+        CandidateMasks masks = new CandidateMasks();
+        masks.rebuild(board);
+        List<Step> steps = new ArrayList<>();
+        
+        Step step;
+        while (!Thread.currentThread().isInterrupted() && (step = findSingle(board, masks)) != null) {
+            board.setValue(step.row, step.col, step.value);
+            masks.update(step.row * SudokuBoard.SIZE + step.col, step.value);
+            steps.add(step);
+        }
+        return steps;
+    }
+    
+    private Step findSingle(SudokuBoard board, CandidateMasks masks) {
+        for (int cell = 0; cell < SudokuBoard.CELL_COUNT; cell++) {
+            int row = cell / SudokuBoard.SIZE;
+            int col = cell % SudokuBoard.SIZE;
+            if (!board.isEmpty(row, col)) continue;
+            
+            int mask = masks.get(cell);
+            if (mask == 0) return null;
+            if (Integer.bitCount(mask) == 1) {
+                return new Step(row, col, Integer.numberOfTrailingZeros(mask) + 1, null);
+            }
+        }
+        
+        String[] unitNames = {"row", "column", "box"};
+        for (int kind = 0; kind < 3; kind++) {
+            for (int unit = 0; unit < SudokuBoard.SIZE; unit++) {
+                // Digits seen once and more than once among the unit's candidates
+                int once = 0;
+                int twice = 0;
+                for (int i = 0; i < SudokuBoard.SIZE; i++) {
+                    int mask = masks.get(unitCell(kind, unit, i));
+                    twice |= once & mask;
+                    once |= mask;
+                }
+                int single = once & ~twice;
+                if (single == 0) continue;
+                
+                int digit = Integer.numberOfTrailingZeros(single) + 1;
+                for (int i = 0; i < SudokuBoard.SIZE; i++) {
+                    int cell = unitCell(kind, unit, i);
+                    if ((masks.get(cell) & single & -single) != 0) {
+                        return new Step(cell / SudokuBoard.SIZE, cell % SudokuBoard.SIZE, digit, unitNames[kind]);
+                    }
+                }
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * The i-th cell of a row (kind 0), column (1) or box (2).
+     */
+    private static int unitCell(int kind, int unit, int i) {
+        switch (kind) {
+            case 0: return unit * SudokuBoard.SIZE + i;
+            case 1: return i * SudokuBoard.SIZE + unit;
+            default: {
+                int row = (unit / SudokuBoard.BOX_SIZE) * SudokuBoard.BOX_SIZE + i / SudokuBoard.BOX_SIZE;
+                int col = (unit % SudokuBoard.BOX_SIZE) * SudokuBoard.BOX_SIZE + i % SudokuBoard.BOX_SIZE;
+                return row * SudokuBoard.SIZE + col;
+            }
+        }
+    }
+    
+    /**
+     * Search nodes of one call, kept per call so a shared solver stays
+     * usable from several threads.
+     */
+    private static final class NodeCounter {
+        long count;
+    }
+    
+    /**
+     * One logical step: a value that is forced in a cell.
+     */
+    public static class Step {
+        private final int row;
+        private final int col;
+        private final int value;
+        private final String unit;
+        
+        Step(int row, int col, int value, String unit) {
+            this.row = row;
+            this.col = col;
+            this.value = value;
+            this.unit = unit;
+        }
+        
+        public int getRow() { return row; }
+        public int getCol() { return col; }
+        public int getValue() { return value; }
+        
+        /**
+         * The row, column or box that leaves one place for the value, or
+         * null if the cell leaves only one value.
+         */
+        public String getUnit() { return unit; }
+        
+        @Override
+        public String toString() {
+            return unit == null
+                ? String.format("Cell (%d,%d) can only be %d", row + 1, col + 1, value)
+                : String.format("%d can only go in cell (%d,%d) in its %s", value, row + 1, col + 1, unit);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,304 @@
+package com.sudoku.ui;
+
+import com.sudoku.manager.GameManager;
+import com.sudoku.model.SudokuBoard;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Draws the console game screen: status line, board and game menu.
+ *
+ * In ANSI mode the screen is drawn once with the menu, and the lines below
+ * it become a scrolling region for prompts and messages. Later frames only
+ * move the cursor to the cells and status text that differ from the
+ * previous frame and rewrite those. In plain mode, used when stdout is not
+ * a terminal, every frame is printed in full. Either way a frame goes out
+ * as a single write.
+ *
+ * The mode can be forced with -Dsudoku.console=ansi or =plain.
+ */
+public class ConsoleRenderer {
+    private static final String ESC = "\u001b[";
+    private static final String BOLD = ESC + "1m";
+    private static final String PLAYER_COLOR = ESC + "36m";
+    private static final String RESET = ESC + "0m";
+    
+    // Screen layout of the game frame (1-based rows and columns)
+    private static final int STATUS_ROW = 1;
+    private static final int FIRST_BOARD_ROW = 5;
+    private static final int FIRST_CELL_COLUMN = 5;
+    private static final int BOARD_BOTTOM_ROW = 16;
+    
+    private final PrintStream out;
+    private final Charset charset;
+    private final boolean ansi;
+    
+    // What the terminal currently shows; empty when no frame is on screen
+    private final int[] shownValues = new int[SudokuBoard.CELL_COUNT];
+    private final boolean[] shownFixed = new boolean[SudokuBoard.CELL_COUNT];
+    private String shownStatus;
+    private List<String> shownMenu;
+    
+    public ConsoleRenderer(PrintStream out, Charset charset, boolean ansi) {
+        this.out = out;
+        this.charset = charset;
+        this.ansi = ansi;
+        forgetFrame();
+    }
+    
+    /**
+     * Renderer for System.out, using ANSI sequences when it is a terminal.
+     */
+    public static ConsoleRenderer forStdout() {
+        String mode = System.getProperty("sudoku.console", "");
+        boolean ansi;
+        if (mode.equalsIgnoreCase("ansi")) {
+            ansi = true;
+        } else if (mode.equalsIgnoreCase("plain")) {
+            ansi = false;
+        } else {
+            String term = System.getenv("TERM");
+            ansi = System.console() != null && term != null && !term.equals("dumb");
+        }
+        return new ConsoleRenderer(System.out, stdoutCharset(), ansi);
+    }
+    
+    private static Charset stdoutCharset() {
+        for (String property : new String[] {"stdout.encoding", "sun.stdout.encoding"}) {
+            String name = System.getProperty(property);
+            if (name != null && Charset.isSupported(name)) {
+                return Charset.forName(name);
+            }
+        }
+        return Charset.defaultCharset();
+    }
+    
+    public boolean isAnsi() {
+        return ansi;
+    }
+    
+    /**
+     * Draws the game screen, or in ANSI mode updates the one on screen.
+     * Leaves the cursor where the next prompt should be printed.
+     */
+    public synchronized void drawGame(SudokuBoard board, GameManager.GameStats stats, List<String> menu) {
+        String status = statusLine(stats);
+        StringBuilder frame = new StringBuilder(1024);
+        
+        if (!ansi) {
+            frame.append('\n').append(status).append("\n\n");
+            appendBoard(frame, board);
+            frame.append('\n');
+            for (String line : menu) {
+                frame.append(line).append('\n');
+            }
+        } else if (shownStatus == null || !menu.equals(shownMenu)) {
+            appendFullFrame(frame, board, status, menu);
+        } else {
+            // Save the cursor, patch what changed, and return to the prompt
+            frame.append("\u001b7");
+            if (!status.equals(shownStatus)) {
+                moveTo(frame, STATUS_ROW, 1).append(status).append(ESC).append('K');
+                shownStatus = status;
+            }
+            for (int i = 0; i < SudokuBoard.CELL_COUNT; i++) {
+                int row = i / SudokuBoard.SIZE;
+                int col = i % SudokuBoard.SIZE;
+                int value = board.getValue(row, col);
+                boolean fixed = board.getCell(row, col).isFixed();
+                if (value != shownValues[i] || fixed != shownFixed[i]) {
+                    moveTo(frame, cellRow(row), cellColumn(col));
+                    appendCell(frame, value, fixed);
+                    shownValues[i] = value;
+                    shownFixed[i] = fixed;
+                }
+            }
+            frame.append("\u001b8");
+        }
+        write(frame);
+    }
+    
+    /**
+     * Releases the screen after a game: the scrolling region is reset and
+     * the next frame will be drawn in full.
+     */
+    public synchronized void leaveGame() {
+        if (ansi && shownStatus != null) {
+            write(new StringBuilder(ESC + "r" + ESC + "999;1H\n"));
+        }
+        forgetFrame();
+    }
+    
+    /**
+     * Prints a board as plain scrolling text, e.g. outside a game.
+     */
+    public synchronized void printBoard(SudokuBoard board) {
+        StringBuilder text = new StringBuilder(512);
+        appendBoard(text, board);
+        write(text);
+    }
+    
+    /**
+     * Prints the empty cells' pencil marks and, if {@code autoCandidates}
+     * is set, their candidates, each cell as a 3x3 block of digits. In ANSI
+     * mode the player's marks are colored like player digits.
+     */
+    public synchronized void printCandidates(GameManager game, boolean autoCandidates) {
+        SudokuBoard board = game.getCurrentBoard();
+        StringBuilder text = new StringBuilder(4096);
+        text.append('\n');
+        for (int col = 0; col < SudokuBoard.SIZE; col++) {
+            text.append(col % SudokuBoard.BOX_SIZE == 0 ? "     " : "    ").append(col + 1);
+        }
+        text.append('\n');
+        // A cell is its three digits with a space on either side
+        String boxLine = "─".repeat(15);
+        String boxGap = " ".repeat(15);
+        text.append("  ┌").append(boxLine).append('┬').append(boxLine).append('┬').append(boxLine).append("┐\n");
+        for (int row = 0; row < SudokuBoard.SIZE; row++) {
+            if (row == 3 || row == 6) {
+                text.append("  ├").append(boxLine).append('┼').append(boxLine).append('┼').append(boxLine).append("┤\n");
+            } else if (row > 0) {
+                text.append("  │").append(boxGap).append('│').append(boxGap).append('│').append(boxGap).append("│\n");
+            }
+            for (int band = 0; band < SudokuBoard.BOX_SIZE; band++) {
+                text.append(band == 1 ? String.valueOf(row + 1) : " ").append(" │");
+                for (int col = 0; col < SudokuBoard.SIZE; col++) {
+                    text.append(' ');
+                    appendCandidateBand(text, board, game, row, col, band, autoCandidates);
+                    text.append(' ');
+                    if (col % SudokuBoard.BOX_SIZE == SudokuBoard.BOX_SIZE - 1) {
+                        text.append('│');
+                    }
+                }
+                text.append('\n');
+            }
+        }
+        text.append("  └").append(boxLine).append('┴').append(boxLine).append('┴').append(boxLine).append("┘\n");
+        write(text);
+    }
+    
+    /**
+     * Digits of a 9-bit mask, e.g. "{1,4,7}".
+     */
+    public static String digits(int mask) {
+        StringBuilder text = new StringBuilder("{");
+        for (int digit = 1; digit <= SudokuBoard.SIZE; digit++) {
+            if ((mask & (1 << (digit - 1))) != 0) {
+                if (text.length() > 1) text.append(',');
+                text.append(digit);
+            }
+        }
+        return text.append('}').toString();
+    }
+    
+    private void appendCandidateBand(StringBuilder text, SudokuBoard board, GameManager game,
+                                     int row, int col, int band, boolean autoCandidates) {
+        int value = board.getValue(row, col);
+        if (value != 0) {
+            text.append(' ');
+            if (band == 1) {
+                appendCell(text, value, board.getCell(row, col).isFixed());
+            } else {
+                text.append(' ');
+            }
+            text.append(' ');
+            return;
+        }
+        int pencil = game.getPencilMarks(row, col);
+        int candidates = autoCandidates ? game.getCandidates(row, col) : 0;
+        for (int digit = band * 3 + 1; digit <= band * 3 + 3; digit++) {
+            int bit = 1 << (digit - 1);
+            if ((pencil & bit) != 0) {
+                text.append(ansi ? PLAYER_COLOR + digit + RESET : String.valueOf(digit));
+            } else if ((candidates & bit) != 0) {
+                text.append(digit);
+            } else {
+                text.append('·');
+            }
+        }
+    }
+    
+    private void appendFullFrame(StringBuilder frame, SudokuBoard board, String status, List<String> menu) {
+        // Clear the screen and draw from the top-left corner
+        frame.append(ESC).append("r").append(ESC).append("2J").append(ESC).append('H');
+        frame.append(status).append("\n\n");
+        appendBoard(frame, board);
+        frame.append('\n');
+        for (String line : menu) {
+            frame.append(line).append('\n');
+        }
+        
+        // Everything below the frame scrolls on its own
+        int firstFreeRow = BOARD_BOTTOM_ROW + 2 + menu.size();
+        frame.append(ESC).append(firstFreeRow).append(";r");
+        moveTo(frame, firstFreeRow, 1);
+        
+        for (int i = 0; i < SudokuBoard.CELL_COUNT; i++) {
+            shownValues[i] = board.getValue(i / SudokuBoard.SIZE, i % SudokuBoard.SIZE);
+            shownFixed[i] = board.getCell(i / SudokuBoard.SIZE, i % SudokuBoard.SIZE).isFixed();
+        }
+        shownStatus = status;
+        shownMenu = List.copyOf(menu);
+    }
+    
+    private void appendBoard(StringBuilder text, SudokuBoard board) {
+        text.append("    1 2 3   4 5 6   7 8 9\n");
+        text.append("  ┌───────┬───────┬───────┐\n");
+        for (int row = 0; row < SudokuBoard.SIZE; row++) {
+            if (row == 3 || row == 6) {
+                text.append("  ├───────┼───────┼───────┤\n");
+            }
+            text.append(row + 1).append(" │ ");
+            for (int col = 0; col < SudokuBoard.SIZE; col++) {
+                if (col == 3 || col == 6) {
+                    text.append("│ ");
+                }
+                appendCell(text, board.getValue(row, col), board.getCell(row, col).isFixed());
+                text.append(' ');
+            }
+            text.append("│\n");
+        }
+        text.append("  └───────┴───────┴───────┘\n");
+    }
+    
+    private void appendCell(StringBuilder text, int value, boolean fixed) {
+        if (value == 0) {
+            text.append('.');
+        } else if (!ansi) {
+            text.append(value);
+        } else {
+            text.append(fixed ? BOLD : PLAYER_COLOR).append(value).append(RESET);
+        }
+    }
+    
+    private static String statusLine(GameManager.GameStats stats) {
+        return stats.getTimeElapsed() + " | Moves: " + stats.getMoveCount() + " | Hints: " + stats.getHintsUsed();
+    }
+    
+    private static int cellRow(int row) {
+        return FIRST_BOARD_ROW + row + row / SudokuBoard.BOX_SIZE;
+    }
+    
+    private static int cellColumn(int col) {
+        return FIRST_CELL_COLUMN + col * 2 + (col / SudokuBoard.BOX_SIZE) * 2;
+    }
+    
+    private static StringBuilder moveTo(StringBuilder frame, int row, int column) {
+        return frame.append(ESC).append(row).append(';').append(column).append('H');
+    }
+    
+    private void forgetFrame() {
+        Arrays.fill(shownValues, -1);
+        shownStatus = null;
+        shownMenu = null;
+    }
+    
+    private void write(StringBuilder text) {
+        byte[] bytes = text.toString().getBytes(charset);
+        out.write(bytes, 0, bytes.length);
+        out.flush();
+    }
+}
\ No newline at end of file
@@ -1,33 +1,112 @@
 package com.sudoku.ui;
 
 import com.sudoku.manager.GameManager;
+import com.sudoku.manager.HintPrecomputer;
+import com.sudoku.model.CandidateMasks;
 import com.sudoku.model.Difficulty;
 import com.sudoku.model.SudokuBoard;
+import com.sudoku.persistence.AutoSaveService;
+import com.sudoku.persistence.GameState;
+import com.sudoku.persistence.SaveMetadata;
 import java.util.Scanner;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class ConsoleUI {
+    private static final long SAVE_TIMEOUT_SECONDS = 10;
+    
+    private static final List<String> GAME_MENU = List.of(
+        "=== GAME MENU ===",
+        "1. Make Move (row col value)",
+        "2. Clear Cell (row col)",
+        "3. Get Hint",
+        "4. Undo Move",
+        "5. Solve Puzzle",
+        "6. Reset to Original",
+        "7. Validate Current State",
+        "8. Save Game",
+        "9. Load Game",
+        "10. Back to Main Menu",
+        "11. Redo Move",
+        "12. Show Candidates",
+        "13. Pencil Mark (row col digit)",
+        "14. Toggle Auto Candidates");
+    
     private final GameManager gameManager;
+    private final ConsoleRenderer renderer;
     private final Scanner scanner;
+    private final AutoSaveService autoSave;
+    private final HintPrecomputer hintPrecomputer;
+    // Held by the console thread except while it waits for input, so the
+    // autosave writer only snapshots the game between commands
+    private final ReentrantLock gameLock = new ReentrantLock();
+    // Background saves still being written; exiting waits for them
+    private final Set<CompletableFuture<Boolean>> pendingSaves = ConcurrentHashMap.newKeySet();
     private boolean running;
+    private boolean autoCandidates;
     
     public ConsoleUI() {
         this.gameManager = new GameManager();
         this.scanner = new Scanner(System.in);
+        this.renderer = ConsoleRenderer.forStdout();
+        this.autoSave = new AutoSaveService(gameManager.getPersistence());
+        gameManager.enableAutoSave(autoSave, "autosave", System.getProperty("user.name", "Player"), gameLock);
+        // Works on the next hint while the player reads the board
+        this.hintPrecomputer = new HintPrecomputer();
+        gameManager.setHintPrecomputer(hintPrecomputer);
         this.running = true;
     }
     
     public void start() {
         printWelcome();
         
-        while (running) {
-            printMainMenu();
-            handleMainMenuChoice();
+        gameLock.lock();
+        try {
+            while (running) {
+                printMainMenu();
+                handleMainMenuChoice();
+            }
+        } finally {
+            gameLock.unlock();
         }
         
+        awaitPendingSaves();
+        autoSave.close();
+        hintPrecomputer.close();
         scanner.close();
     }
     
+    private void awaitPendingSaves() {
+        if (pendingSaves.isEmpty()) return;
+        
+        System.out.println("Waiting for saves to finish...");
+        try {
+            CompletableFuture.allOf(pendingSaves.toArray(new CompletableFuture<?>[0]))
+                .get(SAVE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            System.err.println("Saves did not finish within " + SAVE_TIMEOUT_SECONDS + " seconds.");
+        } catch (ExecutionException e) {
+            // Already reported by the save itself
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private String readLine() {
+        gameLock.unlock();
+        try {
+            return scanner.nextLine();
+        } finally {
+            gameLock.lock();
+        }
+    }
+    
     private void printWelcome() {
         System.out.println("╔══════════════════════════════════════╗");
         System.out.println("║           SUDOKU GAME                ║");
@@ -48,7 +127,7 @@ public class ConsoleUI {
     
     private void handleMainMenuChoice() {
         try {
-            int choice = Integer.parseInt(scanner.nextLine().trim());
+            int choice = Integer.parseInt(readLine().trim());
             
             switch (choice) {
                 case 1:
@@ -88,7 +167,7 @@ public class ConsoleUI {
         System.out.print("Choose difficulty (1-4): ");
         
         try {
-            int choice = Integer.parseInt(scanner.nextLine().trim());
+            int choice = Integer.parseInt(readLine().trim());
             Difficulty difficulty;
             
             switch (choice) {
@@ -115,75 +194,25 @@ public class ConsoleUI {
     
     private void playGame() {
         while (!gameManager.isGameCompleted() && running) {
-            printBoard();
-            printGameMenu();
+            renderer.drawGame(gameManager.getCurrentBoard(), gameManager.getGameStats(), GAME_MENU);
+            System.out.print("\nChoose an option: ");
             handleGameMenuChoice();
         }
         
         if (gameManager.isGameCompleted()) {
-            printBoard();
+            renderer.drawGame(gameManager.getCurrentBoard(), gameManager.getGameStats(), GAME_MENU);
+        }
+        renderer.leaveGame();
+        if (gameManager.isGameCompleted()) {
             System.out.println("\n🎉 CONGRATULATIONS! 🎉");
             System.out.println("You completed the puzzle!");
             showGameStats();
         }
     }
     
-    private void printBoard() {
-        System.out.println("\n" + gameManager.getFormattedTime() + " | Moves: " + 
-                          gameManager.getMoveCount() + " | Hints: " + gameManager.getHintsUsed());
-        System.out.println();
-        
-        SudokuBoard board = gameManager.getCurrentBoard();
-        System.out.println("    1 2 3   4 5 6   7 8 9");
-        System.out.println("  ┌───────┬───────┬───────┐");
-        
-        for (int row = 0; row < 9; row++) {
-            if (row == 3 || row == 6) {
-                System.out.println("  ├───────┼───────┼───────┤");
-            }
-            
-            System.out.print((row + 1) + " │ ");
-            
-            for (int col = 0; col < 9; col++) {
-                if (col == 3 || col == 6) {
-                    System.out.print("│ ");
-                }
-                
-                int value = board.getValue(row, col);
-                if (value == 0) {
-                    System.out.print(". ");
-                } else {
-                    // Highlight fixed cells differently
-                    if (board.getCell(row, col).isFixed()) {
-                        System.out.print(value + " ");
-                    } else {
-                        System.out.print(value + " ");
-                    }
-                }
-            }
-            System.out.println("│");
-        }
-        System.out.println("  └───────┴───────┴───────┘");
-    }
-    
-    private void printGameMenu() {
-        System.out.println("\n=== GAME MENU ===");
-        System.out.println("1. Make Move (row col value)");
-        System.out.println("2. Clear Cell (row col)");
-        System.out.println("3. Get Hint");
-        System.out.println("4. Undo Move");
-        System.out.println("5. Solve Puzzle");
-        System.out.println("6. Reset to Original");
-        System.out.println("7. Validate Current State");
-        System.out.println("8. Save Game");
-        System.out.println("9. Load Game");
-        System.out.println("10. Back to Main Menu");
-        System.out.print("Choose an option: ");
-    }
-    
     private void handleGameMenuChoice() {
         try {
-            String input = scanner.nextLine().trim();
+            String input = readLine().trim();
             String[] parts = input.split("\\s+");
             int choice = Integer.parseInt(parts[0]);
             
@@ -219,6 +248,19 @@ public class ConsoleUI {
                     break;
                 case 10:
                     return;
+                case 11:
+                    handleRedoMove();
+                    break;
+                case 12:
+                    renderer.printCandidates(gameManager, autoCandidates);
+                    break;
+                case 13:
+                    handlePencilMark(parts);
+                    break;
+                case 14:
+                    autoCandidates = !autoCandidates;
+                    System.out.println("Auto candidates " + (autoCandidates ? "on." : "off."));
+                    break;
                 default:
                     System.out.println("Invalid choice. Please try again.");
             }
@@ -239,8 +281,10 @@ public class ConsoleUI {
             int col = Integer.parseInt(parts[2]) - 1;
             int value = Integer.parseInt(parts[3]);
             
+            int[] before = peerCandidates(row, col);
             if (gameManager.makeMove(row, col, value)) {
                 System.out.println("Move successful!");
+                printCandidateChanges(row, col, before);
             } else {
                 System.out.println("Invalid move. Check the position and value.");
             }
@@ -259,8 +303,10 @@ public class ConsoleUI {
             int row = Integer.parseInt(parts[1]) - 1;
             int col = Integer.parseInt(parts[2]) - 1;
             
+            int[] before = peerCandidates(row, col);
             if (gameManager.makeMove(row, col, 0)) {
                 System.out.println("Cell cleared!");
+                printCandidateChanges(row, col, before);
             } else {
                 System.out.println("Cannot clear this cell.");
             }
@@ -269,6 +315,62 @@ public class ConsoleUI {
         }
     }
     
+    private void handlePencilMark(String[] parts) {
+        if (parts.length != 4) {
+            System.out.println("Usage: 13 <row> <col> <digit>");
+            return;
+        }
+        
+        try {
+            int row = Integer.parseInt(parts[1]) - 1;
+            int col = Integer.parseInt(parts[2]) - 1;
+            int digit = Integer.parseInt(parts[3]);
+            
+            if (gameManager.togglePencilMark(row, col, digit)) {
+                System.out.println("Pencil marks: " + ConsoleRenderer.digits(gameManager.getPencilMarks(row, col)));
+            } else {
+                System.out.println("Pencil marks can only be set in empty cells.");
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid numbers. Please use format: 13 <row> <col> <digit>");
+        }
+    }
+    
+    /**
+     * Candidates of a cell and its peers before a move, or null when they
+     * are not shown. Only these can change with the move.
+     */
+    private int[] peerCandidates(int row, int col) {
+        if (!autoCandidates || !gameManager.getCurrentBoard().isValidPosition(row, col)) return null;
+        
+        int cell = row * SudokuBoard.SIZE + col;
+        int[] peers = CandidateMasks.peersOf(cell);
+        int[] masks = new int[peers.length + 1];
+        masks[0] = gameManager.getCandidates(row, col);
+        for (int i = 0; i < peers.length; i++) {
+            masks[i + 1] = gameManager.getCandidates(peers[i] / SudokuBoard.SIZE, peers[i] % SudokuBoard.SIZE);
+        }
+        return masks;
+    }
+    
+    private void printCandidateChanges(int row, int col, int[] before) {
+        if (before == null) return;
+        
+        int[] peers = CandidateMasks.peersOf(row * SudokuBoard.SIZE + col);
+        StringBuilder changes = new StringBuilder();
+        for (int i = -1; i < peers.length; i++) {
+            int cell = i < 0 ? row * SudokuBoard.SIZE + col : peers[i];
+            int mask = gameManager.getCandidates(cell / SudokuBoard.SIZE, cell % SudokuBoard.SIZE);
+            if (mask != before[i + 1] && gameManager.getCurrentBoard().isEmpty(cell / SudokuBoard.SIZE, cell % SudokuBoard.SIZE)) {
+                changes.append("\n  (").append(cell / SudokuBoard.SIZE + 1).append(',')
+                    .append(cell % SudokuBoard.SIZE + 1).append(") ").append(ConsoleRenderer.digits(mask));
+            }
+        }
+        if (changes.length() > 0) {
+            System.out.println("Candidates changed:" + changes);
+        }
+    }
+    
     private void handleGetHint() {
         List<String> hints = gameManager.getHint();
         System.out.println("\n=== HINT ===");
@@ -285,9 +387,17 @@ public class ConsoleUI {
         }
     }
     
+    private void handleRedoMove() {
+        if (gameManager.redoMove()) {
+            System.out.println("Move redone!");
+        } else {
+            System.out.println("No moves to redo.");
+        }
+    }
+    
     private void handleSolvePuzzle() {
         System.out.print("Are you sure you want to solve the puzzle? (y/n): ");
-        String confirm = scanner.nextLine().trim().toLowerCase();
+        String confirm = readLine().trim().toLowerCase();
         
         if (confirm.equals("y") || confirm.equals("yes")) {
             if (gameManager.solvePuzzle()) {
@@ -300,7 +410,7 @@ public class ConsoleUI {
     
     private void handleReset() {
         System.out.print("Are you sure you want to reset to the original puzzle? (y/n): ");
-        String confirm = scanner.nextLine().trim().toLowerCase();
+        String confirm = readLine().trim().toLowerCase();
         
         if (confirm.equals("y") || confirm.equals("yes")) {
             gameManager.resetToOriginal();
@@ -310,7 +420,12 @@ public class ConsoleUI {
     
     private void handleValidate() {
         if (gameManager.validateCurrentState()) {
-            System.out.println("✓ Current state is valid - no conflicts detected.");
+            int incorrect = gameManager.countIncorrectEntries();
+            if (incorrect > 0) {
+                System.out.println("✗ No conflicts, but " + incorrect + " entries do not match the solution.");
+            } else {
+                System.out.println("✓ Current state is valid - no conflicts detected.");
+            }
         } else {
             System.out.println("✗ Current state has conflicts - check your entries.");
         }
@@ -327,40 +442,47 @@ public class ConsoleUI {
     
     private void handleSaveGame() {
         System.out.print("\nEnter your name: ");
-        String playerName = scanner.nextLine().trim();
+        String playerName = readLine().trim();
         if (playerName.isEmpty()) playerName = "Player";
         
         System.out.print("Enter filename (or press Enter for auto-generated): ");
-        String filename = scanner.nextLine().trim();
+        String filename = readLine().trim();
         
-        if (gameManager.saveGame(filename.isEmpty() ? null : filename, playerName)) {
-            System.out.println("Game saved successfully!");
-        } else {
-            System.out.println("Failed to save game.");
-        }
+        // Keep playing while the save is written; report when it finishes
+        System.out.println("Saving game in the background...");
+        CompletableFuture<Boolean> save = gameManager.saveGameAsync(filename.isEmpty() ? null : filename, playerName);
+        pendingSaves.add(save);
+        save.whenComplete((saved, error) -> {
+            pendingSaves.remove(save);
+            System.out.println(error == null && saved
+                ? "\n[Game saved successfully!]"
+                : "\n[Failed to save game.]");
+        });
     }
     
     private boolean handleLoadGame() {
-        List<String> savedGames = gameManager.listSavedGames();
+        List<SaveMetadata> savedGames = gameManager.listSaveMetadata();
         
         if (savedGames.isEmpty()) {
             System.out.println("\nNo saved games found.");
             return false;
         }
         
-        System.out.println("\nSaved games:");
+        System.out.println("\nSaved games (newest first):");
         for (int i = 0; i < savedGames.size(); i++) {
             System.out.println((i + 1) + ". " + savedGames.get(i));
         }
         
         System.out.print("\nEnter game number to load (or 0 to cancel): ");
         try {
-            int choice = Integer.parseInt(scanner.nextLine().trim());
+            int choice = Integer.parseInt(readLine().trim());
             if (choice == 0) return false;
             
             if (choice > 0 && choice <= savedGames.size()) {
-                String filename = savedGames.get(choice - 1);
-                if (gameManager.loadGame(filename)) {
+                String filename = savedGames.get(choice - 1).getFilename();
+                System.out.println("Loading " + filename + "...");
+                GameState gameState = gameManager.getPersistence().loadGameAsync(filename).join();
+                if (gameManager.restoreGame(gameState)) {
                     System.out.println("Game loaded successfully!");
                     return true;
                 } else {
@@ -387,7 +509,7 @@ public class ConsoleUI {
         for (int row = 0; row < 9; row++) {
             System.out.print("Row " + (row + 1) + ": ");
             try {
-                String[] values = scanner.nextLine().trim().split("\\s+");
+                String[] values = readLine().trim().split("\\s+");
                 if (values.length != 9) {
                     System.out.println("Error: Please enter exactly 9 numbers per row.");
                     return;
@@ -417,15 +539,15 @@ public class ConsoleUI {
         
         System.out.println(result.getMessage());
         System.out.println("\nYour input puzzle:");
-        printBoard();
+        renderer.printBoard(gameManager.getCurrentBoard());
         
         System.out.print("\nSolve this puzzle? (y/n): ");
-        String confirm = scanner.nextLine().trim().toLowerCase();
+        String confirm = readLine().trim().toLowerCase();
         
         if (confirm.equals("y") || confirm.equals("yes")) {
             if (gameManager.solveCustomPuzzle()) {
                 System.out.println("\nPuzzle solved!");
-                printBoard();
+                renderer.printBoard(gameManager.getCurrentBoard());
                 System.out.println("\n✓ Solution found! Original numbers are shown in the solved grid.");
             } else {
                 System.out.println("\nUnable to solve the puzzle.");
@@ -56,6 +56,15 @@ public abstract class GameController {
         }
     }
     
+    public void redoMove() {
+        if (gameManager.redoMove()) {
+            updateBoard();
+            showMessage("Move redone.");
+        } else {
+            showMessage("No moves to redo.");
+        }
+    }
+    
     public void solvePuzzle() {
         if (gameManager.solvePuzzle()) {
             updateBoard();
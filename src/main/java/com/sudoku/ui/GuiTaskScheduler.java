@@ -0,0 +1,183 @@
+package com.sudoku.ui;
+
+import com.sudoku.manager.AsyncGameManager;
+import com.sudoku.manager.GameManager;
+import com.sudoku.manager.GameSnapshot;
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Runs slow game operations (solving, hints, checks, puzzle validation,
+ * generation, save and load) off the Swing event dispatch thread.
+ *
+ * One task is current at a time; starting another supersedes it. While a
+ * task runs, a progress bar with a Cancel button is shown and busy
+ * listeners are told to disable controls that touch the game. The result
+ * is delivered on the EDT together with a {@link GameSnapshot} taken under
+ * the game lock right after the operation. Results of cancelled or
+ * superseded tasks are stale and dropped.
+ *
+ * All methods must be called on the EDT.
+ */
+public class GuiTaskScheduler {
+    /**
+     * Receives the result of a task on the EDT.
+     */
+    public interface ResultHandler<T> {
+        void handle(T result, GameSnapshot snapshot);
+    }
+    
+    private final AsyncGameManager games;
+    private final LongSupplier renderedVersion;
+    private final Consumer<String> messages;
+    private final List<Consumer<Boolean>> busyListeners = new ArrayList<>();
+    private final JPanel progressPanel;
+    private final JLabel taskLabel;
+    private final JProgressBar progressBar;
+    
+    private CompletableFuture<?> currentWork;
+    private CompletableFuture<?> currentTask;
+    private String currentDescription;
+    private long generation;
+    
+    /**
+     * @param renderedVersion the board version the view currently shows;
+     *                        snapshots report the cells changed since
+     * @param messages receives a line when a task fails or is cancelled
+     */
+    public GuiTaskScheduler(AsyncGameManager games, LongSupplier renderedVersion, Consumer<String> messages) {
+        this.games = games;
+        this.renderedVersion = renderedVersion;
+        this.messages = messages;
+        
+        taskLabel = new JLabel();
+        progressBar = new JProgressBar();
+        progressBar.setIndeterminate(true);
+        progressBar.setPreferredSize(new Dimension(120, progressBar.getPreferredSize().height));
+        JButton cancelButton = new JButton("Cancel");
+        cancelButton.setFocusPainted(false);
+        cancelButton.addActionListener(e -> cancel());
+        
+        progressPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        progressPanel.add(taskLabel);
+        progressPanel.add(progressBar);
+        progressPanel.add(cancelButton);
+        progressPanel.setVisible(false);
+    }
+    
+    /**
+     * The progress bar and Cancel button, hidden while idle.
+     */
+    public JComponent getProgressPanel() {
+        return progressPanel;
+    }
+    
+    public void addBusyListener(Consumer<Boolean> listener) {
+        busyListeners.add(listener);
+    }
+    
+    public boolean isBusy() {
+        return currentTask != null;
+    }
+    
+    /**
+     * Runs an operation on the game on the task executor, under the game lock.
+     */
+    public <T> void run(String description, Function<GameManager, T> operation, ResultHandler<T> onResult) {
+        long since = renderedVersion.getAsLong();
+        CompletableFuture<Outcome<T>> work = games.submit(
+            manager -> new Outcome<>(operation.apply(manager), manager.snapshot(since)));
+        start(description, work, work, onResult);
+    }
+    
+    /**
+     * Runs an operation that has its own asynchronous form, such as
+     * generation or file I/O; the snapshot is taken once it completes.
+     * Cancelling cancels the future the operation returned.
+     */
+    public <T> void runAsync(String description, Function<AsyncGameManager, CompletableFuture<T>> operation,
+                             ResultHandler<T> onResult) {
+        long since = renderedVersion.getAsLong();
+        CompletableFuture<T> work = operation.apply(games);
+        CompletableFuture<Outcome<T>> task = work.thenCompose(
+            result -> games.submit(manager -> new Outcome<>(result, manager.snapshot(since))));
+        start(description, work, task, onResult);
+    }
+    
+    /**
+     * Cancels the current task. A task already running under the game lock
+     * finishes in the background, but its result is ignored.
+     */
+    public void cancel() {
+        if (currentTask == null) return;
+        
+        messages.accept(currentDescription + " cancelled.");
+        currentWork.cancel(true);
+        currentTask.cancel(true);
+        finish();
+    }
+    
+    private <T> void start(String description, CompletableFuture<?> work, CompletableFuture<Outcome<T>> task,
+                           ResultHandler<T> onResult) {
+        if (currentTask != null) {
+            // Superseded: let the old task go without reporting it
+            currentWork.cancel(true);
+            currentTask.cancel(true);
+        }
+        long id = ++generation;
+        currentWork = work;
+        currentTask = task;
+        currentDescription = description;
+        taskLabel.setText(description + "...");
+        setBusy(true);
+        
+        task.whenComplete((outcome, error) -> SwingUtilities.invokeLater(() -> {
+            if (id != generation || currentTask != task) {
+                return; // Stale
+            }
+            finish();
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                ? error.getCause() : error;
+            if (cause instanceof CancellationException) {
+                return;
+            }
+            if (cause != null) {
+                messages.accept(description + " failed: " + cause.getMessage());
+                return;
+            }
+            onResult.handle(outcome.result, outcome.snapshot);
+        }));
+    }
+    
+    private void finish() {
+        generation++;
+        currentWork = null;
+        currentTask = null;
+        setBusy(false);
+    }
+    
+    private void setBusy(boolean busy) {
+        progressPanel.setVisible(busy);
+        for (Consumer<Boolean> listener : busyListeners) {
+            listener.accept(busy);
+        }
+    }
+    
+    private static class Outcome<T> {
+        final T result;
+        final GameSnapshot snapshot;
+        
+        Outcome(T result, GameSnapshot snapshot) {
+            this.result = result;
+            this.snapshot = snapshot;
+        }
+    }
+}
\ No newline at end of file
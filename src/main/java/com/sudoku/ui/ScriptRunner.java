@@ -0,0 +1,249 @@
+package com.sudoku.ui;
+
+import com.sudoku.manager.GameManager;
+import com.sudoku.model.Difficulty;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Non-interactive console mode for load tests and regression runs.
+ *
+ * Reads one command per line and runs them back-to-back against a single
+ * game, without prompts or board printing. Blank lines and lines starting
+ * with '#' are ignored. Commands:
+ *
+ *   new [easy|medium|hard|expert]   move ROW COL VALUE (1-based, 0 clears)
+ *   hint   undo   redo   solve   check   reset   stats
+ *   save [FILE [PLAYER]]            load FILE
+ *
+ * Every command prints one tab-separated result line:
+ * {@code line, command, ok|fail|error, latency in microseconds, detail}.
+ * "fail" means the game rejected the command (e.g. an invalid move),
+ * "error" that the line could not be run. At the end, '#' summary lines
+ * give the throughput and per-command latency percentiles.
+ */
+public class ScriptRunner {
+    private enum Command { NEW, MOVE, HINT, UNDO, REDO, SOLVE, CHECK, RESET, STATS, SAVE, LOAD }
+    
+    private final GameManager gameManager;
+    private final PrintWriter out;
+    private final LatencyRecorder[] latencies = new LatencyRecorder[Command.values().length];
+    private long commands;
+    private long failed;
+    private long errors;
+    
+    public ScriptRunner(GameManager gameManager, PrintWriter out) {
+        this.gameManager = gameManager;
+        this.out = out;
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new LatencyRecorder();
+        }
+    }
+    
+    /**
+     * Runs every command in the script and prints the summary.
+     * @return the number of commands that ended with "error"
+     */
+    public long run(BufferedReader script) throws IOException {
+        long start = System.nanoTime();
+        String line;
+        long lineNumber = 0;
+        while ((line = script.readLine()) != null) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) continue;
+            runLine(lineNumber, trimmed);
+        }
+        printSummary(System.nanoTime() - start);
+        out.flush();
+        return errors;
+    }
+    
+    private void runLine(long lineNumber, String line) {
+        String[] args = tokenize(line);
+        Command command;
+        try {
+            command = Command.valueOf(args[0].toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            report(lineNumber, args[0], "error", 0, "unknown command");
+            errors++;
+            return;
+        }
+        
+        commands++;
+        long started = System.nanoTime();
+        String status;
+        String detail;
+        try {
+            Result result = execute(command, args);
+            status = result.ok ? "ok" : "fail";
+            detail = result.detail;
+        } catch (RuntimeException e) {
+            status = "error";
+            detail = e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+        long elapsed = System.nanoTime() - started;
+        latencies[command.ordinal()].record(elapsed);
+        
+        if (status.equals("fail")) failed++;
+        if (status.equals("error")) errors++;
+        report(lineNumber, args[0], status, elapsed, detail);
+    }
+    
+    private Result execute(Command command, String[] args) {
+        if (command != Command.NEW && command != Command.LOAD && gameManager.getCurrentBoard() == null) {
+            return new Result(false, "no game");
+        }
+        
+        switch (command) {
+            case NEW: {
+                Difficulty difficulty = args.length > 1
+                    ? Difficulty.valueOf(args[1].toUpperCase(Locale.ROOT)) : Difficulty.MEDIUM;
+                gameManager.startNewGame(difficulty);
+                return new Result(true, difficulty.name().toLowerCase(Locale.ROOT));
+            }
+            case MOVE: {
+                if (args.length != 4) {
+                    throw new IllegalArgumentException("usage: move ROW COL VALUE");
+                }
+                int row = Integer.parseInt(args[1]) - 1;
+                int col = Integer.parseInt(args[2]) - 1;
+                int value = Integer.parseInt(args[3]);
+                boolean moved = gameManager.makeMove(row, col, value);
+                return new Result(moved, moved && gameManager.isGameCompleted() ? "completed" : "");
+            }
+            case HINT: {
+                List<String> hints = gameManager.getHint();
+                return new Result(true, String.join("; ", hints));
+            }
+            case UNDO:
+                return new Result(gameManager.undoMove(), "");
+            case REDO:
+                return new Result(gameManager.redoMove(), "");
+            case SOLVE:
+                return new Result(gameManager.solvePuzzle(), "");
+            case CHECK: {
+                if (!gameManager.validateCurrentState()) {
+                    return new Result(false, "conflicts");
+                }
+                return new Result(true, "incorrect=" + gameManager.countIncorrectEntries());
+            }
+            case RESET:
+                gameManager.resetToOriginal();
+                return new Result(true, "");
+            case STATS:
+                return new Result(true, gameManager.getGameStats().toString());
+            case SAVE: {
+                String filename = args.length > 1 ? args[1] : null;
+                String player = args.length > 2 ? args[2] : "Script";
+                return new Result(gameManager.saveGame(filename, player), filename != null ? filename : "");
+            }
+            case LOAD: {
+                if (args.length != 2) {
+                    throw new IllegalArgumentException("usage: load FILE");
+                }
+                return new Result(gameManager.loadGame(args[1]), args[1]);
+            }
+            default:
+                throw new IllegalStateException("Unhandled command " + command);
+        }
+    }
+    
+    private void report(long lineNumber, String command, String status, long nanos, String detail) {
+        out.print(lineNumber);
+        out.print('\t');
+        out.print(command);
+        out.print('\t');
+        out.print(status);
+        out.print('\t');
+        out.print(nanos / 1000);
+        out.print('\t');
+        out.println(detail.replace('\t', ' ').replace('\n', ' '));
+    }
+    
+    private void printSummary(long elapsedNanos) {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        out.printf(Locale.ROOT, "# commands=%d fail=%d error=%d elapsed=%.3fs throughput=%.0f/s%n",
+            commands, failed, errors, seconds, seconds > 0 ? commands / seconds : 0);
+        out.println("# command\tcount\tmean_us\tp50_us\tp90_us\tp99_us\tp999_us\tmax_us");
+        for (Command command : Command.values()) {
+            LatencyRecorder recorder = latencies[command.ordinal()];
+            if (recorder.count == 0) continue;
+            recorder.sort();
+            out.printf(Locale.ROOT, "# %s\t%d\t%.1f\t%.1f\t%.1f\t%.1f\t%.1f\t%.1f%n",
+                command.name().toLowerCase(Locale.ROOT), recorder.count, recorder.mean() / 1000.0,
+                recorder.percentile(50) / 1000.0, recorder.percentile(90) / 1000.0,
+                recorder.percentile(99) / 1000.0, recorder.percentile(99.9) / 1000.0,
+                recorder.percentile(100) / 1000.0);
+        }
+    }
+    
+    /**
+     * Splits on runs of spaces and tabs without a regex.
+     */
+    private static String[] tokenize(String line) {
+        String[] tokens = new String[4];
+        int count = 0;
+        int i = 0;
+        while (i < line.length()) {
+            while (i < line.length() && Character.isWhitespace(line.charAt(i))) i++;
+            int start = i;
+            while (i < line.length() && !Character.isWhitespace(line.charAt(i))) i++;
+            if (i > start) {
+                if (count == tokens.length) {
+                    tokens = Arrays.copyOf(tokens, count * 2);
+                }
+                tokens[count++] = line.substring(start, i);
+            }
+        }
+        return Arrays.copyOf(tokens, count);
+    }
+    
+    private static class Result {
+        final boolean ok;
+        final String detail;
+        
+        Result(boolean ok, String detail) {
+            this.ok = ok;
+            this.detail = detail;
+        }
+    }
+    
+    /**
+     * Latencies of one command type in a growable primitive array; exact
+     * percentiles are taken by sorting once at the end.
+     */
+    private static class LatencyRecorder {
+        private long[] samples = new long[1024];
+        private int count;
+        private long total;
+        
+        void record(long nanos) {
+            if (count == samples.length) {
+                samples = Arrays.copyOf(samples, count * 2);
+            }
+            samples[count++] = nanos;
+            total += nanos;
+        }
+        
+        void sort() {
+            Arrays.sort(samples, 0, count);
+        }
+        
+        double mean() {
+            return count == 0 ? 0 : (double) total / count;
+        }
+        
+        /**
+         * Nearest-rank percentile of the sorted samples.
+         */
+        long percentile(double percent) {
+            int rank = (int) Math.ceil(percent / 100.0 * count);
+            return samples[Math.max(0, Math.min(count, rank) - 1)];
+        }
+    }
+}
\ No newline at end of file
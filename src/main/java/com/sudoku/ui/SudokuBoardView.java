@@ -0,0 +1,505 @@
+package com.sudoku.ui;
+
+import com.sudoku.manager.GameSnapshot;
+import com.sudoku.model.CandidateMasks;
+import com.sudoku.model.SudokuBoard;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.FocusAdapter;
+import java.awt.event.FocusEvent;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.geom.AffineTransform;
+import java.awt.image.VolatileImage;
+import java.util.BitSet;
+
+/**
+ * Paints the whole board in one component instead of 81 text fields.
+ *
+ * Cell backgrounds, highlights, player digits and pencil marks are painted
+ * per pass, limited to the clip so a changed cell only repaints its own
+ * rectangle. Grid lines and the fixed digits only change when the puzzle,
+ * the size or the input mode changes, so they are rendered once into a
+ * translucent VolatileImage at device resolution and blitted on top.
+ *
+ * Empty cells show the player's pencil marks and, in auto-candidates mode,
+ * the candidates maintained by the game. A move only changes the
+ * candidates of the cell's peers, so only those are compared and repainted.
+ *
+ * Keyboard: arrows move the selection, 1-9 enter a digit, 0, Backspace,
+ * Delete or Space clear the cell, and Shift+1-9 toggles a pencil mark.
+ * Input is ignored while the component is disabled.
+ */
+public class SudokuBoardView extends JComponent {
+    private static final long serialVersionUID = 1L;
+    
+    private static final int SIZE = SudokuBoard.SIZE;
+    private static final int MIN_CELL = 24;
+    
+    private static final Color BACKGROUND = Color.WHITE;
+    private static final Color FIXED_BACKGROUND = new Color(240, 240, 240);
+    private static final Color INPUT_BACKGROUND = new Color(255, 248, 225);
+    private static final Color RELATED_BACKGROUND = new Color(255, 243, 224);
+    private static final Color SELECTED_BACKGROUND = new Color(255, 224, 178);
+    private static final Color ERROR_BACKGROUND = new Color(255, 235, 238);
+    private static final Color FLASH_BACKGROUND = Color.RED;
+    private static final Color FIXED_DIGIT = Color.BLACK;
+    private static final Color PLAYER_DIGIT = new Color(33, 150, 243);
+    private static final Color INPUT_DIGIT = new Color(255, 87, 34);
+    private static final Color PENCIL_DIGIT = new Color(33, 150, 243);
+    private static final Color CANDIDATE_DIGIT = new Color(150, 150, 150);
+    
+    /**
+     * Receives digits typed into a cell; 0 clears it.
+     * @return false if the move was rejected
+     */
+    public interface CellInputListener {
+        boolean cellEntered(int row, int col, int value);
+    }
+    
+    /**
+     * Receives Shift+digit in an empty cell.
+     */
+    public interface PencilMarkListener {
+        void pencilMarkToggled(int row, int col, int digit);
+    }
+    
+    private GameSnapshot snapshot;
+    private SudokuBoard board;
+    private boolean inputMode;
+    private boolean autoCandidates;
+    private CellInputListener inputListener;
+    private PencilMarkListener pencilMarkListener;
+    private int selectedRow = -1;
+    private int selectedCol = -1;
+    private final BitSet errorCells = new BitSet(SudokuBoard.CELL_COUNT);
+    private int flashCell = -1;
+    private final Timer flashTimer;
+    
+    // Cached static layer and the geometry it was rendered for
+    private VolatileImage staticLayer;
+    private boolean staticLayerValid;
+    private int cellSize;
+    private int originX;
+    private int originY;
+    private Font digitFont;
+    private Font pencilFont;
+    
+    public SudokuBoardView() {
+        setPreferredSize(new Dimension(SIZE * 50 + 6, SIZE * 50 + 6));
+        setMinimumSize(new Dimension(SIZE * MIN_CELL + 6, SIZE * MIN_CELL + 6));
+        setFocusable(true);
+        setOpaque(true);
+        
+        flashTimer = new Timer(200, e -> {
+            int cell = flashCell;
+            flashCell = -1;
+            repaintCell(cell);
+        });
+        flashTimer.setRepeats(false);
+        
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                if (!isEnabled()) return;
+                requestFocusInWindow();
+                int col = Math.floorDiv(e.getX() - originX, Math.max(1, cellSize));
+                int row = Math.floorDiv(e.getY() - originY, Math.max(1, cellSize));
+                if (row >= 0 && row < SIZE && col >= 0 && col < SIZE) {
+                    select(row, col);
+                }
+            }
+        });
+        addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                handleKey(e);
+            }
+        });
+        addFocusListener(new FocusAdapter() {
+            @Override
+            public void focusLost(FocusEvent e) {
+                repaintRelated(selectedRow, selectedCol);
+            }
+            
+            @Override
+            public void focusGained(FocusEvent e) {
+                repaintRelated(selectedRow, selectedCol);
+            }
+        });
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                invalidateStaticLayer();
+            }
+        });
+    }
+    
+    public void setCellInputListener(CellInputListener listener) {
+        this.inputListener = listener;
+    }
+    
+    public void setPencilMarkListener(PencilMarkListener listener) {
+        this.pencilMarkListener = listener;
+    }
+    
+    /**
+     * Shows a game snapshot, repainting only the cells that changed since
+     * the previous one and the peers whose candidates changed with them.
+     * The static layer is rebuilt only if the input mode or a fixed cell
+     * changed.
+     */
+    public void setSnapshot(GameSnapshot snapshot) {
+        GameSnapshot previous = this.snapshot;
+        SudokuBoard previousBoard = this.board;
+        BitSet changed = snapshot.getChangedCells();
+        this.snapshot = snapshot;
+        this.board = snapshot.getBoard();
+        if (previousBoard == null || snapshot.isCustomInputMode() != inputMode
+                || fixedCellsDiffer(previousBoard, board, changed)) {
+            inputMode = snapshot.isCustomInputMode();
+            invalidateStaticLayer();
+        }
+        
+        for (int i = changed.nextSetBit(0); i >= 0; i = changed.nextSetBit(i + 1)) {
+            errorCells.clear(i);
+            repaintCell(i);
+            if (previous != null && autoCandidates) {
+                for (int peer : CandidateMasks.peersOf(i)) {
+                    if (snapshot.getCandidates(peer) != previous.getCandidates(peer)) {
+                        repaintCell(peer);
+                    }
+                }
+            }
+        }
+    }
+    
+    public void setAutoCandidates(boolean autoCandidates) {
+        if (autoCandidates != this.autoCandidates) {
+            this.autoCandidates = autoCandidates;
+            repaint();
+        }
+    }
+    
+    private static boolean fixedCellsDiffer(SudokuBoard previous, SudokuBoard board, BitSet changed) {
+        for (int i = changed.nextSetBit(0); i >= 0; i = changed.nextSetBit(i + 1)) {
+            int row = i / SIZE;
+            int col = i % SIZE;
+            boolean fixed = board.getCell(row, col).isFixed();
+            if (fixed != previous.getCell(row, col).isFixed()
+                    || (fixed && board.getValue(row, col) != previous.getValue(row, col))) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Clears error highlights, e.g. when a new game starts.
+     */
+    public void clearMarks() {
+        errorCells.clear();
+        repaint();
+    }
+    
+    private void invalidateStaticLayer() {
+        staticLayerValid = false;
+        repaint();
+    }
+    
+    public void setErrorCells(BitSet cells) {
+        BitSet changed = (BitSet) errorCells.clone();
+        changed.or(cells);
+        errorCells.clear();
+        errorCells.or(cells);
+        for (int i = changed.nextSetBit(0); i >= 0; i = changed.nextSetBit(i + 1)) {
+            repaintCell(i);
+        }
+    }
+    
+    public void flashCell(int row, int col) {
+        int previous = flashCell;
+        flashCell = row * SIZE + col;
+        repaintCell(previous);
+        repaintCell(flashCell);
+        flashTimer.restart();
+    }
+    
+    private void select(int row, int col) {
+        int oldRow = selectedRow;
+        int oldCol = selectedCol;
+        selectedRow = row;
+        selectedCol = col;
+        repaintRelated(oldRow, oldCol);
+        repaintRelated(row, col);
+    }
+    
+    private void handleKey(KeyEvent e) {
+        if (!isEnabled()) return;
+        if (selectedRow < 0) {
+            select(0, 0);
+        }
+        
+        int key = e.getKeyCode();
+        switch (key) {
+            case KeyEvent.VK_UP:
+                select(Math.floorMod(selectedRow - 1, SIZE), selectedCol);
+                return;
+            case KeyEvent.VK_DOWN:
+                select((selectedRow + 1) % SIZE, selectedCol);
+                return;
+            case KeyEvent.VK_LEFT:
+                select(selectedRow, Math.floorMod(selectedCol - 1, SIZE));
+                return;
+            case KeyEvent.VK_RIGHT:
+                select(selectedRow, (selectedCol + 1) % SIZE);
+                return;
+            case KeyEvent.VK_BACK_SPACE:
+            case KeyEvent.VK_DELETE:
+            case KeyEvent.VK_SPACE:
+            case KeyEvent.VK_0:
+            case KeyEvent.VK_NUMPAD0:
+                enter(0);
+                return;
+            default:
+                break;
+        }
+        
+        int digit = -1;
+        if (key >= KeyEvent.VK_1 && key <= KeyEvent.VK_9) {
+            digit = key - KeyEvent.VK_0;
+        } else if (key >= KeyEvent.VK_NUMPAD1 && key <= KeyEvent.VK_NUMPAD9) {
+            digit = key - KeyEvent.VK_NUMPAD0;
+        }
+        if (digit < 0) return;
+        
+        if (e.isShiftDown() && !inputMode) {
+            togglePencilMark(digit);
+        } else {
+            enter(digit);
+        }
+    }
+    
+    private boolean isEditable(int row, int col) {
+        return board != null && (inputMode || !board.getCell(row, col).isFixed());
+    }
+    
+    private void enter(int value) {
+        if (!isEditable(selectedRow, selectedCol) || inputListener == null) return;
+        
+        if (!inputListener.cellEntered(selectedRow, selectedCol, value)) {
+            flashCell(selectedRow, selectedCol);
+        }
+    }
+    
+    private void togglePencilMark(int digit) {
+        if (!isEditable(selectedRow, selectedCol) || board.getValue(selectedRow, selectedCol) != 0
+                || pencilMarkListener == null) {
+            return;
+        }
+        
+        // The listener shows the new snapshot, which carries no changed cells
+        pencilMarkListener.pencilMarkToggled(selectedRow, selectedCol, digit);
+        repaintCell(selectedRow * SIZE + selectedCol);
+    }
+    
+    private void repaintCell(int cell) {
+        if (cell < 0 || cellSize == 0) return;
+        repaint(originX + (cell % SIZE) * cellSize, originY + (cell / SIZE) * cellSize, cellSize, cellSize);
+    }
+    
+    /**
+     * Repaints the row, column and box of a cell, whose highlight depends
+     * on the selection.
+     */
+    private void repaintRelated(int row, int col) {
+        if (row < 0 || cellSize == 0) return;
+        int boardSize = SIZE * cellSize;
+        repaint(originX, originY + row * cellSize, boardSize, cellSize);
+        repaint(originX + col * cellSize, originY, cellSize, boardSize);
+        int boxRow = row - row % SudokuBoard.BOX_SIZE;
+        int boxCol = col - col % SudokuBoard.BOX_SIZE;
+        repaint(originX + boxCol * cellSize, originY + boxRow * cellSize,
+            SudokuBoard.BOX_SIZE * cellSize, SudokuBoard.BOX_SIZE * cellSize);
+    }
+    
+    private void updateGeometry() {
+        int available = Math.min(getWidth(), getHeight()) - 6;
+        int size = Math.max(MIN_CELL, available / SIZE);
+        if (size != cellSize) {
+            cellSize = size;
+            digitFont = new Font("Arial", Font.BOLD, Math.round(size * 0.5f));
+            pencilFont = new Font("Arial", Font.PLAIN, Math.max(8, Math.round(size * 0.22f)));
+            staticLayerValid = false;
+        }
+        originX = (getWidth() - SIZE * cellSize) / 2;
+        originY = (getHeight() - SIZE * cellSize) / 2;
+    }
+    
+    @Override
+    protected void paintComponent(Graphics graphics) {
+        Graphics2D g = (Graphics2D) graphics.create();
+        try {
+            g.setColor(getParent() != null ? getParent().getBackground() : BACKGROUND);
+            Rectangle clip = g.getClipBounds();
+            if (clip == null) clip = new Rectangle(0, 0, getWidth(), getHeight());
+            g.fill(clip);
+            
+            updateGeometry();
+            if (board == null) return;
+            
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            
+            // Only cells intersecting the clip are painted
+            int firstCol = Math.max(0, (clip.x - originX) / cellSize);
+            int lastCol = Math.min(SIZE - 1, (clip.x + clip.width - originX) / cellSize);
+            int firstRow = Math.max(0, (clip.y - originY) / cellSize);
+            int lastRow = Math.min(SIZE - 1, (clip.y + clip.height - originY) / cellSize);
+            for (int row = firstRow; row <= lastRow; row++) {
+                for (int col = firstCol; col <= lastCol; col++) {
+                    paintCell(g, row, col);
+                }
+            }
+            paintStaticLayer(g);
+        } finally {
+            g.dispose();
+        }
+    }
+    
+    private void paintCell(Graphics2D g, int row, int col) {
+        int x = originX + col * cellSize;
+        int y = originY + row * cellSize;
+        int cell = row * SIZE + col;
+        boolean fixed = board.getCell(row, col).isFixed();
+        
+        g.setColor(cellBackground(row, col, cell, fixed));
+        g.fillRect(x, y, cellSize, cellSize);
+        
+        int value = board.getValue(row, col);
+        if (value != 0 && (inputMode || !fixed)) {
+            // Fixed digits come from the static layer
+            g.setColor(inputMode ? INPUT_DIGIT : PLAYER_DIGIT);
+            drawCentered(g, digitFont, String.valueOf(value), x, y, cellSize);
+        } else if (value == 0 && !inputMode) {
+            int pencil = snapshot.getPencilMarks(cell);
+            int candidates = autoCandidates ? snapshot.getCandidates(cell) : 0;
+            int third = cellSize / 3;
+            for (int digit = 1; digit <= SIZE; digit++) {
+                int bit = 1 << (digit - 1);
+                if (((pencil | candidates) & bit) == 0) continue;
+                // The player's own marks stand out from the automatic ones
+                g.setColor((pencil & bit) != 0 ? PENCIL_DIGIT : CANDIDATE_DIGIT);
+                drawCentered(g, pencilFont, String.valueOf(digit),
+                    x + ((digit - 1) % 3) * third, y + ((digit - 1) / 3) * third, third);
+            }
+        }
+    }
+    
+    private Color cellBackground(int row, int col, int cell, boolean fixed) {
+        if (cell == flashCell) return FLASH_BACKGROUND;
+        if (errorCells.get(cell)) return ERROR_BACKGROUND;
+        if (inputMode) return INPUT_BACKGROUND;
+        if (selectedRow >= 0 && hasFocus()) {
+            if (row == selectedRow && col == selectedCol) return SELECTED_BACKGROUND;
+            if (row == selectedRow || col == selectedCol
+                    || (row / SudokuBoard.BOX_SIZE == selectedRow / SudokuBoard.BOX_SIZE
+                        && col / SudokuBoard.BOX_SIZE == selectedCol / SudokuBoard.BOX_SIZE)) {
+                return RELATED_BACKGROUND;
+            }
+        }
+        return fixed ? FIXED_BACKGROUND : BACKGROUND;
+    }
+    
+    private static void drawCentered(Graphics2D g, Font font, String text, int x, int y, int size) {
+        g.setFont(font);
+        FontMetrics metrics = g.getFontMetrics();
+        int textX = x + (size - metrics.stringWidth(text)) / 2;
+        int textY = y + (size - metrics.getHeight()) / 2 + metrics.getAscent();
+        g.drawString(text, textX, textY);
+    }
+    
+    /**
+     * Blits the grid lines and fixed digits, re-rendering them at device
+     * resolution if the image is missing, stale or was lost.
+     */
+    private void paintStaticLayer(Graphics2D g) {
+        AffineTransform transform = g.getTransform();
+        double scaleX = transform.getScaleX();
+        double scaleY = transform.getScaleY();
+        int boardSize = SIZE * cellSize + 6;
+        int width = (int) Math.ceil(boardSize * scaleX);
+        int height = (int) Math.ceil(boardSize * scaleY);
+        GraphicsConfiguration config = getGraphicsConfiguration();
+        if (config == null) {
+            // Not on screen (e.g. printing): draw straight into the target
+            Graphics2D direct = (Graphics2D) g.create();
+            direct.translate(originX, originY);
+            drawStaticContent(direct);
+            direct.dispose();
+            return;
+        }
+        
+        do {
+            if (staticLayer == null || staticLayer.getWidth() != width || staticLayer.getHeight() != height
+                    || staticLayer.validate(config) == VolatileImage.IMAGE_INCOMPATIBLE) {
+                if (staticLayer != null) {
+                    staticLayer.flush();
+                }
+                staticLayer = config.createCompatibleVolatileImage(width, height, Transparency.TRANSLUCENT);
+                staticLayerValid = false;
+            }
+            if (!staticLayerValid || staticLayer.contentsLost()) {
+                renderStaticLayer(scaleX, scaleY);
+            }
+            g.drawImage(staticLayer, originX - 3, originY - 3, boardSize, boardSize, null);
+        } while (staticLayer.contentsLost());
+    }
+    
+    private void renderStaticLayer(double scaleX, double scaleY) {
+        Graphics2D g = staticLayer.createGraphics();
+        try {
+            g.setComposite(AlphaComposite.Clear);
+            g.fillRect(0, 0, staticLayer.getWidth(), staticLayer.getHeight());
+            g.setComposite(AlphaComposite.SrcOver);
+            g.scale(scaleX, scaleY);
+            g.translate(3, 3);
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            
+            drawStaticContent(g);
+            staticLayerValid = true;
+        } finally {
+            g.dispose();
+        }
+    }
+    
+    /**
+     * Grid lines and fixed digits, relative to the top-left cell corner.
+     */
+    private void drawStaticContent(Graphics2D g) {
+        int boardSize = SIZE * cellSize;
+        g.setColor(Color.BLACK);
+        for (int i = 0; i <= SIZE; i++) {
+            int offset = i * cellSize;
+            int width = i % SudokuBoard.BOX_SIZE == 0 ? 3 : 1;
+            g.fillRect(offset - width / 2, -width / 2, width, boardSize + width);
+            g.fillRect(-width / 2, offset - width / 2, boardSize + width, width);
+        }
+        
+        if (!inputMode) {
+            g.setColor(FIXED_DIGIT);
+            for (int row = 0; row < SIZE; row++) {
+                for (int col = 0; col < SIZE; col++) {
+                    int value = board.getValue(row, col);
+                    if (value != 0 && board.getCell(row, col).isFixed()) {
+                        drawCentered(g, digitFont, String.valueOf(value), col * cellSize, row * cellSize, cellSize);
+                    }
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
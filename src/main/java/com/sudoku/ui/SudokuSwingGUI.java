@@ -1,34 +1,75 @@
 package com.sudoku.ui;
 
+import com.sudoku.manager.AsyncGameManager;
 import com.sudoku.manager.GameManager;
+import com.sudoku.manager.GameSnapshot;
+import com.sudoku.manager.HintPrecomputer;
+import com.sudoku.metrics.MetricsRegistry;
 import com.sudoku.model.Difficulty;
 import com.sudoku.model.SudokuBoard;
+import com.sudoku.persistence.AutoSaveService;
+import com.sudoku.persistence.PuzzlePool;
+import com.sudoku.persistence.SaveMetadata;
 import javax.swing.*;
-import javax.swing.border.Border;
-import javax.swing.text.AbstractDocument;
-import javax.swing.text.AttributeSet;
-import javax.swing.text.BadLocationException;
-import javax.swing.text.DocumentFilter;
 import java.awt.*;
-import java.awt.event.ActionEvent;
-import java.awt.event.FocusAdapter;
-import java.awt.event.FocusEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+/**
+ * Swing front end.
+ *
+ * Startup is tuned for time to an interactive board: the frame shows a
+ * game right away, served from the persisted {@link PuzzlePool} when it
+ * has one, and the autosave service and the pool refill only start once
+ * that board is on screen. With -Dsudoku.startup.report=true the time from
+ * JVM start to the first interactive board is printed to stderr, and with
+ * -Dsudoku.startup.exit=true the application then exits, which is what
+ * the AppCDS training run in build-kiosk.sh uses.
+ */
 public class SudokuSwingGUI extends JFrame {
+    // Puzzles of every difficulty kept ready for the next start
+    private static final int POOL_SIZE = 3;
+    private static final long SAVE_TIMEOUT_SECONDS = 10;
+    
     private GameManager gameManager;
-    private JTextField[][] cells;
-    private SudokuDocumentFilter[][] filters;
-    private JLabel timeLabel, movesLabel, hintsLabel, statusLabel;
+    private AsyncGameManager asyncGameManager;
+    private GuiTaskScheduler tasks;
+    private AutoSaveService autoSave;
+    private HintPrecomputer hintPrecomputer;
+    private SudokuBoardView boardView;
+    private JLabel timeLabel, movesLabel, hintsLabel, stepsLabel, statusLabel;
     private JTextArea messageArea;
     private JComboBox<Difficulty> difficultyCombo;
     private Timer gameTimer;
     private JButton finishInputButton;
+    private final List<JButton> gameActionButtons = new ArrayList<>();
+    private final Set<CompletableFuture<Boolean>> pendingSaves = ConcurrentHashMap.newKeySet();
+    
+    // Board version of the snapshot on screen
+    private long renderedVersion;
     
     public SudokuSwingGUI() {
         gameManager = new GameManager();
-        cells = new JTextField[9][9];
-        filters = new SudokuDocumentFilter[9][9];
+        gameManager.setPuzzlePool(PuzzlePool.openDefault());
+        hintPrecomputer = new HintPrecomputer();
+        hintPrecomputer.addListener(analysis -> SwingUtilities.invokeLater(() -> {
+            if (analysis.getVersion() == renderedVersion) {
+                updateSteps(analysis);
+            }
+        }));
+        gameManager.setHintPrecomputer(hintPrecomputer);
+        asyncGameManager = new AsyncGameManager(gameManager);
+        tasks = new GuiTaskScheduler(asyncGameManager, () -> renderedVersion, this::showMessage);
+        tasks.addBusyListener(busy -> setGameActionsEnabled(!busy));
         
         initializeGUI();
         setupTimer();
@@ -37,6 +78,16 @@ public class SudokuSwingGUI extends JFrame {
     private void initializeGUI() {
         setTitle("Sudoku Game");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                awaitPendingSaves();
+                if (autoSave != null) {
+                    autoSave.close();
+                }
+                hintPrecomputer.close();
+            }
+        });
         setLayout(new BorderLayout());
         
         // Create main panels
@@ -45,8 +96,26 @@ public class SudokuSwingGUI extends JFrame {
         add(createStatusPanel(), BorderLayout.SOUTH);
         
         pack();
+        setMinimumSize(getSize());
         setLocationRelativeTo(null);
-        setResizable(false);
+    }
+    
+    /**
+     * Gives saves still being written a bounded time to finish before exit.
+     */
+    private void awaitPendingSaves() {
+        if (pendingSaves.isEmpty()) return;
+        
+        try {
+            CompletableFuture.allOf(pendingSaves.toArray(new CompletableFuture<?>[0]))
+                .get(SAVE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            System.err.println("Saves did not finish within " + SAVE_TIMEOUT_SECONDS + " seconds.");
+        } catch (ExecutionException e) {
+            // Already reported by the save itself
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
     
     private JPanel createHeaderPanel() {
@@ -96,6 +165,7 @@ public class SudokuSwingGUI extends JFrame {
         JButton resetBtn = createButton("Reset", this::handleReset);
         JButton hintBtn = createButton("Hint", this::handleHint);
         JButton undoBtn = createButton("Undo", this::handleUndo);
+        JButton redoBtn = createButton("Redo", this::handleRedo);
         JButton saveBtn = createButton("Save", this::handleSave);
         JButton loadBtn = createButton("Load", this::handleLoad);
         
@@ -106,15 +176,24 @@ public class SudokuSwingGUI extends JFrame {
         controls.add(resetBtn);
         controls.add(hintBtn);
         controls.add(undoBtn);
+        controls.add(redoBtn);
         controls.add(saveBtn);
         controls.add(loadBtn);
         
+        JCheckBox autoCandidatesBox = new JCheckBox("Auto Candidates");
+        autoCandidatesBox.setFocusable(false);
+        autoCandidatesBox.addActionListener(e -> boardView.setAutoCandidates(autoCandidatesBox.isSelected()));
+        controls.add(autoCandidatesBox);
+        
         // Store reference to finish input button for visibility control
         this.finishInputButton = finishInputBtn;
         finishInputBtn.setVisible(false);
+        // New Game stays enabled during a task and supersedes it
+        gameActionButtons.addAll(List.of(finishInputBtn, solveBtn, checkBtn, resetBtn, hintBtn,
+            undoBtn, redoBtn, saveBtn, loadBtn));
         
         // Sudoku grid
-        JPanel gridPanel = createSudokuGrid();
+        JComponent gridPanel = createSudokuGrid();
         
         boardContainer.add(controls, BorderLayout.NORTH);
         boardContainer.add(gridPanel, BorderLayout.CENTER);
@@ -122,60 +201,11 @@ public class SudokuSwingGUI extends JFrame {
         return boardContainer;
     }
     
-    private JPanel createSudokuGrid() {
-        JPanel grid = new JPanel(new GridLayout(9, 9, 1, 1));
-        grid.setBackground(Color.BLACK);
-        grid.setBorder(BorderFactory.createLineBorder(Color.BLACK, 2));
-        
-        for (int row = 0; row < 9; row++) {
-            for (int col = 0; col < 9; col++) {
-                JTextField cell = createCell(row, col);
-                cells[row][col] = cell;
-                grid.add(cell);
-            }
-        }
-        
-        return grid;
-    }
-    
-    private JTextField createCell(int row, int col) {
-        JTextField cell = new JTextField();
-        cell.setHorizontalAlignment(JTextField.CENTER);
-        cell.setFont(new Font("Arial", Font.BOLD, 18));
-        cell.setPreferredSize(new Dimension(50, 50));
-        
-        // Create thick borders for 3x3 boxes
-        Border border = createCellBorder(row, col);
-        cell.setBorder(border);
-        
-        // Add input filter
-        SudokuDocumentFilter filter = new SudokuDocumentFilter(row, col);
-        filters[row][col] = filter;
-        ((AbstractDocument) cell.getDocument()).setDocumentFilter(filter);
-        
-        // Add focus listener for highlighting
-        cell.addFocusListener(new FocusAdapter() {
-            @Override
-            public void focusGained(FocusEvent e) {
-                highlightRelated(row, col);
-            }
-            
-            @Override
-            public void focusLost(FocusEvent e) {
-                clearHighlights();
-            }
-        });
-        
-        return cell;
-    }
-    
-    private Border createCellBorder(int row, int col) {
-        int top = (row % 3 == 0) ? 3 : 1;
-        int left = (col % 3 == 0) ? 3 : 1;
-        int bottom = (row % 3 == 2) ? 3 : 1;
-        int right = (col % 3 == 2) ? 3 : 1;
-        
-        return BorderFactory.createMatteBorder(top, left, bottom, right, Color.BLACK);
+    private JComponent createSudokuGrid() {
+        boardView = new SudokuBoardView();
+        boardView.setCellInputListener(this::makeMove);
+        boardView.setPencilMarkListener(this::togglePencilMark);
+        return boardView;
     }
     
     private JPanel createRightPanel() {
@@ -205,12 +235,14 @@ public class SudokuSwingGUI extends JFrame {
         timeLabel = new JLabel("Time: 00:00");
         movesLabel = new JLabel("Moves: 0");
         hintsLabel = new JLabel("Hints: 0");
+        stepsLabel = new JLabel("Steps left: -");
         statusLabel = new JLabel("Status: Ready");
         
         Font statusFont = new Font("Arial", Font.BOLD, 12);
         timeLabel.setFont(statusFont);
         movesLabel.setFont(statusFont);
         hintsLabel.setFont(statusFont);
+        stepsLabel.setFont(statusFont);
         statusLabel.setFont(statusFont);
         
         status.add(timeLabel);
@@ -219,7 +251,11 @@ public class SudokuSwingGUI extends JFrame {
         status.add(Box.createHorizontalStrut(20));
         status.add(hintsLabel);
         status.add(Box.createHorizontalStrut(20));
+        status.add(stepsLabel);
+        status.add(Box.createHorizontalStrut(20));
         status.add(statusLabel);
+        status.add(Box.createHorizontalStrut(20));
+        status.add(tasks.getProgressPanel());
         
         return status;
     }
@@ -256,21 +292,14 @@ public class SudokuSwingGUI extends JFrame {
         if (choice == 0) {
             // Traditional game
             Difficulty difficulty = (Difficulty) difficultyCombo.getSelectedItem();
-            showMessage("Generating " + difficulty.name().toLowerCase() + " puzzle...");
-            
-            new Thread(() -> {
-                try {
-                    gameManager.startNewGame(difficulty);
-                    SwingUtilities.invokeLater(() -> {
-                        updateBoard();
-                        updateUI();
-                        gameTimer.start();
-                        showMessage("New " + difficulty.name().toLowerCase() + " game started!");
-                    });
-                } catch (Exception e) {
-                    showMessage("ERROR generating puzzle: " + e.getMessage());
-                }
-            }).start();
+            tasks.runAsync("Generating " + difficulty.name().toLowerCase() + " puzzle",
+                games -> games.startNewGameAsync(difficulty),
+                (ignored, snapshot) -> {
+                    boardView.clearMarks();
+                    render(snapshot);
+                    gameTimer.start();
+                    showMessage("New " + difficulty.name().toLowerCase() + " game started!");
+                });
         } else if (choice == 1) {
             // Custom puzzle
             handleCustomPuzzleInput();
@@ -283,24 +312,32 @@ public class SudokuSwingGUI extends JFrame {
             "Solve Puzzle", JOptionPane.YES_NO_OPTION);
         
         if (result == JOptionPane.YES_OPTION) {
-            if (gameManager.solvePuzzle()) {
-                updateBoard();
-                updateUI();
-                gameTimer.stop();
-                showMessage("Puzzle solved!");
-            } else {
-                showMessage("Unable to solve puzzle.");
-            }
+            tasks.run("Solving", GameManager::solvePuzzle, (solved, snapshot) -> {
+                if (solved) {
+                    render(snapshot);
+                    gameTimer.stop();
+                    showMessage("Puzzle solved!");
+                } else {
+                    showMessage("Unable to solve puzzle.");
+                }
+            });
         }
     }
     
     private void handleCheck() {
-        if (gameManager.validateCurrentState()) {
-            showMessage("✓ Board is valid - no conflicts detected.");
-        } else {
-            showMessage("✗ Board has conflicts - check your entries.");
-            highlightErrors();
-        }
+        // -1 if the board has conflicts, else the entries that differ from the solution
+        tasks.run("Checking", manager -> manager.validateCurrentState() ? manager.countIncorrectEntries() : -1,
+            (incorrect, snapshot) -> {
+                render(snapshot);
+                if (incorrect > 0) {
+                    showMessage("✗ No conflicts, but " + incorrect + " entries do not match the solution.");
+                } else if (incorrect == 0) {
+                    showMessage("✓ Board is valid - no conflicts detected.");
+                } else {
+                    showMessage("✗ Board has conflicts - check your entries.");
+                    highlightErrors(snapshot);
+                }
+            });
     }
     
     private void handleReset() {
@@ -309,15 +346,32 @@ public class SudokuSwingGUI extends JFrame {
             "Reset Game", JOptionPane.YES_NO_OPTION);
         
         if (result == JOptionPane.YES_OPTION) {
-            gameManager.resetToOriginal();
-            updateBoard();
-            updateUI();
+            GameSnapshot snapshot = asyncGameManager.callNow(manager -> {
+                manager.resetToOriginal();
+                return manager.snapshot(renderedVersion);
+            });
+            boardView.clearMarks();
+            render(snapshot);
             showMessage("Game reset to original state.");
         }
     }
     
     private void handleHint() {
-        List<String> hints = gameManager.getHint();
+        // Answered on the spot when the background analysis of this board is done
+        List<String> hints = asyncGameManager.callNow(
+            manager -> manager.getHintAnalysis() != null ? manager.getHint() : null);
+        if (hints != null) {
+            render(asyncGameManager.callNow(manager -> manager.snapshot(renderedVersion)));
+            showHints(hints);
+            return;
+        }
+        tasks.run("Finding hints", GameManager::getHint, (result, snapshot) -> {
+            render(snapshot);
+            showHints(result);
+        });
+    }
+    
+    private void showHints(List<String> hints) {
         StringBuilder hintText = new StringBuilder("Hints:\n");
         for (String hint : hints) {
             hintText.append("• ").append(hint).append("\n");
@@ -326,15 +380,34 @@ public class SudokuSwingGUI extends JFrame {
     }
     
     private void handleUndo() {
-        if (gameManager.undoMove()) {
-            updateBoard();
-            updateUI();
+        boolean wasCompleted = asyncGameManager.callNow(GameManager::isGameCompleted);
+        GameSnapshot snapshot = asyncGameManager.callNow(
+            manager -> manager.undoMove() ? manager.snapshot(renderedVersion) : null);
+        if (snapshot != null) {
+            render(snapshot);
+            if (wasCompleted && !snapshot.getStats().isCompleted()) {
+                gameTimer.start();
+            }
             showMessage("Move undone.");
         } else {
             showMessage("No moves to undo.");
         }
     }
     
+    private void handleRedo() {
+        GameSnapshot snapshot = asyncGameManager.callNow(
+            manager -> manager.redoMove() ? manager.snapshot(renderedVersion) : null);
+        if (snapshot != null) {
+            render(snapshot);
+            if (snapshot.getStats().isCompleted()) {
+                gameTimer.stop();
+            }
+            showMessage("Move redone.");
+        } else {
+            showMessage("No moves to redo.");
+        }
+    }
+    
     private void handleSave() {
         if (gameManager.getCurrentBoard() == null) {
             showMessage("No game to save.");
@@ -348,178 +421,143 @@ public class SudokuSwingGUI extends JFrame {
         String filename = JOptionPane.showInputDialog(this, "Enter filename (or leave empty for auto-generated):", "Save Game", JOptionPane.QUESTION_MESSAGE);
         if (filename == null) return; // User cancelled
         
-        if (gameManager.saveGame(filename.trim().isEmpty() ? null : filename, playerName)) {
-            showMessage("Game saved successfully!");
-        } else {
-            showMessage("Failed to save game.");
-            JOptionPane.showMessageDialog(this, "Failed to save game.", "Save Error", JOptionPane.ERROR_MESSAGE);
-        }
-    }
-    
-    private void handleLoad() {
-        java.util.List<String> savedGames = gameManager.listSavedGames();
-        
-        if (savedGames.isEmpty()) {
-            showMessage("No saved games found.");
-            JOptionPane.showMessageDialog(this, "No saved games found.", "Load Game", JOptionPane.INFORMATION_MESSAGE);
-            return;
-        }
-        
-        String[] gameArray = savedGames.toArray(new String[0]);
-        String selectedGame = (String) JOptionPane.showInputDialog(this,
-            "Select a game to load:",
-            "Load Game",
-            JOptionPane.QUESTION_MESSAGE,
-            null,
-            gameArray,
-            gameArray[0]);
-        
-        if (selectedGame != null) {
-            if (gameManager.loadGame(selectedGame)) {
-                updateBoard();
-                updateUI();
-                gameTimer.start();
-                showMessage("Game loaded successfully: " + selectedGame);
+        String name = filename.trim().isEmpty() ? null : filename;
+        String player = playerName;
+        tasks.runAsync("Saving game", games -> {
+            CompletableFuture<Boolean> save = games.saveGameAsync(name, player);
+            pendingSaves.add(save);
+            save.whenComplete((saved, error) -> pendingSaves.remove(save));
+            // Cancelling the task must not drop a write that is already under way
+            return save.copy();
+        }, (saved, snapshot) -> {
+            if (saved) {
+                showMessage("Game saved successfully!");
             } else {
-                showMessage("Failed to load game: " + selectedGame);
-                JOptionPane.showMessageDialog(this, "Failed to load game.", "Load Error", JOptionPane.ERROR_MESSAGE);
+                showMessage("Failed to save game.");
+                JOptionPane.showMessageDialog(this, "Failed to save game.", "Save Error", JOptionPane.ERROR_MESSAGE);
             }
+        });
+    }
+    
+    /**
+     * Blocks input to the game while a background task is using it.
+     */
+    private void setGameActionsEnabled(boolean enabled) {
+        for (JButton button : gameActionButtons) {
+            button.setEnabled(enabled);
         }
+        boardView.setEnabled(enabled);
     }
     
-    private boolean makeMove(int row, int col, int value) {
-        boolean success = gameManager.makeMove(row, col, value);
-        
-        if (success) {
-            updateUI();
-            
-            if (gameManager.isGameCompleted()) {
-                gameTimer.stop();
-                showCompletionDialog();
+    private void handleLoad() {
+        // Listing may build the save index, so it stays off the EDT
+        tasks.runAsync("Listing saves", AsyncGameManager::listSaveMetadataAsync, (savedGames, listed) -> {
+            if (savedGames.isEmpty()) {
+                showMessage("No saved games found.");
+                JOptionPane.showMessageDialog(this, "No saved games found.", "Load Game", JOptionPane.INFORMATION_MESSAGE);
+                return;
             }
-        } else {
-            // Flash cell red for error
-            JTextField cell = cells[row][col];
-            Color original = cell.getBackground();
-            cell.setBackground(Color.RED);
-            Timer flashTimer = new Timer(200, e -> cell.setBackground(original));
-            flashTimer.setRepeats(false);
-            flashTimer.start();
-        }
         
-        return success;
+            SaveMetadata[] gameArray = savedGames.toArray(new SaveMetadata[0]);
+            SaveMetadata selected = (SaveMetadata) JOptionPane.showInputDialog(this,
+                "Select a game to load:",
+                "Load Game",
+                JOptionPane.QUESTION_MESSAGE,
+                null,
+                gameArray,
+                gameArray[0]);
+        
+            if (selected != null) {
+                String selectedGame = selected.getFilename();
+                tasks.runAsync("Loading " + selectedGame, games -> games.loadGameAsync(selectedGame),
+                    (loaded, snapshot) -> {
+                        if (loaded) {
+                            boardView.clearMarks();
+                            render(snapshot);
+                            gameTimer.start();
+                            showMessage("Game loaded successfully: " + selectedGame);
+                        } else {
+                            showMessage("Failed to load game: " + selectedGame);
+                            JOptionPane.showMessageDialog(this, "Failed to load game.", "Load Error", JOptionPane.ERROR_MESSAGE);
+                        }
+                    });
+            }
+        });
     }
     
-    private void highlightRelated(int row, int col) {
-        clearHighlights();
-        
-        Color highlightColor = new Color(255, 243, 224);
+    private boolean makeMove(int row, int col, int value) {
+        GameSnapshot snapshot = asyncGameManager.callNow(
+            manager -> manager.makeMove(row, col, value) ? manager.snapshot(renderedVersion) : null);
         
-        // Highlight row, column, and 3x3 box
-        for (int i = 0; i < 9; i++) {
-            cells[row][i].setBackground(highlightColor);
-            cells[i][col].setBackground(highlightColor);
-        }
+        // The board view flashes the cell when the move is rejected
+        if (snapshot == null) return false;
         
-        int boxRow = (row / 3) * 3;
-        int boxCol = (col / 3) * 3;
-        for (int r = boxRow; r < boxRow + 3; r++) {
-            for (int c = boxCol; c < boxCol + 3; c++) {
-                cells[r][c].setBackground(highlightColor);
-            }
+        render(snapshot);
+        if (snapshot.getStats().isCompleted()) {
+            gameTimer.stop();
+            showCompletionDialog(snapshot.getStats());
         }
+        return true;
     }
     
-    private void clearHighlights() {
-        for (int row = 0; row < 9; row++) {
-            for (int col = 0; col < 9; col++) {
-                cells[row][col].setBackground(Color.WHITE);
-            }
-        }
+    private void togglePencilMark(int row, int col, int digit) {
+        render(asyncGameManager.callNow(
+            manager -> manager.togglePencilMark(row, col, digit) ? manager.snapshot(renderedVersion) : null));
     }
     
-    private void highlightErrors() {
-        SudokuBoard board = gameManager.getCurrentBoard();
-        if (board == null) return;
-        
-        Color errorColor = new Color(255, 235, 238);
-        
+    private void highlightErrors(GameSnapshot snapshot) {
+        SudokuBoard board = snapshot.getBoard();
+        BitSet errors = new BitSet(SudokuBoard.CELL_COUNT);
         for (int row = 0; row < 9; row++) {
             for (int col = 0; col < 9; col++) {
                 if (!board.isEmpty(row, col) && board.hasConflict(row, col)) {
-                    cells[row][col].setBackground(errorColor);
+                    errors.set(row * SudokuBoard.SIZE + col);
                 }
             }
         }
+        boardView.setErrorCells(errors);
     }
     
-    private void updateBoard() {
-        SudokuBoard board = gameManager.getCurrentBoard();
-        if (board == null) {
-            showMessage("updateBoard: board is null!");
-            return;
-        }
-        
-        showMessage("Updating board display...");
-        int updatedCells = 0;
+    /**
+     * Shows a snapshot of the game, unless one of a later board version is
+     * already on screen.
+     */
+    private void render(GameSnapshot snapshot) {
+        if (snapshot == null || snapshot.getVersion() < renderedVersion) return;
         
-        for (int row = 0; row < 9; row++) {
-            for (int col = 0; col < 9; col++) {
-                JTextField cell = cells[row][col];
-                SudokuDocumentFilter filter = filters[row][col];
-                int value = board.getValue(row, col);
-                boolean fixed = board.getCell(row, col).isFixed();
-                
-                // Enable programmatic updates
-                filter.setProgrammaticUpdate(true);
-                
-                if (value == 0) {
-                    cell.setText("");
-                } else {
-                    cell.setText(String.valueOf(value));
-                    updatedCells++;
-                }
-                
-                // Disable programmatic updates
-                filter.setProgrammaticUpdate(false);
-                
-                // Style cells based on mode and state
-                if (gameManager.isCustomInputMode()) {
-                    cell.setBackground(new Color(255, 248, 225)); // Light yellow for input mode
-                    cell.setForeground(new Color(255, 87, 34)); // Orange text
-                    cell.setEditable(true);
-                } else if (fixed) {
-                    cell.setBackground(new Color(240, 240, 240));
-                    cell.setForeground(Color.BLACK);
-                    cell.setEditable(false);
-                } else {
-                    cell.setBackground(Color.WHITE);
-                    cell.setForeground(new Color(33, 150, 243));
-                    cell.setEditable(true);
-                }
-                
-                cell.repaint();
-            }
+        boardView.setSnapshot(snapshot);
+        if (snapshot.getVersion() != renderedVersion || snapshot.getHintAnalysis() != null) {
+            updateSteps(snapshot.getHintAnalysis());
+        }
+        renderedVersion = snapshot.getVersion();
+        updateUI(snapshot.getStats());
+    }
+    
+    /**
+     * Shows the estimated steps left, or a placeholder until the analysis
+     * of the board on screen arrives.
+     */
+    private void updateSteps(HintPrecomputer.Analysis analysis) {
+        if (analysis == null) {
+            stepsLabel.setText("Steps left: …");
+        } else if (analysis.isSolvableWithSingles()) {
+            stepsLabel.setText("Steps left: " + analysis.getStepsRemaining());
+        } else {
+            stepsLabel.setText("Steps left: " + analysis.getStepsRemaining()
+                + " (" + analysis.getLogicalSteps() + " easy)");
         }
-        
-        showMessage("Updated " + updatedCells + " cells with values");
-        
-        // Force repaint of the entire grid
-        this.repaint();
     }
     
-    private void updateUI() {
-        if (gameManager.getCurrentBoard() != null) {
-            movesLabel.setText("Moves: " + gameManager.getMoveCount());
-            hintsLabel.setText("Hints: " + gameManager.getHintsUsed());
-            
-            if (gameManager.isGameCompleted()) {
-                statusLabel.setText("Status: Completed!");
-                statusLabel.setForeground(new Color(76, 175, 80));
-            } else {
-                statusLabel.setText("Status: In Progress");
-                statusLabel.setForeground(new Color(33, 150, 243));
-            }
+    private void updateUI(GameManager.GameStats stats) {
+        movesLabel.setText("Moves: " + stats.getMoveCount());
+        hintsLabel.setText("Hints: " + stats.getHintsUsed());
+        
+        if (stats.isCompleted()) {
+            statusLabel.setText("Status: Completed!");
+            statusLabel.setForeground(new Color(76, 175, 80));
+        } else {
+            statusLabel.setText("Status: In Progress");
+            statusLabel.setForeground(new Color(33, 150, 243));
         }
     }
     
@@ -530,110 +568,118 @@ public class SudokuSwingGUI extends JFrame {
         });
     }
     
-    private void showCompletionDialog() {
+    private void showCompletionDialog(GameManager.GameStats stats) {
         String message = String.format(
             "Congratulations! You completed the puzzle in %s with %d moves and %d hints!",
-            gameManager.getFormattedTime(),
-            gameManager.getMoveCount(),
-            gameManager.getHintsUsed()
+            stats.getTimeElapsed(),
+            stats.getMoveCount(),
+            stats.getHintsUsed()
         );
         
         JOptionPane.showMessageDialog(this, message, "Puzzle Completed!", 
             JOptionPane.INFORMATION_MESSAGE);
-        showMessage("🎉 Puzzle completed! " + gameManager.getGameStats());
+        showMessage("🎉 Puzzle completed! " + stats);
     }
     
     private void handleCustomPuzzleInput() {
-        gameManager.startCustomInputMode();
-        updateBoard();
-        updateUI();
-        statusLabel.setText("Status: Enter your puzzle");
-        statusLabel.setForeground(new Color(255, 152, 0));
-        finishInputButton.setVisible(true);
-        showMessage("Custom puzzle input mode activated. Click cells to enter numbers.");
-        
-        JOptionPane.showMessageDialog(this,
-            "Enter your puzzle by clicking on cells and typing numbers.\n" +
-            "Leave cells empty for unknowns.\n" +
-            "Click 'Finish Input' when done.",
-            "Custom Puzzle Input",
-            JOptionPane.INFORMATION_MESSAGE);
+        // Supersedes a running task; waits for the game lock off the EDT
+        tasks.cancel();
+        tasks.run("Starting custom input", manager -> {
+            manager.startCustomInputMode();
+            return null;
+        }, (ignored, snapshot) -> {
+            boardView.clearMarks();
+            render(snapshot);
+            statusLabel.setText("Status: Enter your puzzle");
+            statusLabel.setForeground(new Color(255, 152, 0));
+            finishInputButton.setVisible(true);
+            showMessage("Custom puzzle input mode activated. Click cells to enter numbers.");
+            
+            JOptionPane.showMessageDialog(this,
+                "Enter your puzzle by clicking on cells and typing numbers.\n" +
+                "Use the arrow keys to move and Backspace to clear a cell.\n" +
+                "Leave cells empty for unknowns.\n" +
+                "Click 'Finish Input' when done.",
+                "Custom Puzzle Input",
+                JOptionPane.INFORMATION_MESSAGE);
+        });
     }
     
     private void handleFinishCustomInput() {
-        GameManager.CustomPuzzleResult result = gameManager.finishCustomInput();
-        
-        if (result.isSuccess()) {
-            finishInputButton.setVisible(false);
-            updateBoard();
-            updateUI();
-            showMessage("Custom puzzle validated: " + result.getMessage());
-            
-            int choice = JOptionPane.showConfirmDialog(this,
-                "Solve this puzzle now?",
-                "Solve Custom Puzzle", JOptionPane.YES_NO_OPTION);
-            
-            if (choice == JOptionPane.YES_OPTION) {
-                if (gameManager.solveCustomPuzzle()) {
-                    updateBoard();
-                    updateUI();
-                    showMessage("Custom puzzle solved!");
-                    JOptionPane.showMessageDialog(this, "Puzzle solved successfully!", "Solution Found", JOptionPane.INFORMATION_MESSAGE);
-                } else {
-                    showMessage("Failed to solve custom puzzle.");
+        tasks.run("Validating puzzle", GameManager::finishCustomInput, (result, snapshot) -> {
+            render(snapshot);
+            if (result.isSuccess()) {
+                finishInputButton.setVisible(false);
+                showMessage("Custom puzzle validated: " + result.getMessage());
+                
+                int choice = JOptionPane.showConfirmDialog(this,
+                    "Solve this puzzle now?",
+                    "Solve Custom Puzzle", JOptionPane.YES_NO_OPTION);
+                
+                if (choice == JOptionPane.YES_OPTION) {
+                    solveCustomPuzzle();
                 }
+            } else {
+                showMessage("Custom puzzle error: " + result.getMessage());
+                JOptionPane.showMessageDialog(this, result.getMessage(), "Invalid Puzzle", JOptionPane.ERROR_MESSAGE);
             }
-        } else {
-            showMessage("Custom puzzle error: " + result.getMessage());
-            JOptionPane.showMessageDialog(this, result.getMessage(), "Invalid Puzzle", JOptionPane.ERROR_MESSAGE);
-        }
+        });
     }
     
-    // Document filter for input validation
-    private class SudokuDocumentFilter extends DocumentFilter {
-        private final int row, col;
-        private boolean programmaticUpdate = false;
-        
-        public SudokuDocumentFilter(int row, int col) {
-            this.row = row;
-            this.col = col;
+    private void solveCustomPuzzle() {
+        tasks.run("Solving", GameManager::solveCustomPuzzle, (solved, snapshot) -> {
+            if (solved) {
+                render(snapshot);
+                showMessage("Custom puzzle solved!");
+                JOptionPane.showMessageDialog(this, "Puzzle solved successfully!", "Solution Found", JOptionPane.INFORMATION_MESSAGE);
+            } else {
+                showMessage("Failed to solve custom puzzle.");
+            }
+        });
+    }
+    
+    /**
+     * Starts a game of the selected difficulty without asking, then brings
+     * up what the first board did not need.
+     */
+    private void startFirstGame() {
+        Difficulty difficulty = (Difficulty) difficultyCombo.getSelectedItem();
+        tasks.runAsync("Preparing puzzle",
+            games -> games.startNewGameAsync(difficulty),
+            (ignored, snapshot) -> {
+                render(snapshot);
+                gameTimer.start();
+                showMessage("New " + difficulty.name().toLowerCase() + " game started!");
+                // Runs after the repaint queued by render, i.e. once the board is drawn
+                SwingUtilities.invokeLater(this::finishStartup);
+            });
+    }
+    
+    private void finishStartup() {
+        if (Boolean.getBoolean("sudoku.startup.report") || Boolean.getBoolean("sudoku.startup.exit")) {
+            long started = ProcessHandle.current().info().startInstant()
+                .map(instant -> instant.toEpochMilli()).orElse(System.currentTimeMillis());
+            System.err.println("Startup: interactive board after " + (System.currentTimeMillis() - started) + " ms");
         }
-        
-        public void setProgrammaticUpdate(boolean programmatic) {
-            this.programmaticUpdate = programmatic;
+        if (Boolean.getBoolean("sudoku.startup.exit")) {
+            System.exit(0);
         }
         
-        @Override
-        public void replace(FilterBypass fb, int offset, int length, String text, AttributeSet attrs)
-                throws BadLocationException {
-            
-            // Allow programmatic updates without validation
-            if (programmaticUpdate) {
-                super.replace(fb, offset, length, text, attrs);
-                return;
-            }
-            
-            // User input validation
-            if (text.isEmpty()) {
-                super.replace(fb, offset, length, text, attrs);
-                makeMove(row, col, 0);
-                return;
-            }
-            
-            if (text.matches("[1-9]") && text.length() == 1) {
-                super.replace(fb, offset, length, text, attrs);
-                int value = Integer.parseInt(text);
-                if (!makeMove(row, col, value)) {
-                    // Revert if invalid move
-                    super.replace(fb, 0, fb.getDocument().getLength(), "", attrs);
-                }
-            }
-        }
+        autoSave = new AutoSaveService(gameManager.getPersistence());
+        asyncGameManager.enableAutoSave(autoSave, "autosave", System.getProperty("user.name", "Player"));
+        
+        Thread refill = new Thread(() -> gameManager.refillPuzzlePool(POOL_SIZE), "sudoku-puzzle-pool");
+        refill.setDaemon(true);
+        refill.setPriority(Thread.MIN_PRIORITY);
+        refill.start();
     }
     
     public static void main(String[] args) {
+        MetricsRegistry.configureFromSystemProperties();
         SwingUtilities.invokeLater(() -> {
-            new SudokuSwingGUI().setVisible(true);
+            SudokuSwingGUI gui = new SudokuSwingGUI();
+            gui.setVisible(true);
+            gui.startFirstGame();
         });
     }
 }
\ No newline at end of file
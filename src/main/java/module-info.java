@@ -0,0 +1,15 @@
+module sudoku.game {
+    requires java.desktop;
+    requires java.management;
+    requires jdk.jfr;
+    
+    exports com.sudoku;
+    exports com.sudoku.ui;
+    exports com.sudoku.model;
+    exports com.sudoku.manager;
+    exports com.sudoku.solver;
+    exports com.sudoku.generator;
+    exports com.sudoku.persistence;
+    exports com.sudoku.simulation;
+    exports com.sudoku.metrics;
+}
\ No newline at end of file
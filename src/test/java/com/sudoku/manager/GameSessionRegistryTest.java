@@ -0,0 +1,44 @@
+package com.sudoku.manager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.sudoku.model.Difficulty;
+import com.sudoku.persistence.DirectorySaveStore;
+import com.sudoku.persistence.GamePersistence;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class GameSessionRegistryTest {
+    @TempDir
+    Path directory;
+    
+    @Test
+    void totalMovesCountsEveryWayOfMoving() {
+        GameSessionRegistry registry = new GameSessionRegistry(1,
+            new GamePersistence(new DirectorySaveStore(directory, ".sudoku"), null, 0));
+        String id = registry.createSession().getId();
+        int cell = registry.withSession(id, manager -> {
+            manager.startNewGame(Difficulty.EASY);
+            return emptyCell(manager);
+        });
+        int row = cell / 9;
+        int col = cell % 9;
+        
+        assertTrue(registry.makeMove(id, row, col, 0));
+        registry.withSession(id, manager -> manager.makeMove(row, col, manager.getSolutionValue(row, col)));
+        assertEquals(2, registry.getTotalMoves());
+        
+        registry.evictSession(id);
+        assertEquals(2, registry.getTotalMoves(), "moves of evicted sessions are kept");
+    }
+    
+    private static int emptyCell(GameManager manager) {
+        for (int cell = 0; cell < 81; cell++) {
+            if (manager.getCurrentBoard().isEmpty(cell / 9, cell % 9)) {
+                return cell;
+            }
+        }
+        throw new AssertionError("no empty cell");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,118 @@
+package com.sudoku.manager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.sudoku.model.SudokuBoard;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MoveLogTest {
+    // Long enough to span several checkpoints
+    private static final int MOVES = 3 * MoveLog.CHECKPOINT_INTERVAL + 17;
+    
+    private final SudokuBoard board = new SudokuBoard();
+    private final MoveLog log = new MoveLog();
+    // Board values after each number of moves, starting with the empty board
+    private final List<int[][]> states = new ArrayList<>();
+    
+    @BeforeEach
+    void play() {
+        log.reset(board);
+        states.add(board.getBoardArray());
+        for (int i = 0; i < MOVES; i++) {
+            int row = (i * 7) % 9;
+            int col = (i * 5 + i / 9) % 9;
+            int value = i % 10;
+            int previous = board.getValue(row, col);
+            board.setValue(row, col, value);
+            log.record(row, col, previous, value, board);
+            states.add(board.getBoardArray());
+        }
+    }
+    
+    @Test
+    void packsAllFields() {
+        int move = MoveLog.pack(8, 7, 3, 9, 1234);
+        
+        assertEquals(8, MoveLog.getRow(move));
+        assertEquals(7, MoveLog.getCol(move));
+        assertEquals(3, MoveLog.getPreviousValue(move));
+        assertEquals(9, MoveLog.getNewValue(move));
+        assertEquals(1234, MoveLog.getDeltaCentis(move));
+    }
+    
+    @Test
+    void undoAndRedoWalkThroughEveryState() {
+        for (int position = MOVES; position > 0; position--) {
+            assertTrue(log.undo(board));
+            assertArrayEquals(states.get(position - 1), board.getBoardArray(), "after undo to " + (position - 1));
+        }
+        assertFalse(log.undo(board));
+        
+        for (int position = 1; position <= MOVES; position++) {
+            assertTrue(log.redo(board));
+            assertArrayEquals(states.get(position), board.getBoardArray(), "after redo to " + position);
+        }
+        assertFalse(log.redo(board));
+    }
+    
+    @Test
+    void seekReachesAnyPosition() {
+        int[] targets = {0, MOVES, 1, MoveLog.CHECKPOINT_INTERVAL, 2 * MoveLog.CHECKPOINT_INTERVAL - 1,
+            MOVES - 1, MoveLog.CHECKPOINT_INTERVAL + 3, 5, 3 * MoveLog.CHECKPOINT_INTERVAL};
+        for (int target : targets) {
+            assertTrue(log.seek(target, board));
+            assertEquals(target, log.getPosition());
+            assertArrayEquals(states.get(target), board.getBoardArray(), "after seek to " + target);
+        }
+        assertFalse(log.seek(MOVES + 1, board));
+        assertFalse(log.seek(-1, board));
+    }
+    
+    @Test
+    void seekPublishesOneChangeEvent() {
+        int[] events = {0};
+        board.addChangeListener(event -> events[0]++);
+        
+        log.seek(3, board);
+        
+        assertEquals(1, events[0]);
+    }
+    
+    @Test
+    void recordingAfterUndoDiscardsTheRedoTail() {
+        log.seek(2 * MoveLog.CHECKPOINT_INTERVAL + 5, board);
+        int previous = board.getValue(4, 4);
+        board.setValue(4, 4, 9);
+        log.record(4, 4, previous, 9, board);
+        
+        assertEquals(2 * MoveLog.CHECKPOINT_INTERVAL + 6, log.size());
+        assertFalse(log.canRedo());
+        int[][] latest = board.getBoardArray();
+        
+        log.seek(0, board);
+        assertArrayEquals(states.get(0), board.getBoardArray());
+        log.seek(log.size(), board);
+        assertArrayEquals(latest, board.getBoardArray());
+    }
+    
+    @Test
+    void restoredHistoryMatchesTheOriginal() {
+        int position = 2 * MoveLog.CHECKPOINT_INTERVAL + 40;
+        log.seek(position, board);
+        
+        SudokuBoard restoredBoard = board.copy();
+        MoveLog restored = new MoveLog();
+        restored.restore(log.toArray(), position, restoredBoard);
+        
+        assertEquals(MOVES, restored.size());
+        assertEquals(position, restored.getPosition());
+        assertArrayEquals(log.toArray(), restored.toArray());
+        for (int target : new int[] {0, 7, MoveLog.CHECKPOINT_INTERVAL + 1, MOVES}) {
+            restored.seek(target, restoredBoard);
+            assertArrayEquals(states.get(target), restoredBoard.getBoardArray(), "after seek to " + target);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,165 @@
+package com.sudoku.persistence;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ArchiveSaveStoreTest {
+    @TempDir
+    Path directory;
+    
+    @Test
+    void readsBackWhatWasWritten() throws IOException {
+        try (ArchiveSaveStore store = new ArchiveSaveStore(directory)) {
+            store.write("a", encode("first"));
+            store.write("b", encode("second"));
+            store.write("a", encode("replaced"));
+            
+            assertEquals("replaced", decode(store.read("a")));
+            assertEquals("second", decode(store.read("b")));
+            assertNull(store.read("missing"));
+            assertEquals(List.of("a", "b"), store.list());
+        }
+    }
+    
+    @Test
+    void compactionKeepsOnlyLiveRecords() throws IOException {
+        try (ArchiveSaveStore store = new ArchiveSaveStore(directory, Long.MAX_VALUE)) {
+            for (int i = 0; i < 100; i++) {
+                store.write("save" + (i % 10), encode("version " + i));
+            }
+            store.delete("save0");
+            long before = store.getDataBytes();
+            
+            store.compact();
+            
+            assertEquals(store.getLiveBytes(), store.getDataBytes());
+            assertTrue(store.getDataBytes() < before / 5);
+            assertEquals(9, store.list().size());
+            assertEquals("version 99", decode(store.read("save9")));
+            assertNull(store.read("save0"));
+        }
+        assertEquals(1, dataFiles().size(), "the old data file is deleted");
+        
+        try (ArchiveSaveStore reopened = new ArchiveSaveStore(directory)) {
+            assertEquals(9, reopened.list().size());
+            assertEquals("version 91", decode(reopened.read("save1")));
+        }
+    }
+    
+    @Test
+    void compactsOnItsOwnOnceMostDataIsDead() throws IOException {
+        try (ArchiveSaveStore store = new ArchiveSaveStore(directory, 1024)) {
+            for (int i = 0; i < 200; i++) {
+                store.write("only", encode("payload number " + i));
+            }
+            
+            assertTrue(store.getDataBytes() < 2048, "data file has " + store.getDataBytes() + " bytes");
+            assertEquals("payload number 199", decode(store.read("only")));
+        }
+    }
+    
+    @Test
+    void failedCompactionDoesNotFailWrites() throws IOException {
+        // A non-empty directory where the new index goes makes every compaction fail
+        Path blocker = Files.createDirectories(directory.resolve("archive.idx.tmp"));
+        Files.createFile(blocker.resolve("blocker"));
+        
+        try (ArchiveSaveStore store = new ArchiveSaveStore(directory, 1024)) {
+            for (int i = 0; i < 200; i++) {
+                store.write("only", encode("payload number " + i));
+            }
+            assertEquals("payload number 199", decode(store.read("only")));
+            assertEquals(1, dataFiles().size(), "failed compactions leave no data files behind");
+            
+            Files.delete(blocker.resolve("blocker"));
+            Files.delete(blocker);
+            store.write("only", encode("after the fix"));
+            
+            assertTrue(store.getDataBytes() < 1024, "data file has " + store.getDataBytes() + " bytes");
+        }
+        try (ArchiveSaveStore reopened = new ArchiveSaveStore(directory)) {
+            assertEquals("after the fix", decode(reopened.read("only")));
+        }
+    }
+    
+    @Test
+    void readBufferSurvivesCompaction() throws IOException {
+        try (ArchiveSaveStore store = new ArchiveSaveStore(directory, Long.MAX_VALUE)) {
+            store.write("kept", encode("still here"));
+            store.write("gone", encode("deleted"));
+            ByteBuffer read = store.read("kept");
+            
+            store.delete("gone");
+            store.compact();
+            
+            assertEquals("still here", decode(read));
+        }
+    }
+    
+    @Test
+    void readsRecordsOnBothSidesOfTheMapping() throws IOException {
+        String padding = "x".repeat(100);
+        try (ArchiveSaveStore store = new ArchiveSaveStore(directory, Long.MAX_VALUE)) {
+            for (int i = 0; i < 3000; i++) {
+                store.write("save" + i, encode(i + padding));
+                assertEquals(i + padding, decode(store.read("save" + i)));
+                assertEquals(i / 2 + padding, decode(store.read("save" + i / 2)));
+            }
+        }
+    }
+    
+    @Test
+    void asyncWritesLandInOrderBeforeClose() throws IOException {
+        try (ArchiveSaveStore store = new ArchiveSaveStore(directory, 1024)) {
+            for (int i = 0; i < 100; i++) {
+                store.writeAsync("only", encode("version " + i));
+            }
+        }
+        try (ArchiveSaveStore reopened = new ArchiveSaveStore(directory)) {
+            assertEquals("version 99", decode(reopened.read("only")));
+        }
+    }
+    
+    @Test
+    void tornIndexEntryIsIgnored() throws IOException {
+        try (ArchiveSaveStore store = new ArchiveSaveStore(directory)) {
+            store.write("a", encode("complete"));
+        }
+        Files.write(directory.resolve("archive.idx"), new byte[] {0, 5, 'b'}, StandardOpenOption.APPEND);
+        
+        try (ArchiveSaveStore store = new ArchiveSaveStore(directory)) {
+            assertEquals(List.of("a"), store.list());
+            store.write("b", encode("after recovery"));
+        }
+        try (ArchiveSaveStore store = new ArchiveSaveStore(directory)) {
+            assertEquals("complete", decode(store.read("a")));
+            assertEquals("after recovery", decode(store.read("b")));
+        }
+    }
+    
+    private List<Path> dataFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".dat")).toList();
+        }
+    }
+    
+    private static ByteBuffer encode(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static String decode(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
\ No newline at end of file
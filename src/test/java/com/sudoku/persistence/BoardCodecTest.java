@@ -0,0 +1,81 @@
+package com.sudoku.persistence;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.sudoku.generator.SudokuGenerator;
+import com.sudoku.model.Difficulty;
+import com.sudoku.model.SudokuBoard;
+import java.nio.ByteBuffer;
+import org.junit.jupiter.api.Test;
+
+class BoardCodecTest {
+    private final SudokuGenerator.GeneratedPuzzle generated = new SudokuGenerator(7).generate(Difficulty.MEDIUM);
+    private final int[][] puzzle = generated.getPuzzle().getBoardArray();
+    
+    @Test
+    void packedBoardRoundTrips() {
+        ByteBuffer buffer = ByteBuffer.allocate(BoardCodec.PACKED_BOARD_BYTES);
+        BoardCodec.writeBoard(buffer, generated.getSolution());
+        assertFalse(buffer.hasRemaining());
+        
+        assertArrayEquals(generated.getSolution(), BoardCodec.readBoard(buffer.flip()));
+    }
+    
+    @Test
+    void puzzleIsStoredAsGivensMaskAndValues() {
+        ByteBuffer buffer = ByteBuffer.allocate(BoardCodec.puzzleBytes(puzzle));
+        BoardCodec.writePuzzle(buffer, puzzle);
+        assertFalse(buffer.hasRemaining(), "puzzleBytes must match what writePuzzle writes");
+        assertTrue(buffer.capacity() < BoardCodec.PACKED_BOARD_BYTES);
+        
+        assertArrayEquals(puzzle, BoardCodec.readPuzzle(buffer.flip()));
+    }
+    
+    @Test
+    void maskRoundTrips() {
+        boolean[][] givens = BoardCodec.givensOf(puzzle);
+        ByteBuffer buffer = ByteBuffer.allocate(BoardCodec.PACKED_MASK_BYTES);
+        BoardCodec.writeMask(buffer, givens);
+        
+        boolean[][] read = BoardCodec.readMask(buffer.flip());
+        assertArrayEquals(givens, read);
+        assertTrue(BoardCodec.isGivensOf(read, puzzle));
+        
+        read[0][0] = !read[0][0];
+        assertFalse(BoardCodec.isGivensOf(read, puzzle));
+    }
+    
+    @Test
+    void selectedCellsRoundTripWithOddCount() {
+        boolean[][] mask = new boolean[SudokuBoard.SIZE][SudokuBoard.SIZE];
+        mask[0][0] = true;
+        mask[4][4] = true;
+        mask[8][8] = true;
+        ByteBuffer buffer = ByteBuffer.allocate(2);
+        BoardCodec.writeCells(buffer, generated.getSolution(), mask, true);
+        
+        int[][] read = new int[SudokuBoard.SIZE][SudokuBoard.SIZE];
+        BoardCodec.readCells(buffer.flip(), read, mask, true);
+        assertEquals(generated.getSolution()[0][0], read[0][0]);
+        assertEquals(generated.getSolution()[4][4], read[4][4]);
+        assertEquals(generated.getSolution()[8][8], read[8][8]);
+        assertEquals(0, read[0][1]);
+    }
+    
+    @Test
+    void invalidCellValueIsRejected() {
+        boolean[][] mask = new boolean[SudokuBoard.SIZE][SudokuBoard.SIZE];
+        mask[0][0] = true;
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[] {(byte) 0xF0});
+        
+        assertThrows(IllegalArgumentException.class,
+            () -> BoardCodec.readCells(buffer, new int[SudokuBoard.SIZE][SudokuBoard.SIZE], mask, true));
+    }
+    
+    @Test
+    void shareCodeRoundTrips() {
+        String code = BoardCodec.toShareCode(puzzle);
+        
+        assertArrayEquals(puzzle, BoardCodec.fromShareCode(code));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,156 @@
+package com.sudoku.persistence;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.sudoku.generator.SudokuGenerator;
+import com.sudoku.manager.GameManager;
+import com.sudoku.model.Difficulty;
+import com.sudoku.solver.SudokuSolver;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class GamePersistenceTest {
+    @TempDir
+    Path directory;
+    
+    private DirectorySaveStore store;
+    private GamePersistence persistence;
+    private GameManager game;
+    
+    @BeforeEach
+    void setUp() {
+        store = new DirectorySaveStore(directory, ".sudoku");
+        // No cache, so every load decodes the file
+        persistence = new GamePersistence(store, null, 0);
+        game = new GameManager(new SudokuGenerator(11), new SudokuSolver());
+        game.setPersistence(persistence);
+        game.startNewGame(Difficulty.EASY);
+    }
+    
+    @Test
+    void roundTripKeepsProgressHistoryAndPencilMarks() {
+        int[] mistake = findMistake();
+        assertTrue(game.makeMove(mistake[0] / 9, mistake[0] % 9, mistake[1]));
+        int[] empty = emptyCells(3);
+        game.makeMove(empty[0] / 9, empty[0] % 9, game.getSolutionValue(empty[0] / 9, empty[0] % 9));
+        game.makeMove(empty[1] / 9, empty[1] % 9, game.getSolutionValue(empty[1] / 9, empty[1] % 9));
+        game.undoMove();
+        game.togglePencilMark(empty[2] / 9, empty[2] % 9, 2);
+        game.togglePencilMark(empty[2] / 9, empty[2] % 9, 7);
+        GameState expected = game.createGameState("Ana");
+        
+        assertTrue(persistence.saveGame(expected, "progress"));
+        GameState loaded = persistence.loadGame("progress");
+        
+        assertNotNull(loaded);
+        assertArrayEquals(expected.getCurrentBoard(), loaded.getCurrentBoard());
+        assertArrayEquals(expected.getOriginalBoard(), loaded.getOriginalBoard());
+        assertArrayEquals(expected.getFixedCells(), loaded.getFixedCells());
+        assertArrayEquals(expected.getSolution(), loaded.getSolution());
+        assertArrayEquals(expected.getMoveHistory(), loaded.getMoveHistory());
+        assertEquals(2, loaded.getMovePosition());
+        assertArrayEquals(expected.getPencilMarks(), loaded.getPencilMarks());
+        assertEquals(expected.getDifficulty(), loaded.getDifficulty());
+        assertEquals(expected.getStartTime(), loaded.getStartTime());
+        assertEquals(1, loaded.getMistakes());
+        assertEquals("Ana", loaded.getPlayerName());
+    }
+    
+    @Test
+    void fixedCellsOutsideTheGivensAreKept() {
+        GameState state = game.createGameState("Ana");
+        int cell = emptyCells(1)[0];
+        state.getFixedCells()[cell / 9][cell % 9] = true;
+        
+        persistence.saveGame(state, "custom");
+        GameState loaded = persistence.loadGame("custom");
+        
+        assertArrayEquals(state.getFixedCells(), loaded.getFixedCells());
+    }
+    
+    @Test
+    void saveGrowsWithProgressNotBoardSize() throws IOException {
+        persistence.saveGame(game.createGameState("Ana"), "fresh");
+        int fresh = store.read("fresh.sudoku").remaining();
+        int[] empty = emptyCells(10);
+        for (int cell : empty) {
+            game.makeMove(cell / 9, cell % 9, game.getSolutionValue(cell / 9, cell % 9));
+        }
+        persistence.saveGame(game.createGameState("Ana"), "played");
+        int played = store.read("played.sudoku").remaining();
+        
+        assertTrue(played > fresh);
+        // Ten moves cost a few bytes each, not another copy of the board
+        assertTrue(played - fresh < 10 * 6, "grew by " + (played - fresh));
+    }
+    
+    @Test
+    void indexNoticesSavesRewrittenWhileClosed() {
+        Path indexFile = directory.resolve("saves.index");
+        GamePersistence indexed = new GamePersistence(store, indexFile, 0);
+        indexed.saveGame(game.createGameState("Ana"), "shared");
+        assertEquals("Ana", indexed.listSaveMetadata(null, null, 10).get(0).getPlayerName());
+        
+        // Rewritten without the index knowing, as by another process
+        persistence.saveGame(game.createGameState("Bea"), "shared");
+        
+        GamePersistence reopened = new GamePersistence(store, indexFile, 0);
+        assertEquals("Bea", reopened.listSaveMetadata(null, null, 10).get(0).getPlayerName());
+    }
+    
+    @Test
+    void corruptedSaveIsRejected() throws IOException {
+        persistence.saveGame(game.createGameState("Ana"), "damaged");
+        Path file = directory.resolve("damaged.sudoku");
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 0x10;
+        Files.write(file, bytes);
+        
+        assertNull(persistence.loadGame("damaged"));
+    }
+    
+    @Test
+    void truncatedSaveIsRejected() throws IOException {
+        persistence.saveGame(game.createGameState("Ana"), "short");
+        ByteBuffer data = store.read("short.sudoku");
+        byte[] bytes = new byte[data.remaining() - 3];
+        data.get(bytes);
+        Files.write(directory.resolve("short.sudoku"), bytes);
+        
+        assertNull(persistence.loadGame("short"));
+    }
+    
+    private int[] emptyCells(int count) {
+        int[] cells = new int[count];
+        int found = 0;
+        for (int cell = 0; cell < 81 && found < count; cell++) {
+            if (game.getCurrentBoard().isEmpty(cell / 9, cell % 9)) {
+                cells[found++] = cell;
+            }
+        }
+        return cells;
+    }
+    
+    /**
+     * An empty cell and a digit that the rules allow there but that is not
+     * the solution.
+     */
+    private int[] findMistake() {
+        for (int cell = 0; cell < 81; cell++) {
+            int row = cell / 9;
+            int col = cell % 9;
+            if (!game.getCurrentBoard().isEmpty(row, col)) continue;
+            for (int value = 1; value <= 9; value++) {
+                if (value != game.getSolutionValue(row, col) && game.getCurrentBoard().isValidMove(row, col, value)) {
+                    return new int[] {cell, value};
+                }
+            }
+        }
+        throw new IllegalStateException("No possible mistake on this board");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,173 @@
+package com.sudoku.persistence;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.sudoku.generator.SudokuGenerator;
+import com.sudoku.manager.GameManager;
+import com.sudoku.manager.MoveLog;
+import com.sudoku.model.Difficulty;
+import com.sudoku.model.SudokuBoard;
+import com.sudoku.solver.SudokuSolver;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MoveJournalTest {
+    @TempDir
+    Path directory;
+    
+    private GamePersistence persistence;
+    private MoveJournal journal;
+    private GameManager game;
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        persistence = new GamePersistence(new DirectorySaveStore(directory, ".sudoku"), null, 0);
+        journal = openJournal();
+        game = new GameManager(new SudokuGenerator(5), new SudokuSolver());
+        game.setPersistence(persistence);
+        game.startNewGame(Difficulty.EASY);
+        game.enableJournal(journal, "game", "Ana");
+    }
+    
+    @AfterEach
+    void tearDown() {
+        journal.close();
+    }
+    
+    @Test
+    void recoveryRebuildsBoardHistoryAndCounters() throws IOException {
+        playSomeMoves();
+        GameState expected = game.createGameState("Ana");
+        
+        GameState recovered = crashAndRecover().get("game");
+        
+        assertNotNull(recovered);
+        assertArrayEquals(expected.getCurrentBoard(), recovered.getCurrentBoard());
+        assertArrayEquals(expected.getMoveHistory(), recovered.getMoveHistory());
+        assertEquals(expected.getMovePosition(), recovered.getMovePosition());
+        assertEquals(expected.getHintsUsed(), recovered.getHintsUsed());
+        assertEquals(expected.getMistakes(), recovered.getMistakes());
+    }
+    
+    @Test
+    void recoveredGameUndoesLikeTheOriginal() throws IOException {
+        playSomeMoves();
+        
+        GameManager restored = new GameManager();
+        restored.restoreGame(crashAndRecover().get("game"));
+        while (game.undoMove()) {
+            assertTrue(restored.undoMove());
+            assertArrayEquals(game.getCurrentBoard().getBoardArray(), restored.getCurrentBoard().getBoardArray());
+        }
+        assertFalse(restored.undoMove());
+    }
+    
+    @Test
+    void tornFinalFrameIsIgnored() throws IOException {
+        playSomeMoves();
+        GameState expected = game.createGameState("Ana");
+        journal.close();
+        Path last;
+        try (Stream<Path> segments = Files.list(directory.resolve("journal"))) {
+            last = segments.sorted().reduce((first, second) -> second).orElseThrow();
+        }
+        // Half a frame header, as left by a crash in the middle of a write
+        Files.write(last, new byte[] {0, 0, 0, 40, 0, 0, 0}, StandardOpenOption.APPEND);
+        
+        journal = openJournal();
+        GameState recovered = journal.recover().get("game");
+        
+        assertArrayEquals(expected.getCurrentBoard(), recovered.getCurrentBoard());
+        assertArrayEquals(expected.getMoveHistory(), recovered.getMoveHistory());
+    }
+    
+    @Test
+    void compactionFoldsTheJournalIntoTheSave() throws IOException {
+        playSomeMoves();
+        GameState expected = game.createGameState("Ana");
+        
+        journal.compact().join();
+        GameState saved = persistence.loadGame("game");
+        
+        assertArrayEquals(expected.getCurrentBoard(), saved.getCurrentBoard());
+        assertArrayEquals(expected.getMoveHistory(), saved.getMoveHistory());
+        assertEquals(expected.getMovePosition(), saved.getMovePosition());
+    }
+    
+    @Test
+    void sequencesContinueAfterCompactionAndRestart() throws IOException {
+        playSomeMoves();
+        journal.compact().join();
+        journal.close();
+        journal = openJournal();
+        // Appended straight away, without a new snapshot of the compacted save
+        int cell = emptyCell();
+        int value = game.getSolutionValue(cell / 9, cell % 9);
+        journal.appendMove("game", MoveLog.pack(cell / 9, cell % 9, 0, value, 0)).join();
+        
+        GameState recovered = crashAndRecover().get("game");
+        
+        assertNotNull(recovered, "the move after the restart was dropped");
+        assertEquals(value, recovered.getCurrentBoard()[cell / 9][cell % 9]);
+    }
+    
+    private int emptyCell() {
+        for (int cell = 0; cell < 81; cell++) {
+            if (game.getCurrentBoard().isEmpty(cell / 9, cell % 9)) return cell;
+        }
+        throw new IllegalStateException("Board is full");
+    }
+    
+    /**
+     * Moves, revealed cells, undo, redo, a jump and a hint, so every record
+     * type is journaled.
+     */
+    private void playSomeMoves() {
+        SudokuBoard board = game.getCurrentBoard();
+        int revealed = 0;
+        for (int cell = 0; cell < 81 && revealed < 4; cell++) {
+            if (board.isEmpty(cell / 9, cell % 9)) {
+                game.revealCell(cell / 9, cell % 9);
+                revealed++;
+            }
+        }
+        for (int cell = 80; cell >= 0; cell--) {
+            if (board.isEmpty(cell / 9, cell % 9)) {
+                game.makeMove(cell / 9, cell % 9, game.getSolutionValue(cell / 9, cell % 9));
+                break;
+            }
+        }
+        game.undoMove();
+        game.undoMove();
+        game.redoMove();
+        game.getHint();
+        game.jumpToMove(2);
+        for (int cell = 40; cell < 81; cell++) {
+            if (board.isEmpty(cell / 9, cell % 9)) {
+                game.makeMove(cell / 9, cell % 9, game.getSolutionValue(cell / 9, cell % 9));
+                break;
+            }
+        }
+    }
+    
+    /**
+     * Closes the journal without a snapshot of the moves and reopens it.
+     */
+    private Map<String, GameState> crashAndRecover() throws IOException {
+        journal.close();
+        journal = openJournal();
+        return journal.recover();
+    }
+    
+    private MoveJournal openJournal() throws IOException {
+        return new MoveJournal(persistence, directory.resolve("journal"), 1 << 20);
+    }
+}
\ No newline at end of file
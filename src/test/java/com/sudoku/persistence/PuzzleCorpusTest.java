@@ -0,0 +1,113 @@
+package com.sudoku.persistence;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PuzzleCorpusTest {
+    private static final int LINES = 10;
+    // Chunks smaller than a line, around one line and spanning several
+    private static final int[] CHUNK_SIZES = {1, 7, 40, 81, 82, 83, 100, 164, 4096};
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void linesStraddlingChunkBoundariesAreReadOnce() throws IOException {
+        String content = String.join("\n", lines()) + "\n";
+        for (int chunkBytes : CHUNK_SIZES) {
+            assertImports(content, chunkBytes, 4096, grids(), 0);
+        }
+    }
+    
+    @Test
+    void lastLineWithoutNewlineIsRead() throws IOException {
+        String content = String.join("\n", lines());
+        for (int chunkBytes : CHUNK_SIZES) {
+            assertImports(content, chunkBytes, 4096, grids(), 0);
+        }
+    }
+    
+    @Test
+    void crlfLineEndingsAreAccepted() throws IOException {
+        String content = String.join("\r\n", lines()) + "\r\n";
+        for (int chunkBytes : CHUNK_SIZES) {
+            assertImports(content, chunkBytes, 4096, grids(), 0);
+        }
+    }
+    
+    @Test
+    void overLongLinesAreRejectedWithoutLosingTheirNeighbours() throws IOException {
+        List<String> lines = lines();
+        // A valid puzzle followed by a comment longer than the line limit
+        lines.add(3, lines.get(0) + " " + "x".repeat(300));
+        lines.add(7, "1".repeat(500));
+        String content = String.join("\n", lines) + "\n";
+        for (int chunkBytes : CHUNK_SIZES) {
+            assertImports(content, chunkBytes, 200, grids(), 2);
+        }
+    }
+    
+    private void assertImports(String content, int chunkBytes, int maxLineBytes,
+                               List<int[][]> expected, long rejected) throws IOException {
+        Path file = directory.resolve("puzzles.txt");
+        Files.writeString(file, content, StandardCharsets.US_ASCII);
+        ConcurrentLinkedQueue<PuzzleCorpus.Batch> batches = new ConcurrentLinkedQueue<>();
+        
+        PuzzleCorpus.ImportResult result = PuzzleCorpus.importLines(file, batches::add, chunkBytes, maxLineBytes);
+        
+        List<PuzzleCorpus.Batch> ordered = new ArrayList<>(batches);
+        ordered.sort(Comparator.comparingInt(PuzzleCorpus.Batch::getSequence));
+        List<int[][]> grids = new ArrayList<>();
+        for (PuzzleCorpus.Batch batch : ordered) {
+            for (int i = 0; i < batch.size(); i++) {
+                grids.add(batch.getBoard(i));
+            }
+        }
+        String context = "chunk size " + chunkBytes;
+        assertEquals(expected.size(), result.getPuzzles(), context);
+        assertEquals(rejected, result.getRejected(), context);
+        assertEquals(expected.size(), grids.size(), context);
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals(expected.get(i), grids.get(i), context + ", puzzle " + i);
+        }
+    }
+    
+    private static List<String> lines() {
+        List<String> lines = new ArrayList<>();
+        for (int line = 0; line < LINES; line++) {
+            StringBuilder text = new StringBuilder();
+            for (int cell = 0; cell < 81; cell++) {
+                int value = cellValue(line, cell);
+                text.append(value == 0 ? '.' : (char) ('0' + value));
+            }
+            lines.add(text.toString());
+        }
+        return lines;
+    }
+    
+    private static List<int[][]> grids() {
+        List<int[][]> grids = new ArrayList<>();
+        for (int line = 0; line < LINES; line++) {
+            int[][] grid = new int[9][9];
+            for (int cell = 0; cell < 81; cell++) {
+                grid[cell / 9][cell % 9] = cellValue(line, cell);
+            }
+            grids.add(grid);
+        }
+        return grids;
+    }
+    
+    private static int cellValue(int line, int cell) {
+        return (line * 7 + cell) % 10;
+    }
+}
\ No newline at end of file